@@ -0,0 +1,131 @@
+import java.util.AbstractQueue;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Class ArrayVisitorQueue: Single-threaded FIFO waiting line backed by a growable ring of arrays.
+ * Next to each visitor it keeps the System.nanoTime() at which the visitor joined, in a parallel
+ * long[] so no per-visitor node or boxed time is allocated. offer() and poll() are O(1) (amortized
+ * for offer(), which doubles the ring when it is full). Used for a ride's waiting line (and the lanes
+ * of a LaneQueue) outside concurrent mode; not thread-safe.
+ */
+public class ArrayVisitorQueue extends AbstractQueue<Visitor> implements WaitingLine {
+    private static final int INITIAL_CAPACITY = 16; // Power of two, so ring positions can be masked
+
+    private Visitor[] visitors = new Visitor[INITIAL_CAPACITY];
+    private long[] enqueuedAt = new long[INITIAL_CAPACITY]; // Join time of the visitor in the same slot
+    private int head; // Slot of the first waiting visitor
+    private int size;
+
+    /**
+     * Adds a visitor to the end of the line, joining now.
+     * @param visitor The Visitor to add (not null)
+     * @return always true (the queue is unbounded)
+     */
+    @Override
+    public boolean offer(Visitor visitor) {
+        return offer(visitor, System.nanoTime());
+    }
+
+    @Override
+    public boolean offer(Visitor visitor, long enqueuedAtNanos) {
+        if (visitor == null) {
+            throw new NullPointerException("visitor");
+        }
+        if (size == visitors.length) {
+            grow();
+        }
+        int slot = (head + size) & (visitors.length - 1);
+        visitors[slot] = visitor;
+        enqueuedAt[slot] = enqueuedAtNanos;
+        size++;
+        return true;
+    }
+
+    /**
+     * Removes and returns the first visitor.
+     * @return The first Visitor; null if the line is empty
+     */
+    @Override
+    public Visitor poll() {
+        if (size == 0) {
+            return null;
+        }
+        Visitor visitor = visitors[head];
+        visitors[head] = null; // Let the visitor be collected once it has boarded
+        head = (head + 1) & (visitors.length - 1);
+        size--;
+        return visitor;
+    }
+
+    /**
+     * Returns the first visitor without removing it.
+     * @return The first Visitor; null if the line is empty
+     */
+    @Override
+    public Visitor peek() {
+        return (size == 0) ? null : visitors[head];
+    }
+
+    @Override
+    public int drain(ObjLongConsumer<Visitor> action, int max) {
+        int count = 0;
+        while (count < max && size > 0) {
+            long joined = enqueuedAt[head];
+            action.accept(poll(), joined);
+            count++;
+        }
+        return count;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Iterates over the waiting visitors in line order (remove() not supported).
+     */
+    @Override
+    public Iterator<Visitor> iterator() {
+        return new Iterator<Visitor>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public Visitor next() {
+                if (next >= size) {
+                    throw new NoSuchElementException();
+                }
+                return visitors[(head + next++) & (visitors.length - 1)];
+            }
+        };
+    }
+
+    /**
+     * Doubles the ring and moves the waiting visitors to the front of it, in line order.
+     */
+    private void grow() {
+        int capacity = visitors.length;
+        Visitor[] grownVisitors = Arrays.copyOf(visitors, capacity * 2);
+        long[] grownTimes = Arrays.copyOf(enqueuedAt, capacity * 2);
+        // Slots [0, head) wrapped around: move them behind the old end
+        System.arraycopy(visitors, 0, grownVisitors, capacity, head);
+        System.arraycopy(enqueuedAt, 0, grownTimes, capacity, head);
+        Arrays.fill(grownVisitors, 0, head, null);
+        // Ring is full, so the line now runs from head to head + capacity without wrapping
+        visitors = grownVisitors;
+        enqueuedAt = grownTimes;
+    }
+}
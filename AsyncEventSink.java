@@ -0,0 +1,120 @@
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Class AsyncEventSink: Moves event formatting and console I/O off the ride's hot path.
+ * publish() only puts the event into a bounded ring buffer (never blocks); a background writer
+ * thread takes events out in batches, formats a whole batch into one buffer and writes it with
+ * a single print. If the buffer is full, new events are dropped and counted rather than slowing
+ * the ride down. Call close() to write everything still buffered and stop the writer.
+ * Every published event is either written or counted as dropped, also when publish() races with close().
+ */
+public class AsyncEventSink implements RideEventSink, AutoCloseable {
+    /** Default ring buffer capacity (events). */
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    private static final int MAX_BATCH = 1024;
+    private static final RideEvent STOP = new RideEvent(RideEvent.Type.CYCLE_STARTED, null, null, null, 0, 0, false);
+
+    private final BlockingQueue<RideEvent> ring;
+    private final PrintStream out;
+    private final Thread writer;
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    /**
+     * Creates a sink writing to System.out with the default capacity.
+     */
+    public AsyncEventSink() {
+        this(System.out, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a sink and starts its writer thread.
+     *
+     * @param out Stream the writer thread prints to
+     * @param capacity Events the ring buffer holds before new ones are dropped
+     */
+    public AsyncEventSink(PrintStream out, int capacity) {
+        this.out = out;
+        this.ring = new ArrayBlockingQueue<>(Math.max(capacity, 1));
+        this.writer = new Thread(this::writeLoop, "ride-event-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    public void publish(RideEvent event) {
+        if (closed.get() || !ring.offer(event)) {
+            dropped.incrementAndGet();
+        } else if (closed.get() && ring.remove(event)) {
+            dropped.incrementAndGet(); // Closed meanwhile: the writer may already be past STOP
+        }
+    }
+
+    /**
+     * Gets the number of events dropped because the buffer was full or the sink was closed.
+     * @return Dropped event count
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Writes all buffered events, then stops the writer thread. Later events are dropped.
+     */
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            ring.put(STOP);
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (RideEvent event = ring.poll(); event != null; event = ring.poll()) {
+            if (event != STOP) {
+                dropped.incrementAndGet(); // Offered after STOP, left behind by the stopped writer
+            }
+        }
+    }
+
+    /**
+     * Writer thread: waits for the first event, takes whatever else is buffered (up to MAX_BATCH),
+     * and prints the whole batch at once. Events behind STOP in a batch are counted as dropped.
+     */
+    private void writeLoop() {
+        List<RideEvent> batch = new ArrayList<>(MAX_BATCH);
+        StringBuilder text = new StringBuilder(MAX_BATCH * 80);
+        String separator = System.lineSeparator();
+        boolean running = true;
+        while (running) {
+            try {
+                batch.add(ring.take());
+            } catch (InterruptedException e) {
+                break;
+            }
+            ring.drainTo(batch, MAX_BATCH - 1);
+            for (RideEvent event : batch) {
+                if (event == STOP) {
+                    running = false;
+                } else if (running) {
+                    text.append(event.format()).append(separator);
+                } else {
+                    dropped.incrementAndGet(); // Offered after close()
+                }
+            }
+            out.print(text);
+            out.flush();
+            text.setLength(0);
+            batch.clear();
+        }
+    }
+}
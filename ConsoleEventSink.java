@@ -0,0 +1,29 @@
+import java.io.PrintStream;
+
+/**
+ * Class ConsoleEventSink: Prints each RideEvent synchronously as its classic console line.
+ * This is the default sink of every Ride, so the demonstration output is unchanged.
+ */
+public class ConsoleEventSink implements RideEventSink {
+    private final PrintStream out; // null = whatever System.out is at the time of each event
+
+    /**
+     * Creates a sink that prints to System.out.
+     */
+    public ConsoleEventSink() {
+        this(null);
+    }
+
+    /**
+     * Creates a sink that prints to the given stream.
+     * @param out Stream to print to (null for System.out)
+     */
+    public ConsoleEventSink(PrintStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void publish(RideEvent event) {
+        ((out == null) ? System.out : out).println(event.format());
+    }
+}
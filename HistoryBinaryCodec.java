@@ -0,0 +1,390 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Class HistoryBinaryCodec: Compact binary save/restore format for ride history, next to the CSV format.
+ * Holds exactly the same five Visitor fields, so files convert losslessly in both directions.
+ *
+ * Layout (all numbers big-endian, strings as int byte length + UTF-8 bytes, length -1 = null):
+ * <pre>
+ *   int    MAGIC ("RHIB")
+ *   short  VERSION
+ *   int    string table size N, followed by N strings (visitor types and non-canonical visit dates)
+ *   int    row count R, followed by R rows:
+ *            string id, string name, int age, int type (string table index),
+ *            int visit date (epoch day, or DATE_IN_TABLE followed by an int string table index)
+ * </pre>
+ * Repeated types and dates are stored once, and canonical "yyyy-MM-dd" dates need no text parsing on load.
+ * A RideHistory is written straight from its columns (type codes and epoch days), without building a
+ * Visitor or parsing a date per row.
+ * Every count, length and index read back is checked against the bytes left in the file and the string
+ * table, so a damaged file fails with IOException("corrupt history file: ...") before anything is allocated.
+ */
+public class HistoryBinaryCodec {
+    /** File signature: the ASCII bytes "RHIB". */
+    public static final int MAGIC = 0x52484942;
+
+    /** Current layout version. */
+    public static final short VERSION = 1;
+
+    /** Visit date marker: the date did not convert to an epoch day and is stored in the string table. */
+    private static final int DATE_IN_TABLE = VisitDates.INVALID;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /** Smallest encoded string: the int length alone (null or empty). */
+    private static final int MIN_STRING_BYTES = 4;
+
+    /** Smallest encoded row: id, name, age, type and visit date with both strings empty or null. */
+    private static final int MIN_ROW_BYTES = 2 * MIN_STRING_BYTES + 3 * 4;
+
+    private byte[] scratch = new byte[256]; // Copy area for decoding one string
+
+    /**
+     * Writes visitors to a binary history file (created or replaced).
+     *
+     * @param visitors Visitors to write, in order
+     * @param target File to write
+     * @return Rows, bytes and elapsed time of the export
+     * @throws IOException If writing fails
+     */
+    public HistoryExportResult write(Collection<Visitor> visitors, Path target) throws IOException {
+        long startNanos = System.nanoTime();
+
+        // Pass 1: build the string table of visitor types and non-canonical dates
+        StringTable table = new StringTable();
+        internStrings(visitors, table);
+
+        // Pass 2: write header, string table and rows
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(target), BUFFER_SIZE))) {
+            writeHeader(out, table, visitors.size());
+            writeRows(out, visitors, table);
+        }
+        return new HistoryExportResult(visitors.size(), Files.size(target), System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Writes a binary history file holding every row of an existing one followed by more visitors
+     * (e.g. a write-ahead log snapshot plus the rows of newly sealed log segments).
+     * The existing rows are not decoded: the new string table starts with the existing one, so their
+     * table indexes stay valid, and their bytes are copied as they are. Only the added visitors are encoded.
+     *
+     * @param base Existing binary history file
+     * @param added Visitors to add after its rows, in order
+     * @param target File to write (created or replaced; not base)
+     * @return Rows (all of them), bytes and elapsed time of the write
+     * @throws IOException If reading base or writing fails, or base is not a valid binary history file
+     */
+    public HistoryExportResult writeAppended(Path base, Collection<Visitor> added, Path target) throws IOException {
+        long startNanos = System.nanoTime();
+        long baseSize = Files.size(base);
+        String[] baseTable;
+        int baseRows;
+        long rowsOffset; // Where the rows of base start
+        CountingInputStream counter = new CountingInputStream(
+                new BufferedInputStream(Files.newInputStream(base), BUFFER_SIZE), baseSize);
+        try (DataInputStream in = new DataInputStream(counter)) {
+            baseTable = readHeader(in, counter, base);
+            baseRows = readCount(in, counter, MIN_ROW_BYTES, "row count");
+            rowsOffset = baseSize - counter.remaining();
+        } catch (EOFException e) {
+            throw corrupt("file ends early", e);
+        }
+
+        StringTable table = new StringTable();
+        for (String entry : baseTable) {
+            table.index.putIfAbsent(entry, table.entries.size());
+            table.entries.add(entry); // Keep every position, so the copied rows still point at the right strings
+        }
+        internStrings(added, table);
+        long rows = (long) baseRows + added.size();
+        if (rows > Integer.MAX_VALUE) {
+            throw new IOException("Too many rows for one binary history file: " + rows);
+        }
+
+        try (FileChannel source = FileChannel.open(base, StandardOpenOption.READ);
+             FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE,
+                     StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE));
+            writeHeader(out, table, (int) rows);
+            out.flush();
+            for (long position = rowsOffset; position < baseSize; ) {
+                position += source.transferTo(position, baseSize - position, channel);
+            }
+            writeRows(out, added, table);
+            out.flush();
+        }
+        return new HistoryExportResult(rows, Files.size(target), System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Reads every row of a binary history file and hands it to the sink.
+     * The sink returns true if it kept the visitor, or false if it was skipped as a duplicate.
+     *
+     * @param source File to read
+     * @param sink Receives each Visitor, in file order
+     * @return Counts of imported and duplicate rows
+     * @throws IOException If the file cannot be read, is truncated, or is not a supported binary history file
+     */
+    public HistoryImportResult read(Path source, Predicate<Visitor> sink) throws IOException {
+        HistoryImportResult result = new HistoryImportResult();
+        long fileSize = Files.size(source);
+        CountingInputStream counter = new CountingInputStream(
+                new BufferedInputStream(Files.newInputStream(source), BUFFER_SIZE), fileSize);
+        try (DataInputStream in = new DataInputStream(counter)) {
+            String[] table = readHeader(in, counter, source);
+
+            // Canonical dates repeat a lot: convert each distinct epoch day to text only once
+            Map<Integer, String> dateText = new HashMap<>();
+            int rows = readCount(in, counter, MIN_ROW_BYTES, "row count");
+            for (int r = 0; r < rows; r++) {
+                String id = readString(in, counter);
+                String name = readString(in, counter);
+                int age = in.readInt();
+                String visitorType = table[readIndex(in, table)];
+                int epochDay = in.readInt();
+                String visitDate = (epochDay == DATE_IN_TABLE)
+                        ? table[readIndex(in, table)]
+                        : dateText.computeIfAbsent(epochDay, VisitDates::toText);
+
+                if (sink.test(new Visitor(id, name, age, visitorType, visitDate))) {
+                    result.countImported();
+                } else {
+                    result.countDuplicate();
+                }
+            }
+        } catch (EOFException e) {
+            throw corrupt("file ends early", e);
+        }
+        result.addBytesRead(fileSize);
+        return result;
+    }
+
+    /**
+     * Reads the signature, version and string table of a binary history file.
+     * @return The string table
+     */
+    private String[] readHeader(DataInputStream in, CountingInputStream counter, Path source) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a ride history binary file: " + source);
+        }
+        short version = in.readShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported ride history binary version " + version + ": " + source);
+        }
+        String[] table = new String[readCount(in, counter, MIN_STRING_BYTES, "string table size")];
+        for (int i = 0; i < table.length; i++) {
+            table[i] = readString(in, counter);
+        }
+        return table;
+    }
+
+    /**
+     * Adds the visitor types and non-canonical visit dates of the visitors to the string table.
+     */
+    private static void internStrings(Collection<Visitor> visitors, StringTable table) {
+        if (visitors instanceof RideHistory) {
+            RideHistory history = (RideHistory) visitors;
+            for (int row = 0; row < history.size(); row++) {
+                table.typeEntry(history, row);
+                if (history.visitDayAt(row) == VisitDates.INVALID) {
+                    table.intern(history.visitDateAt(row));
+                }
+            }
+            return;
+        }
+        for (Visitor visitor : visitors) {
+            table.intern(visitor.getVisitorType());
+            if (VisitDates.toEpochDay(visitor.getVisitDate()) == VisitDates.INVALID) {
+                table.intern(visitor.getVisitDate());
+            }
+        }
+    }
+
+    private static void writeHeader(DataOutputStream out, StringTable table, int rows) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeInt(table.entries.size());
+        for (String entry : table.entries) {
+            writeString(out, entry);
+        }
+        out.writeInt(rows);
+    }
+
+    private static void writeRows(DataOutputStream out, Collection<Visitor> visitors, StringTable table)
+            throws IOException {
+        if (visitors instanceof RideHistory) {
+            RideHistory history = (RideHistory) visitors;
+            for (int row = 0; row < history.size(); row++) {
+                writeString(out, history.idAt(row));
+                writeString(out, history.nameAt(row));
+                out.writeInt(history.ageAt(row));
+                out.writeInt(table.typeEntry(history, row));
+                int epochDay = history.visitDayAt(row);
+                out.writeInt(epochDay);
+                if (epochDay == DATE_IN_TABLE) {
+                    out.writeInt(table.index.get(history.visitDateAt(row)));
+                }
+            }
+            return;
+        }
+        for (Visitor visitor : visitors) {
+            writeString(out, visitor.getId());
+            writeString(out, visitor.getName());
+            out.writeInt(visitor.getAge());
+            out.writeInt(table.index.get(visitor.getVisitorType()));
+            int epochDay = VisitDates.toEpochDay(visitor.getVisitDate());
+            out.writeInt(epochDay);
+            if (epochDay == DATE_IN_TABLE) {
+                out.writeInt(table.index.get(visitor.getVisitDate()));
+            }
+        }
+    }
+
+    /**
+     * String table being written: entries in file order, their positions, and a cache from
+     * RideHistory type codes to positions so a history's types are looked up once per type, not per row.
+     */
+    private static final class StringTable {
+        final List<String> entries = new ArrayList<>();
+        final Map<String, Integer> index = new HashMap<>();
+        private int[] typeEntries = new int[16]; // RideHistory type code → position + 1 (0 = not looked up yet)
+
+        int intern(String value) {
+            Integer position = index.get(value);
+            if (position == null) {
+                position = entries.size();
+                index.put(value, position);
+                entries.add(value);
+            }
+            return position;
+        }
+
+        int typeEntry(RideHistory history, int row) {
+            int code = history.typeCodeAt(row);
+            if (code >= typeEntries.length) {
+                typeEntries = Arrays.copyOf(typeEntries, Math.max(code + 1, typeEntries.length * 2));
+            }
+            if (typeEntries[code] == 0) {
+                typeEntries[code] = intern(history.visitorTypeAt(row)) + 1;
+            }
+            return typeEntries[code] - 1;
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private String readString(DataInputStream in, CountingInputStream counter) throws IOException {
+        int length = in.readInt();
+        if (length == -1) {
+            return null;
+        }
+        if (length < 0 || length > counter.remaining()) {
+            throw corrupt("string length " + length + " with " + counter.remaining() + " bytes left", null);
+        }
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        in.readFully(scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads an element count and checks that the rest of the file can hold that many elements.
+     */
+    private static int readCount(DataInputStream in, CountingInputStream counter, int minBytesEach, String what)
+            throws IOException {
+        int count = in.readInt();
+        if (count < 0 || count > counter.remaining() / minBytesEach) {
+            throw corrupt(what + " " + count + " with " + counter.remaining() + " bytes left", null);
+        }
+        return count;
+    }
+
+    /**
+     * Reads a string table index and checks that it is inside the table.
+     */
+    private static int readIndex(DataInputStream in, String[] table) throws IOException {
+        int index = in.readInt();
+        if (index < 0 || index >= table.length) {
+            throw corrupt("string table index " + index + " of " + table.length, null);
+        }
+        return index;
+    }
+
+    private static IOException corrupt(String detail, Throwable cause) {
+        return new IOException("corrupt history file: " + detail, cause);
+    }
+
+    /**
+     * Input stream that counts the bytes consumed, so lengths read from the file can be checked
+     * against the bytes that are actually left.
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+        private final long size; // File size in bytes
+        private long consumed;   // Bytes read or skipped so far
+
+        CountingInputStream(InputStream in, long size) {
+            super(in);
+            this.size = size;
+        }
+
+        long remaining() {
+            return size - consumed;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                consumed++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                consumed += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            consumed += skipped;
+            return skipped;
+        }
+    }
+}
@@ -0,0 +1,379 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Class HistoryCompression: gzip support for history archives (e.g. "log_flume_history.csv.gz").
+ * Exports choose gzip by the ".gz" file extension; imports recognise a gzip file by its magic bytes,
+ * whatever it is called. The archives are plain JDK gzip, so gunzip/zcat read them too.
+ *
+ * Deflating and inflating run on a separate thread: the CSV writer (or reader) and the gzip thread
+ * exchange a few fixed chunks through two small queues, so encoding rows and compressing them overlap
+ * instead of taking turns, and memory use stays at CHUNK_COUNT × CHUNK_SIZE per stream.
+ */
+public final class HistoryCompression {
+    /** File name extension that selects gzip on export. */
+    public static final String GZIP_EXTENSION = ".gz";
+
+    /** Bytes per chunk handed between the CSV side and the gzip thread. */
+    static final int CHUNK_SIZE = 1 << 18;
+
+    /** Chunks per stream: one being filled, one being (de)compressed, the rest queued. */
+    static final int CHUNK_COUNT = 4;
+
+    /**
+     * Deflate level of exports. Level 1 keeps most of the gain on these repetitive rows (the same types,
+     * dates and name patterns) at a fraction of the CPU time of the default level 6.
+     */
+    static final int DEFLATE_LEVEL = Deflater.BEST_SPEED;
+
+    private static final int GZIP_BUFFER_SIZE = 1 << 16;
+    private static final int GZIP_MAGIC_1 = 0x1f;
+    private static final int GZIP_MAGIC_2 = 0x8b;
+
+    private HistoryCompression() {
+    }
+
+    /**
+     * Checks whether a file name asks for a compressed export (ends with ".gz", any case).
+     * @param path Export target
+     * @return true to write gzip
+     */
+    public static boolean isCompressedName(Path path) {
+        Path name = path.getFileName();
+        return name != null && name.toString().toLowerCase(Locale.ROOT).endsWith(GZIP_EXTENSION);
+    }
+
+    /**
+     * Checks whether a file starts with the gzip magic bytes (1f 8b). Does not move the channel position.
+     * @param channel Open file
+     * @return true if the file is gzip
+     * @throws IOException If the file cannot be read
+     */
+    public static boolean isCompressed(FileChannel channel) throws IOException {
+        ByteBuffer magic = ByteBuffer.allocate(2);
+        while (magic.hasRemaining() && channel.read(magic, magic.position()) > 0) {
+            // Keep reading until both bytes are in (or the file ends)
+        }
+        return magic.position() == 2 && (magic.get(0) & 0xff) == GZIP_MAGIC_1 && (magic.get(1) & 0xff) == GZIP_MAGIC_2;
+    }
+
+    /**
+     * Opens a file for reading, inflating it on a background thread if it is gzip.
+     * Closing the returned channel does not close the file channel.
+     *
+     * @param channel File positioned at its start
+     * @return Channel of the uncompressed bytes (the file channel itself if it is not gzip)
+     * @throws IOException If the file cannot be read
+     */
+    public static ReadableByteChannel openForReading(FileChannel channel) throws IOException {
+        if (!isCompressed(channel)) {
+            return channel;
+        }
+        return new InflatingChannel(new GZIPInputStream(unclosable(Channels.newInputStream(channel)), GZIP_BUFFER_SIZE));
+    }
+
+    /**
+     * Wraps a file for gzip output, deflating on a background thread.
+     * Closing the returned channel finishes the gzip stream but leaves the file channel open (e.g. to force it).
+     *
+     * @param channel File to write the compressed bytes to
+     * @return Channel that takes the uncompressed bytes
+     * @throws IOException If the gzip header cannot be written
+     */
+    public static WritableByteChannel openForWriting(WritableByteChannel channel) throws IOException {
+        GZIPOutputStream gzip = new GZIPOutputStream(unclosable(Channels.newOutputStream(channel)), GZIP_BUFFER_SIZE) {
+            {
+                def.setLevel(DEFLATE_LEVEL);
+            }
+        };
+        return new DeflatingChannel(gzip);
+    }
+
+    // ------------------------------
+    // Pipelined channels
+    // ------------------------------
+
+    /**
+     * Chunk hand-off shared by both directions: the producer takes a free chunk, fills it and queues it;
+     * the consumer drains it and gives it back. END marks the end of the stream.
+     */
+    private abstract static class Pipe {
+        static final ByteBuffer END = ByteBuffer.allocate(0);
+
+        final BlockingQueue<ByteBuffer> free = new ArrayBlockingQueue<>(CHUNK_COUNT);
+        final BlockingQueue<ByteBuffer> full = new ArrayBlockingQueue<>(CHUNK_COUNT + 1);
+        final Thread worker;
+        volatile IOException failure; // First error of the gzip thread
+
+        Pipe(String threadName) {
+            for (int i = 0; i < CHUNK_COUNT; i++) {
+                free.add(ByteBuffer.allocate(CHUNK_SIZE));
+            }
+            worker = new Thread(this::work, threadName);
+            worker.setDaemon(true);
+        }
+
+        abstract void work();
+
+        static ByteBuffer take(BlockingQueue<ByteBuffer> queue) throws IOException {
+            try {
+                return queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for the gzip thread", e);
+            }
+        }
+
+        void join() throws IOException {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for the gzip thread", e);
+            }
+        }
+    }
+
+    /**
+     * Copies written bytes into chunks that the gzip thread deflates into the output stream.
+     */
+    private static final class DeflatingChannel extends Pipe implements WritableByteChannel {
+        private final GZIPOutputStream out;
+        private ByteBuffer current; // Chunk being filled; null until the first write
+        private boolean open = true;
+
+        DeflatingChannel(GZIPOutputStream out) {
+            super("history-gzip-deflate");
+            this.out = out;
+            worker.start();
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            if (!open) {
+                throw new ClosedChannelException();
+            }
+            int written = src.remaining();
+            while (src.hasRemaining()) {
+                checkFailure();
+                if (current == null) {
+                    current = take(free);
+                }
+                int n = Math.min(src.remaining(), current.remaining());
+                int limit = src.limit();
+                src.limit(src.position() + n);
+                current.put(src);
+                src.limit(limit);
+                if (!current.hasRemaining()) {
+                    full.add(current.flip());
+                    current = null;
+                }
+            }
+            return written;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        /**
+         * Hands over the last chunk, waits for the gzip thread to write the trailer and reports its error, if any.
+         */
+        @Override
+        public void close() throws IOException {
+            if (!open) {
+                return;
+            }
+            open = false;
+            if (current != null) {
+                full.add(current.flip());
+                current = null;
+            }
+            full.add(END);
+            join();
+            checkFailure();
+        }
+
+        @Override
+        void work() {
+            try {
+                while (true) {
+                    ByteBuffer chunk = full.take();
+                    if (chunk == END) {
+                        break;
+                    }
+                    if (failure == null) {
+                        try {
+                            out.write(chunk.array(), 0, chunk.limit());
+                        } catch (IOException e) {
+                            failure = e; // Keep recycling chunks so the writer is never stuck on free.take()
+                        }
+                    }
+                    free.add(chunk.clear());
+                }
+                if (failure == null) {
+                    out.finish();
+                    out.flush();
+                }
+            } catch (IOException e) {
+                failure = e;
+            } catch (InterruptedException e) {
+                failure = new IOException("gzip thread interrupted", e);
+            }
+        }
+
+        private void checkFailure() throws IOException {
+            if (failure != null) {
+                throw new IOException("Compression failed: " + failure.getMessage(), failure);
+            }
+        }
+    }
+
+    /**
+     * Serves bytes from chunks that the gzip thread inflates ahead of the reader.
+     */
+    private static final class InflatingChannel extends Pipe implements ReadableByteChannel {
+        private final GZIPInputStream in;
+        private ByteBuffer current; // Chunk being read; null when a new one is needed
+        private volatile boolean open = true;
+
+        InflatingChannel(GZIPInputStream in) {
+            super("history-gzip-inflate");
+            this.in = in;
+            worker.start();
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            if (!open) {
+                throw new ClosedChannelException();
+            }
+            if (current == null) {
+                current = take(full);
+            }
+            if (current == END) {
+                if (failure != null) {
+                    throw new IOException("Decompression failed: " + failure.getMessage(), failure);
+                }
+                return -1;
+            }
+            int n = Math.min(dst.remaining(), current.remaining());
+            dst.put(current.array(), current.position(), n);
+            current.position(current.position() + n);
+            if (!current.hasRemaining()) {
+                free.add(current.clear());
+                current = null;
+            }
+            return n;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        /**
+         * Stops the gzip thread, also when the reader gave up before the end of the stream.
+         */
+        @Override
+        public void close() throws IOException {
+            if (!open) {
+                return;
+            }
+            open = false;
+            worker.interrupt();
+            join();
+        }
+
+        @Override
+        void work() {
+            try {
+                int read = 0;
+                while (open && read >= 0) {
+                    ByteBuffer chunk = free.take();
+                    byte[] array = chunk.array();
+                    int filled = 0;
+                    while (filled < array.length && (read = in.read(array, filled, array.length - filled)) >= 0) {
+                        filled += read;
+                    }
+                    chunk.limit(filled);
+                    if (filled > 0) {
+                        full.put(chunk);
+                    } else {
+                        free.add(chunk);
+                    }
+                }
+            } catch (IOException e) {
+                if (open) {
+                    failure = e;
+                }
+            } catch (InterruptedException e) {
+                return; // Closed by the reader
+            }
+            full.offer(END); // Room is guaranteed: at most CHUNK_COUNT chunks are ever queued
+        }
+    }
+
+    // ------------------------------
+    // Helpers
+    // ------------------------------
+
+    /**
+     * Stream view whose close() does nothing, so finishing gzip never closes the caller's file channel.
+     */
+    private static OutputStream unclosable(OutputStream out) {
+        return new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                out.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    private static InputStream unclosable(InputStream in) {
+        return new InputStream() {
+            @Override
+            public int read() throws IOException {
+                return in.read();
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                return in.read(b, off, len);
+            }
+
+            @Override
+            public int available() throws IOException {
+                return in.available();
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+}
@@ -0,0 +1,210 @@
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Predicate;
+
+/**
+ * Class HistoryCsvMappedImporter: Parallel importer for very large ride history CSV files.
+ * Memory-maps the file with FileChannel.map(), splits it into newline-aligned chunks and parses
+ * the chunks in parallel on a fork-join pool. The parsed rows are then handed to the sink
+ * on the calling thread in file order, so duplicate rejection behaves exactly like the
+ * streaming HistoryCsvReader. Malformed rows are counted only (no reject file in this mode).
+ *
+ * Only a window of chunks is parsed ahead of the sink (pool parallelism + 1): each chunk is handed
+ * over as soon as it and all chunks before it are done, then dropped and replaced by the next one.
+ * Heap use is therefore bounded by the window × chunk size, not by the size of the file.
+ */
+public class HistoryCsvMappedImporter {
+    /** Default nominal chunk size (16 MiB); each chunk is extended to the end of its last line. */
+    public static final long DEFAULT_CHUNK_SIZE = 16L << 20;
+
+    private final ForkJoinPool pool; // Pool the chunk parsers run on
+    private final long chunkSize;    // Nominal bytes per chunk
+
+    /**
+     * Creates an importer that uses the common fork-join pool and the default chunk size.
+     */
+    public HistoryCsvMappedImporter() {
+        this(ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Creates an importer with a custom pool and chunk size.
+     *
+     * @param pool Fork-join pool to parse chunks on
+     * @param chunkSize Nominal chunk size in bytes (capped so a mapped chunk stays below 2 GiB)
+     */
+    public HistoryCsvMappedImporter(ForkJoinPool pool, long chunkSize) {
+        this.pool = pool;
+        this.chunkSize = Math.max(1, Math.min(chunkSize, Integer.MAX_VALUE / 2));
+    }
+
+    /**
+     * Imports every row after the header line of the file.
+     * The sink returns true if it kept the visitor, or false if it was skipped as a duplicate.
+     *
+     * @param file CSV file to import
+     * @param sink Receives each parsed Visitor, in file order, on the calling thread
+     * @return Counts of imported, duplicate and rejected rows
+     * @throws IOException If the file cannot be read or mapped
+     */
+    public HistoryImportResult importFile(Path file, Predicate<Visitor> sink) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long[] bounds = chunkBounds(channel, size);
+            int chunkCount = bounds.length - 1;
+            int window = pool.getParallelism() + 1;
+            Deque<ForkJoinTask<Chunk>> inFlight = new ArrayDeque<>(window);
+            int nextChunk = 0;
+
+            HistoryImportResult result = new HistoryImportResult();
+            result.addBytesRead(size);
+            try {
+                while (nextChunk < chunkCount && inFlight.size() < window) {
+                    inFlight.add(submit(channel, bounds, nextChunk++));
+                }
+                // Feed in chunk order to preserve the file's row order and first-occurrence duplicate rule
+                while (!inFlight.isEmpty()) {
+                    Chunk chunk = await(inFlight.poll());
+                    if (nextChunk < chunkCount) {
+                        inFlight.add(submit(channel, bounds, nextChunk++)); // Keep the workers busy while the sink runs
+                    }
+                    result.countRejected(chunk.rejected);
+                    for (Visitor visitor : chunk.visitors) {
+                        if (sink.test(visitor)) {
+                            result.countImported();
+                        } else {
+                            result.countDuplicate();
+                        }
+                    }
+                }
+            } finally {
+                for (ForkJoinTask<Chunk> task : inFlight) {
+                    task.cancel(false); // Only left over if parsing or the sink failed
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Starts parsing one chunk on the pool.
+     */
+    private ForkJoinTask<Chunk> submit(FileChannel channel, long[] bounds, int chunk) {
+        return pool.submit(() -> parseChunk(channel, bounds[chunk], bounds[chunk + 1]));
+    }
+
+    /**
+     * Waits for a parsed chunk. An IOException thrown by the parser is rethrown as such, wherever
+     * the fork-join framework put it in the cause chain (it may wrap a copy of the original).
+     */
+    private static Chunk await(ForkJoinTask<Chunk> task) throws IOException {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a parsed chunk");
+        } catch (ExecutionException e) {
+            for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IOException("Chunk parser failed", e.getCause());
+        }
+    }
+
+    /**
+     * Splits [end of header, size) into chunks whose boundaries sit right after a newline.
+     * @return Chunk start offsets followed by the end offset (size)
+     */
+    private long[] chunkBounds(FileChannel channel, long size) throws IOException {
+        List<Long> bounds = new ArrayList<>();
+        long start = nextLineStart(channel, 0, size); // Skip the header row
+        bounds.add(start);
+        while (start < size) {
+            long next = (size - start <= chunkSize) ? size : nextLineStart(channel, start + chunkSize, size);
+            if (next - start > Integer.MAX_VALUE) {
+                throw new IOException("Line too long to map near offset " + start);
+            }
+            bounds.add(next);
+            start = next;
+        }
+        long[] result = new long[bounds.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = bounds.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * Finds the offset just after the first newline at or after position.
+     * @return That offset; size if no newline follows
+     */
+    private static long nextLineStart(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer probe = ByteBuffer.allocate(8192);
+        while (position < size) {
+            probe.clear();
+            int read = channel.read(probe, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    /**
+     * Parsed rows and reject count of one chunk.
+     */
+    private static final class Chunk {
+        final List<Visitor> visitors = new ArrayList<>();
+        int rejected;
+    }
+
+    /**
+     * Maps and parses one chunk (runs on the pool).
+     */
+    private static Chunk parseChunk(FileChannel channel, long start, long end) throws IOException {
+        Chunk chunk = new Chunk();
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        HistoryCsvRowParser parser = new HistoryCsvRowParser();
+        int limit = mapped.limit();
+        int lineStart = 0;
+        for (int i = 0; i <= limit; i++) {
+            if (i < limit && mapped.get(i) != '\n') {
+                continue;
+            }
+            if (i == limit && lineStart == limit) {
+                break; // Chunk ended with a newline
+            }
+            Visitor visitor = parser.parse(mapped, lineStart, i);
+            if (visitor == null) {
+                chunk.rejected++;
+            } else {
+                chunk.visitors.add(visitor);
+            }
+            lineStart = i + 1;
+        }
+        return chunk;
+    }
+}
@@ -0,0 +1,150 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.function.Predicate;
+
+/**
+ * Class HistoryCsvReader: Streaming parser for ride history CSV files
+ * ("VisitorID,Name,Age,VisitorType,VisitDate", as written by Ride.exportRideHistory()).
+ * Reads through an NIO channel into one large direct buffer and scans fields in place
+ * (no readLine(), split() or trim() copies), so heap use stays flat no matter how big the file is.
+ * A reader is not thread-safe; use one per import.
+ */
+public class HistoryCsvReader {
+    /** Default read buffer size (1 MiB). */
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+
+    private final ByteBuffer buffer;                 // Direct read buffer, refilled with compact()
+    private final HistoryCsvRowParser rowParser = new HistoryCsvRowParser(); // Turns one line into a Visitor
+    private byte[] scratch = new byte[256];          // Copy area for one rejected line
+    private OutputStream rejectOutput;               // Optional sink for rejected lines (null = count only)
+
+    /**
+     * Creates a reader with the default buffer size.
+     */
+    public HistoryCsvReader() {
+        this(DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates a reader with a custom buffer size.
+     * Lines longer than the buffer are rejected.
+     *
+     * @param bufferSize Read buffer size in bytes (≥64)
+     */
+    public HistoryCsvReader(int bufferSize) {
+        this.buffer = ByteBuffer.allocateDirect(Math.max(bufferSize, 64));
+    }
+
+    /**
+     * Sets where rejected lines are copied to (one line each, unchanged).
+     * @param rejectOutput Output for rejected lines; null to only count them
+     */
+    public void setRejectOutput(OutputStream rejectOutput) {
+        this.rejectOutput = rejectOutput;
+    }
+
+    /**
+     * Reads every row from the channel until end of stream and hands each well-formed row to the sink.
+     * The sink returns true if it kept the visitor, or false if it was skipped as a duplicate.
+     *
+     * @param in Channel positioned at the first byte to read
+     * @param skipHeader true to skip the first line (the CSV header)
+     * @param sink Receives each parsed Visitor
+     * @return Counts of imported, duplicate and rejected rows
+     * @throws IOException If reading the channel or writing a rejected line fails
+     */
+    public HistoryImportResult read(ReadableByteChannel in, boolean skipHeader, Predicate<Visitor> sink) throws IOException {
+        HistoryImportResult result = new HistoryImportResult();
+        boolean pendingHeader = skipHeader;
+        boolean overlong = false; // true while discarding the rest of a line that did not fit into the buffer
+        buffer.clear();
+
+        while (true) {
+            int read = in.read(buffer);
+            if (read > 0) {
+                result.addBytesRead(read);
+            }
+            buffer.flip();
+            int lineStart = buffer.position();
+            int limit = buffer.limit();
+
+            // Hand every complete line in the buffer to the row parser
+            for (int i = lineStart; i < limit; i++) {
+                if (buffer.get(i) != '\n') {
+                    continue;
+                }
+                if (overlong) {
+                    overlong = false;
+                    writeReject(lineStart, i, true);
+                    result.countRejected();
+                } else if (pendingHeader) {
+                    pendingHeader = false;
+                } else {
+                    handleRow(lineStart, i, sink, result);
+                }
+                lineStart = i + 1;
+            }
+
+            if (read < 0) {
+                // End of stream: the last line may have no trailing newline
+                if (overlong) {
+                    writeReject(lineStart, limit, true);
+                    result.countRejected();
+                } else if (lineStart < limit && !pendingHeader) {
+                    handleRow(lineStart, limit, sink, result);
+                }
+                return result;
+            }
+
+            buffer.position(lineStart);
+            if (buffer.remaining() == buffer.capacity()) {
+                // A single line fills the whole buffer: reject it and discard until its newline
+                overlong = true;
+                writeReject(lineStart, limit, false);
+                buffer.clear();
+            } else {
+                buffer.compact();
+            }
+        }
+    }
+
+    /**
+     * Parses one line (without its newline) and passes the resulting Visitor to the sink.
+     */
+    private void handleRow(int from, int to, Predicate<Visitor> sink, HistoryImportResult result) throws IOException {
+        Visitor visitor = rowParser.parse(buffer, from, to);
+        if (visitor == null) {
+            writeReject(from, to, true);
+            result.countRejected();
+        } else if (sink.test(visitor)) {
+            result.countImported();
+        } else {
+            result.countDuplicate();
+        }
+    }
+
+    /**
+     * Copies the bytes [from, to) of the buffer to the reject output, if one is set.
+     * @param endOfLine true to terminate the copied line with a newline
+     */
+    private void writeReject(int from, int to, boolean endOfLine) throws IOException {
+        if (rejectOutput == null) {
+            return;
+        }
+        int length = to - from;
+        ensureScratch(length);
+        buffer.get(from, scratch, 0, length);
+        rejectOutput.write(scratch, 0, length);
+        if (endOfLine) {
+            rejectOutput.write('\n');
+        }
+    }
+
+    private void ensureScratch(int length) {
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+    }
+}
@@ -0,0 +1,110 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Class HistoryCsvRowParser: Turns one ride history CSV line ("VisitorID,Name,Age,VisitorType,VisitDate")
+ * into a Visitor by scanning the bytes in place (no split() or trim() copies).
+ * Shared by the streaming and memory-mapped importers. Holds reusable scratch state,
+ * so each thread needs its own instance.
+ */
+final class HistoryCsvRowParser {
+    private static final int FIELD_COUNT = 5;
+
+    private final int[] fieldBounds = new int[FIELD_COUNT * 2]; // Start/end offsets of the fields of the current row
+    private byte[] scratch = new byte[256];                      // Copy area for decoding one field
+
+    /**
+     * Parses the bytes [from, to) of a buffer (absolute indexes, newline excluded) as one CSV row.
+     * Fields are trimmed like String.trim(); the age must be a plain decimal integer.
+     *
+     * @param src Buffer holding the line
+     * @param from Index of the first byte of the line
+     * @param to Index just past the last byte of the line
+     * @return The parsed Visitor; null if the row is malformed
+     */
+    Visitor parse(ByteBuffer src, int from, int to) {
+        // Locate the 5 fields by scanning for commas (more or fewer fields → malformed)
+        int field = 0;
+        int fieldStart = from;
+        for (int i = from; i <= to; i++) {
+            if (i == to || src.get(i) == ',') {
+                if (field == FIELD_COUNT) {
+                    return null;
+                }
+                fieldBounds[field * 2] = fieldStart;
+                fieldBounds[field * 2 + 1] = i;
+                field++;
+                fieldStart = i + 1;
+            }
+        }
+        if (field != FIELD_COUNT) {
+            return null;
+        }
+
+        // Trim ASCII whitespace/control characters (covers '\r' from Windows line endings)
+        for (int f = 0; f < FIELD_COUNT; f++) {
+            int start = fieldBounds[f * 2];
+            int end = fieldBounds[f * 2 + 1];
+            while (start < end && (src.get(start) & 0xFF) <= ' ') start++;
+            while (end > start && (src.get(end - 1) & 0xFF) <= ' ') end--;
+            fieldBounds[f * 2] = start;
+            fieldBounds[f * 2 + 1] = end;
+        }
+
+        long age = parseAge(src, fieldBounds[4], fieldBounds[5]);
+        if (age == Long.MIN_VALUE) {
+            return null;
+        }
+        return new Visitor(
+                text(src, fieldBounds[0], fieldBounds[1]), // VisitorID
+                text(src, fieldBounds[2], fieldBounds[3]), // Name
+                (int) age,                                 // Age
+                text(src, fieldBounds[6], fieldBounds[7]), // VisitorType
+                text(src, fieldBounds[8], fieldBounds[9])  // VisitDate
+        );
+    }
+
+    /**
+     * Parses a decimal int straight from the buffer (same accepted range as Integer.parseInt()).
+     * @return The value; Long.MIN_VALUE if the field is empty, not a number or out of int range
+     */
+    private static long parseAge(ByteBuffer src, int from, int to) {
+        if (from == to) {
+            return Long.MIN_VALUE;
+        }
+        boolean negative = false;
+        int i = from;
+        byte first = src.get(i);
+        if (first == '-' || first == '+') {
+            negative = (first == '-');
+            if (++i == to) {
+                return Long.MIN_VALUE;
+            }
+        }
+        long value = 0;
+        for (; i < to; i++) {
+            int digit = src.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return Long.MIN_VALUE;
+            }
+            value = value * 10 + digit;
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                return Long.MIN_VALUE;
+            }
+        }
+        value = negative ? -value : value;
+        return (value > Integer.MAX_VALUE) ? Long.MIN_VALUE : value;
+    }
+
+    /**
+     * Decodes the bytes [from, to) of the buffer as a UTF-8 string.
+     */
+    private String text(ByteBuffer src, int from, int to) {
+        int length = to - from;
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        src.get(from, scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,239 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.function.Predicate;
+import java.util.zip.CRC32;
+
+/**
+ * Class HistoryCsvTailer: Follows a history CSV that another system keeps appending to (e.g. turnstiles),
+ * importing only the rows added since the last poll. It remembers the byte offset after the last complete
+ * line and the file's identity (inode, where the file system has one), so each poll() costs one stat
+ * call plus time proportional to the new bytes, whatever the size of the file. A line still being
+ * written (no newline yet) is left for the next poll.
+ *
+ * Rotation (the path now names a new file) drains the rest of the old file through the channel that is
+ * still open, then continues at the start of the new one. Truncation (the file shrank, or the last bytes
+ * before the saved offset changed) restarts at the beginning of the file. The header line is skipped
+ * whenever reading starts at offset 0.
+ *
+ * Not thread-safe: poll from the thread that owns the sink's history (e.g. the ride's operator thread).
+ */
+public class HistoryCsvTailer implements AutoCloseable {
+    /** Read buffer size: small, because a poll usually reads only a few new lines. */
+    public static final int BUFFER_SIZE = 1 << 16;
+
+    /** Bytes before the offset whose checksum detects a truncated and rewritten file. */
+    private static final int TAIL_CHECK_BYTES = 64;
+
+    private final Path file;
+    private final Predicate<Visitor> sink;
+    private final HistoryCsvReader reader = new HistoryCsvReader(BUFFER_SIZE);
+    private final ByteBuffer probe = ByteBuffer.allocate(8192); // Backward scan for the last newline
+    private final CRC32 crc = new CRC32();
+
+    private FileChannel channel;   // Open channel of the file being followed; null until it exists
+    private Object identity;       // fileKey() (or creation time) of that file
+    private long offset;           // Byte after the last complete line imported
+    private long tailCheck;        // CRC32 of the TAIL_CHECK_BYTES before offset
+    private long rotations;
+    private long truncations;
+
+    /**
+     * Creates a tailer. Nothing is read until the first poll(); the file does not need to exist yet.
+     *
+     * @param file CSV file to follow
+     * @param sink Receives each new Visitor; returns false for a duplicate
+     */
+    public HistoryCsvTailer(Path file, Predicate<Visitor> sink) {
+        this.file = file;
+        this.sink = sink;
+    }
+
+    /**
+     * Imports the complete lines appended since the last poll.
+     * @return Counts of this poll (imported, duplicates, rejected, bytes read)
+     * @throws IOException If the file cannot be read
+     */
+    public HistoryImportResult poll() throws IOException {
+        HistoryImportResult result = new HistoryImportResult();
+        Object current = identityOf(file);
+        if (channel == null) {
+            if (current == null) {
+                return result; // Not created yet
+            }
+            openCurrent(current);
+        } else if (current != null && !current.equals(identity)) {
+            result.merge(readNew(true)); // Rotated: finish the old file, including an unterminated last line
+            channel.close();
+            openCurrent(current);
+            rotations++;
+        }
+
+        if (isTruncated()) {
+            offset = 0;
+            truncations++;
+        }
+        result.merge(readNew(false));
+        return result;
+    }
+
+    /**
+     * Gets the byte offset after the last complete line imported from the current file.
+     * @return Offset in bytes
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    public long getRotations() {
+        return rotations;
+    }
+
+    public long getTruncations() {
+        return truncations;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    /**
+     * Imports the bytes between the saved offset and the last newline (or the end of the file if toEnd).
+     */
+    private HistoryImportResult readNew(boolean toEnd) throws IOException {
+        long size = channel.size();
+        long end = toEnd ? size : lastLineEnd(size);
+        if (end <= offset) {
+            return new HistoryImportResult();
+        }
+        channel.position(offset);
+        HistoryImportResult result = reader.read(new BoundedChannel(channel, end - offset), offset == 0, sink);
+        offset = end;
+        tailCheck = tailChecksum();
+        return result;
+    }
+
+    /**
+     * Finds the byte after the last newline in [offset, size), scanning backwards from the end.
+     * @return That position; offset if there is no complete new line
+     */
+    private long lastLineEnd(long size) throws IOException {
+        long chunkEnd = size;
+        while (chunkEnd > offset) {
+            long chunkStart = Math.max(offset, chunkEnd - probe.capacity());
+            probe.clear().limit((int) (chunkEnd - chunkStart));
+            readFully(chunkStart);
+            for (int i = probe.limit() - 1; i >= 0; i--) {
+                if (probe.get(i) == '\n') {
+                    return chunkStart + i + 1;
+                }
+            }
+            chunkEnd = chunkStart;
+        }
+        return offset;
+    }
+
+    /**
+     * Checks whether the file was truncated since the last poll: it is shorter than the offset, or the
+     * bytes just before the offset (the end of the last imported line) have changed.
+     */
+    private boolean isTruncated() throws IOException {
+        if (offset == 0) {
+            return false;
+        }
+        return channel.size() < offset || tailChecksum() != tailCheck;
+    }
+
+    private long tailChecksum() throws IOException {
+        long from = Math.max(0, offset - TAIL_CHECK_BYTES);
+        probe.clear().limit((int) (offset - from));
+        readFully(from);
+        crc.reset();
+        crc.update(probe.array(), 0, probe.limit());
+        return crc.getValue();
+    }
+
+    private void readFully(long position) throws IOException {
+        while (probe.hasRemaining()) {
+            if (channel.read(probe, position + probe.position()) < 0) {
+                throw new IOException("File shrank while reading: " + file);
+            }
+        }
+    }
+
+    private void openCurrent(Object current) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        identity = current;
+        offset = 0;
+    }
+
+    /**
+     * Gets what identifies the file behind a path: its file key (device + inode on Unix), or its creation time.
+     * @return Identity; null if the file does not exist
+     */
+    private static Object identityOf(Path path) throws IOException {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            return (attributes.fileKey() != null) ? attributes.fileKey() : attributes.creationTime();
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Channel view that ends after a fixed number of bytes (the complete lines of this poll).
+     */
+    private static final class BoundedChannel implements ReadableByteChannel {
+        private final ReadableByteChannel in;
+        private long remaining;
+
+        BoundedChannel(ReadableByteChannel in, long length) {
+            this.in = in;
+            this.remaining = length;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int limit = dst.limit();
+            if (dst.remaining() > remaining) {
+                dst.limit(dst.position() + (int) remaining);
+            }
+            try {
+                int read = in.read(dst);
+                if (read > 0) {
+                    remaining -= read;
+                }
+                return read;
+            } finally {
+                dst.limit(limit);
+            }
+        }
+
+        @Override
+        public boolean isOpen() {
+            return in.isOpen();
+        }
+
+        @Override
+        public void close() {
+            // The tailer owns the underlying channel
+        }
+    }
+}
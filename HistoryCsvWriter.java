@@ -0,0 +1,178 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Class HistoryCsvWriter: Buffered writer for ride history CSV files
+ * ("VisitorID,Name,Age,VisitorType,VisitDate", the format read by HistoryCsvReader).
+ * Rows are appended to one reusable StringBuilder (no printf format parsing per row),
+ * encoded as UTF-8 into a large direct buffer and written to an NIO channel in big chunks.
+ * A target whose name ends with ".gz" is gzip-compressed on a separate thread (see HistoryCompression).
+ * A writer is not thread-safe; use one per export.
+ */
+public class HistoryCsvWriter {
+    /** CSV header line (without line separator). */
+    public static final String HEADER = "VisitorID,Name,Age,VisitorType,VisitDate";
+
+    /** Default output buffer size (1 MiB). */
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+
+    private static final String LINE_SEPARATOR = System.lineSeparator(); // Same line ending PrintWriter used
+
+    private final ByteBuffer buffer;             // Direct output buffer
+    private final StringBuilder rows;            // Reusable text batch, encoded whenever it passes batchChars
+    private final int batchChars;                // Batch size that triggers encoding
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+
+    /**
+     * Creates a writer with the default buffer size.
+     */
+    public HistoryCsvWriter() {
+        this(DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates a writer with a custom buffer size.
+     * @param bufferSize Output buffer size in bytes (≥64)
+     */
+    public HistoryCsvWriter(int bufferSize) {
+        this.buffer = ByteBuffer.allocateDirect(Math.max(bufferSize, 64));
+        this.batchChars = Math.max(bufferSize, 64) / 4;
+        this.rows = new StringBuilder(batchChars + 256);
+    }
+
+    /**
+     * Writes the header and all visitors to a file.
+     * With atomic set, the rows go to a temporary file in the same directory that is renamed over
+     * the target only after everything was written and forced to disk, so readers never see a partial file.
+     * A ".gz" target is written as gzip, and the reported bytes are then the compressed bytes on disk.
+     *
+     * @param visitors Visitors to write, in order
+     * @param target File to create or replace
+     * @param atomic true to write through a temporary file plus rename
+     * @return Rows, bytes and elapsed time of the export
+     * @throws IOException If writing fails (with atomic set, the target is left untouched)
+     */
+    public HistoryExportResult write(Iterable<Visitor> visitors, Path target, boolean atomic) throws IOException {
+        long startNanos = System.nanoTime();
+        long[] counts;
+        if (!atomic) {
+            try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                counts = writeFile(visitors, channel, target);
+            }
+        } else {
+            Path directory = target.toAbsolutePath().getParent();
+            Path temp = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+            try {
+                try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                    counts = writeFile(visitors, channel, target);
+                    channel.force(true);
+                }
+                try {
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(temp); // Only still there if something failed
+            }
+        }
+        return new HistoryExportResult(counts[0], counts[1], System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Writes the header and all visitors to a new file, through gzip if the target name asks for it.
+     * @return {rows written, bytes written to the file}
+     */
+    private long[] writeFile(Iterable<Visitor> visitors, FileChannel channel, Path target) throws IOException {
+        if (!HistoryCompression.isCompressedName(target)) {
+            return write(visitors, channel);
+        }
+        long[] counts;
+        try (WritableByteChannel gzip = HistoryCompression.openForWriting(channel)) {
+            counts = write(visitors, gzip);
+        }
+        counts[1] = channel.position(); // Compressed size
+        return counts;
+    }
+
+    /**
+     * Writes the header and all visitors to a channel (the channel is not closed).
+     *
+     * @param visitors Visitors to write, in order
+     * @param out Channel to write to
+     * @return {rows written, bytes written}
+     * @throws IOException If writing to the channel fails
+     */
+    public long[] write(Iterable<Visitor> visitors, WritableByteChannel out) throws IOException {
+        long rowCount = 0;
+        long bytes = 0;
+        rows.setLength(0);
+        buffer.clear();
+        rows.append(HEADER).append(LINE_SEPARATOR);
+        for (Visitor visitor : visitors) {
+            rows.append(visitor.getId()).append(',')
+                    .append(visitor.getName()).append(',')
+                    .append(visitor.getAge()).append(',')
+                    .append(visitor.getVisitorType()).append(',')
+                    .append(visitor.getVisitDate()).append(LINE_SEPARATOR);
+            rowCount++;
+            if (rows.length() >= batchChars) {
+                bytes += encodeBatch(out);
+            }
+        }
+        bytes += encodeBatch(out);
+        bytes += drain(out);
+        return new long[] {rowCount, bytes};
+    }
+
+    /**
+     * Encodes the pending text batch into the output buffer, writing the buffer out whenever it fills up.
+     * @return Bytes written to the channel
+     */
+    private long encodeBatch(WritableByteChannel out) throws IOException {
+        long written = 0;
+        CharBuffer chars = CharBuffer.wrap(rows);
+        encoder.reset();
+        while (true) {
+            CoderResult result = encoder.encode(chars, buffer, true);
+            if (result.isOverflow()) {
+                written += drain(out);
+            } else if (result.isUnderflow()) {
+                break;
+            } else {
+                result.throwException();
+            }
+        }
+        while (encoder.flush(buffer).isOverflow()) {
+            written += drain(out);
+        }
+        rows.setLength(0);
+        return written;
+    }
+
+    /**
+     * Writes everything in the output buffer to the channel.
+     * @return Bytes written
+     */
+    private long drain(WritableByteChannel out) throws IOException {
+        buffer.flip();
+        long written = buffer.remaining();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        buffer.clear();
+        return written;
+    }
+}
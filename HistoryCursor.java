@@ -0,0 +1,87 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Class HistoryCursor: Position in a ride history for reading it page by page (e.g. a dashboard
+ * that shows the next 100 riders on each refresh). The position is a row number, and appends only
+ * add rows at the end, so the cursor stays valid while the ride keeps running: the next page simply
+ * includes riders who boarded since. Sorting the history moves rows, after which the cursor fails fast.
+ * Each page materializes only its own rows; the rest of the history is never touched.
+ * Use from the thread that owns the history (the ride's operator thread).
+ */
+public final class HistoryCursor {
+    private final RideHistory history;
+    private final int reorders; // history.reorderCount() when the cursor was created
+    private int position;       // Next row to read
+
+    HistoryCursor(RideHistory history, int position) {
+        this.history = history;
+        this.reorders = history.reorderCount();
+        this.position = Math.max(0, position);
+    }
+
+    /**
+     * Reads up to max riders from the cursor position and moves past them.
+     *
+     * @param max Page size (≥ 1)
+     * @return Read-only page of riders in history order; empty if the cursor is at the end
+     * @throws ConcurrentModificationException If the history was sorted since the cursor was created
+     */
+    public List<Visitor> next(int max) {
+        checkOrder();
+        int end = (int) Math.min(history.size(), (long) position + Math.max(max, 0));
+        List<Visitor> page = new ArrayList<>(Math.max(end - position, 0));
+        for (int row = position; row < end; row++) {
+            page.add(history.get(row));
+        }
+        position = Math.max(position, end);
+        return Collections.unmodifiableList(page);
+    }
+
+    /**
+     * Checks whether riders are available after the cursor position (new appends count).
+     * @return true if next() would return at least one rider
+     */
+    public boolean hasNext() {
+        checkOrder();
+        return position < history.size();
+    }
+
+    /**
+     * Streams the riders from the cursor position to the current end, lazily (one Visitor per element
+     * consumed). Does not move the cursor.
+     *
+     * @return Stream of riders in history order
+     * @throws ConcurrentModificationException If the history was sorted since the cursor was created
+     */
+    public Stream<Visitor> stream() {
+        checkOrder();
+        return IntStream.range(Math.min(position, history.size()), history.size()).mapToObj(history::get);
+    }
+
+    /**
+     * Gets the cursor position.
+     * @return Row number of the next rider to read
+     */
+    public int getPosition() {
+        return position;
+    }
+
+    /**
+     * Gets how many riders are after the cursor position right now.
+     * @return Rows not yet read
+     */
+    public int remaining() {
+        return Math.max(history.size() - position, 0);
+    }
+
+    private void checkOrder() {
+        if (history.reorderCount() != reorders) {
+            throw new ConcurrentModificationException("Ride history was sorted; cursor position no longer valid");
+        }
+    }
+}
@@ -0,0 +1,111 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+
+/**
+ * Class HistoryDataGenerator: Creates synthetic ride history in the style of log_flume_history.csv,
+ * for benchmarks and load tests. Rows have unique visitor IDs (V001, V002, ...), random names,
+ * a visitor type with a matching age range, and a visit date within a span of days.
+ * The same count and seed always give the same rows.
+ *
+ * Usage: java HistoryDataGenerator &lt;output.csv&gt; &lt;rows&gt; [seed]
+ */
+public class HistoryDataGenerator {
+    /** First visit date of generated history. */
+    public static final String FIRST_VISIT_DATE = "2025-12-01";
+
+    /** Number of distinct visit dates in generated history. */
+    public static final int DAYS = 90;
+
+    private static final String[] FIRST_NAMES = {
+            "Alice", "Bob", "Charlie", "Diana", "Ethan", "Fiona", "George", "Hannah", "Isaac", "Julia",
+            "Kevin", "Laura", "Mason", "Nina", "Oscar", "Paula", "Quentin", "Ryan", "Sandra", "Tom"};
+    private static final String[] LAST_NAMES = {
+            "Smith", "Johnson", "Brown", "Prince", "Hunt", "Gallagher", "Miller", "Davis", "Wilson", "Taylor",
+            "Anderson", "Thomas", "Moore", "Martin", "Lee", "Walker", "Hall", "Young", "King", "Wright"};
+    private static final String[] TYPES = {"Adult", "Student", "Child", "Senior"};
+    private static final int[] MIN_AGE = {25, 16, 4, 65};
+    private static final int[] MAX_AGE = {64, 24, 15, 90};
+
+    private static final String[] VISIT_DATES = new String[DAYS];
+
+    static {
+        int firstDay = VisitDates.toEpochDay(FIRST_VISIT_DATE);
+        for (int d = 0; d < DAYS; d++) {
+            VISIT_DATES[d] = VisitDates.toText(firstDay + d);
+        }
+    }
+
+    /**
+     * Gets generated visitors lazily (nothing is kept in memory, so millions of rows are fine).
+     *
+     * @param count Number of visitors
+     * @param seed Random seed
+     * @return Visitors in generation order; each iteration yields the same rows
+     */
+    public static Iterable<Visitor> visitors(long count, long seed) {
+        return () -> new Iterator<Visitor>() {
+            private final SplittableRandom random = new SplittableRandom(seed);
+            private long next;
+
+            @Override
+            public boolean hasNext() {
+                return next < count;
+            }
+
+            @Override
+            public Visitor next() {
+                if (next >= count) {
+                    throw new NoSuchElementException();
+                }
+                return createVisitor(++next, random);
+            }
+        };
+    }
+
+    /**
+     * Writes a generated history CSV file (same header and columns as Ride.exportRideHistory()).
+     *
+     * @param target File to write (created or replaced)
+     * @param count Number of rows
+     * @param seed Random seed
+     * @return Rows, bytes and elapsed time of the write
+     * @throws IOException If writing fails
+     */
+    public static HistoryExportResult generate(Path target, long count, long seed) throws IOException {
+        return new HistoryCsvWriter().write(visitors(count, seed), target, false);
+    }
+
+    private static Visitor createVisitor(long number, SplittableRandom random) {
+        String id = (number < 100) ? ((number < 10) ? "V00" + number : "V0" + number) : "V" + number;
+        String name = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+        int type = random.nextInt(TYPES.length);
+        int age = MIN_AGE[type] + random.nextInt(MAX_AGE[type] - MIN_AGE[type] + 1);
+        return new Visitor(id, name, age, TYPES[type], VISIT_DATES[random.nextInt(DAYS)]);
+    }
+
+    /**
+     * Command-line entry point.
+     * @param args Output path, row count and optional seed
+     */
+    public static void main(String[] args) {
+        if (args.length < 2 || args.length > 3) {
+            System.out.println("Usage: java HistoryDataGenerator <output.csv> <rows> [seed]");
+            return;
+        }
+        try {
+            long rows = Long.parseLong(args[1]);
+            long seed = (args.length == 3) ? Long.parseLong(args[2]) : 42;
+            HistoryExportResult result = generate(Paths.get(args[0]), rows, seed);
+            System.out.printf("[SUCCESS] Generated %d visitors into %s (%d bytes)%n",
+                    result.getRows(), args[0], result.getBytes());
+        } catch (NumberFormatException e) {
+            System.err.println("[ERROR] Invalid number: " + e.getMessage());
+        } catch (IOException e) {
+            System.err.println("[ERROR] Generation failed: " + e.getMessage());
+        }
+    }
+}
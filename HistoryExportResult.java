@@ -0,0 +1,60 @@
+/**
+ * Class HistoryExportResult: Summary of one ride history export (Part 6 extension).
+ * Reports rows and bytes written and how long the export took, for sizing end-of-day dumps.
+ */
+public class HistoryExportResult {
+    private final long rows;         // Visitor rows written (header excluded)
+    private final long bytes;        // Bytes written, header included
+    private final long elapsedNanos; // Wall-clock time of the export
+
+    /**
+     * Creates an export summary.
+     *
+     * @param rows Visitor rows written
+     * @param bytes Bytes written
+     * @param elapsedNanos Time the export took, in nanoseconds
+     */
+    public HistoryExportResult(long rows, long bytes, long elapsedNanos) {
+        this.rows = rows;
+        this.bytes = bytes;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Gets the number of visitor rows written.
+     * @return Row count
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * Gets the number of bytes written.
+     * @return Byte count
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Gets the time the export took.
+     * @return Elapsed time in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Gets the export throughput.
+     * @return Megabytes (10^6 bytes) written per second; 0 if no time was measured
+     */
+    public double getMegabytesPerSecond() {
+        return (elapsedNanos == 0) ? 0 : (bytes / 1e6) / (elapsedNanos / 1e9);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("rows=%d, bytes=%d, elapsed=%.3f ms, %.1f MB/s",
+                rows, bytes, elapsedNanos / 1e6, getMegabytesPerSecond());
+    }
+}
@@ -0,0 +1,76 @@
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Class HistoryFormatConverter: Converts ride history files between the CSV format
+ * (Ride.exportRideHistory()) and the binary format (Ride.exportRideHistoryBinary()).
+ * Every row is kept as-is, duplicates included, so a converted file imports into a Ride
+ * exactly like the original. Malformed CSV rows are dropped and counted.
+ * Rows are held in a columnar RideHistory between reading and writing (epoch days and shared type
+ * strings instead of a Visitor and four Strings per row), and the binary side is written from its columns.
+ *
+ * Usage: java HistoryFormatConverter &lt;input&gt; &lt;output&gt;
+ * (input ending in ".csv" is converted to binary; anything else is treated as binary and converted to CSV)
+ */
+public class HistoryFormatConverter {
+
+    /**
+     * Converts a CSV history file to the binary format.
+     *
+     * @param csv CSV file to read
+     * @param binary Binary file to write
+     * @return Counts from reading the CSV (rejected = malformed rows that were dropped)
+     * @throws IOException If reading or writing fails
+     */
+    public static HistoryImportResult csvToBinary(Path csv, Path binary) throws IOException {
+        RideHistory rows = new RideHistory();
+        HistoryImportResult result;
+        try (FileChannel channel = FileChannel.open(csv, StandardOpenOption.READ)) {
+            result = new HistoryCsvReader().read(channel, true, rows::add);
+        }
+        new HistoryBinaryCodec().write(rows, binary);
+        return result;
+    }
+
+    /**
+     * Converts a binary history file to the CSV format.
+     *
+     * @param binary Binary file to read
+     * @param csv CSV file to write
+     * @return Rows, bytes and elapsed time of the CSV write
+     * @throws IOException If reading or writing fails
+     */
+    public static HistoryExportResult binaryToCsv(Path binary, Path csv) throws IOException {
+        RideHistory rows = new RideHistory();
+        new HistoryBinaryCodec().read(binary, rows::add);
+        return new HistoryCsvWriter().write(rows, csv, true);
+    }
+
+    /**
+     * Command-line entry point.
+     * @param args Input path and output path
+     */
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.out.println("Usage: java HistoryFormatConverter <input> <output>");
+            return;
+        }
+        Path input = Paths.get(args[0]);
+        Path output = Paths.get(args[1]);
+        try {
+            if (args[0].toLowerCase().endsWith(".csv")) {
+                HistoryImportResult result = csvToBinary(input, output);
+                System.out.printf("[SUCCESS] Converted %s to binary %s (%d rows, %d invalid lines dropped)%n",
+                        input, output, result.getImported(), result.getRejected());
+            } else {
+                HistoryExportResult result = binaryToCsv(input, output);
+                System.out.printf("[SUCCESS] Converted %s to CSV %s (%d rows)%n", input, output, result.getRows());
+            }
+        } catch (IOException e) {
+            System.err.println("[ERROR] Conversion failed: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/**
+ * Class HistoryImportResult: Summary of one ride history import (Part 7 extension).
+ * Counts how many rows were imported, skipped as duplicates, or rejected as malformed,
+ * so bad rows no longer need a console warning each.
+ */
+public class HistoryImportResult {
+    private long imported;   // Rows added to the ride history
+    private long duplicates; // Well-formed rows skipped because the visitor ID was already in the history
+    private long rejected;   // Malformed rows (wrong field count, bad age, over-long line)
+    private long bytesRead;  // Bytes consumed from the source
+
+    /**
+     * Records one row that was added to the ride history.
+     */
+    void countImported() {
+        imported++;
+    }
+
+    /**
+     * Records one well-formed row that was skipped as a duplicate.
+     */
+    void countDuplicate() {
+        duplicates++;
+    }
+
+    /**
+     * Records one malformed row.
+     */
+    void countRejected() {
+        rejected++;
+    }
+
+    /**
+     * Records several malformed rows at once.
+     * @param count Number of rejected rows
+     */
+    void countRejected(long count) {
+        rejected += count;
+    }
+
+    /**
+     * Adds to the number of bytes consumed from the source.
+     * @param bytes Bytes just read
+     */
+    void addBytesRead(long bytes) {
+        bytesRead += bytes;
+    }
+
+    /**
+     * Adds the counts of another (partial) result to this one.
+     * @param other Result to merge in
+     */
+    void merge(HistoryImportResult other) {
+        imported += other.imported;
+        duplicates += other.duplicates;
+        rejected += other.rejected;
+        bytesRead += other.bytesRead;
+    }
+
+    /**
+     * Gets the number of rows added to the ride history.
+     * @return Imported row count
+     */
+    public long getImported() {
+        return imported;
+    }
+
+    /**
+     * Gets the number of rows skipped because the visitor was already in the history.
+     * @return Duplicate row count
+     */
+    public long getDuplicates() {
+        return duplicates;
+    }
+
+    /**
+     * Gets the number of malformed rows.
+     * @return Rejected row count
+     */
+    public long getRejected() {
+        return rejected;
+    }
+
+    /**
+     * Gets the number of bytes consumed from the source.
+     * @return Bytes read
+     */
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("imported=%d, duplicates=%d, rejected=%d, bytes=%d",
+                imported, duplicates, rejected, bytesRead);
+    }
+}
@@ -0,0 +1,106 @@
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Class HistoryIndex: Secondary indexes of a RideHistory by visitor type, age band and visit date.
+ * Visitor types and age bands have few distinct values, so each value gets a bitmap of its rows
+ * (one bit per record and value, far smaller than a list of row numbers); visit dates have many
+ * values with few rows each, so each date gets a list of its rows in history order.
+ * Obtain one through RideHistory.query(); it is updated on every append like the sorted view.
+ */
+final class HistoryIndex {
+    /** Width of one age band in years (0-9, 10-19, ...). */
+    static final int AGE_BAND_YEARS = 10;
+
+    private final RideHistory history;
+    private final List<BitSet> rowsByType = new ArrayList<>();         // Indexed by the history's type code
+    private final TreeMap<Integer, BitSet> rowsByAgeBand = new TreeMap<>(); // Sorted, so ranges visit only bands that exist
+    private final Map<Integer, IntList> rowsByDate = new HashMap<>();  // Keyed by the history's date code
+
+    /**
+     * Builds the indexes from the current contents of a history.
+     * @param history History to index
+     */
+    HistoryIndex(RideHistory history) {
+        this.history = history;
+        rebuild();
+    }
+
+    /**
+     * Rebuilds the indexes from the history's current row numbers (after the history was reordered).
+     */
+    void rebuild() {
+        rowsByType.clear();
+        rowsByAgeBand.clear();
+        rowsByDate.clear();
+        for (int row = 0; row < history.size(); row++) {
+            insert(row);
+        }
+    }
+
+    /**
+     * Adds a record that was just appended to the history (rows must be inserted in increasing order).
+     * @param row Row index of the new record
+     */
+    void insert(int row) {
+        int typeCode = history.typeCodeAt(row);
+        while (rowsByType.size() <= typeCode) {
+            rowsByType.add(new BitSet());
+        }
+        rowsByType.get(typeCode).set(row);
+        rowsByAgeBand.computeIfAbsent(ageBandOf(history.ageAt(row)), band -> new BitSet()).set(row);
+        rowsByDate.computeIfAbsent(history.dateCodeAt(row), code -> new IntList()).add(row);
+    }
+
+    /**
+     * Gets the rows with a visitor type (live; do not modify).
+     * @param typeCode Type code from RideHistory.typeCodeOf()
+     * @return Bitmap of rows; empty if none
+     */
+    BitSet rowsOfType(int typeCode) {
+        return (typeCode < rowsByType.size()) ? rowsByType.get(typeCode) : new BitSet();
+    }
+
+    /**
+     * Gets the rows whose age falls into one of the bands covering minAge..maxAge (a new bitmap).
+     * Rows at the edges may lie outside the exact range unless it is band-aligned.
+     *
+     * @param minAge Lowest age
+     * @param maxAge Highest age
+     * @return Bitmap of rows in the covering bands
+     */
+    BitSet rowsInAgeBands(int minAge, int maxAge) {
+        BitSet rows = new BitSet();
+        if (minAge > maxAge) {
+            return rows;
+        }
+        for (BitSet bandRows : rowsByAgeBand.subMap(ageBandOf(minAge), true, ageBandOf(maxAge), true).values()) {
+            rows.or(bandRows);
+        }
+        return rows;
+    }
+
+    /**
+     * Gets the rows with a visit date, in history order (live; do not modify).
+     * @param dateCode Date code from RideHistory.dateCodeOf()
+     * @return Row list; null if none
+     */
+    IntList rowsOnDate(int dateCode) {
+        return rowsByDate.get(dateCode);
+    }
+
+    static int ageBandOf(int age) {
+        return Math.floorDiv(age, AGE_BAND_YEARS);
+    }
+
+    /**
+     * Checks whether minAge..maxAge covers whole bands, so band bitmaps need no per-row age check.
+     */
+    static boolean isBandAligned(int minAge, int maxAge) {
+        return Math.floorMod(minAge, AGE_BAND_YEARS) == 0 && Math.floorMod(maxAge + 1, AGE_BAND_YEARS) == 0;
+    }
+}
@@ -0,0 +1,217 @@
+import java.util.BitSet;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Class HistoryQuery: Filtered count or iteration over a RideHistory by visitor type, visit date
+ * and age range, answered from the history's secondary indexes instead of a full scan.
+ * Example: ride.queryHistory().visitorType("Student").visitDate("2025-12-01").count().
+ * Filters left unset match everything. With a date, only that date's rows are visited; otherwise
+ * the type and age-band bitmaps are intersected, and counts of band-aligned ranges (e.g. 10-19)
+ * need no per-row work at all. Iteration is in history order and fails fast if the history changes.
+ */
+public final class HistoryQuery implements Iterable<Visitor> {
+    private final RideHistory history;
+    private final HistoryIndex index;
+    private String visitorType;
+    private boolean typeSet;
+    private String visitDate;
+    private int minAge = Integer.MIN_VALUE;
+    private int maxAge = Integer.MAX_VALUE;
+    private boolean ageSet;
+
+    HistoryQuery(RideHistory history, HistoryIndex index) {
+        this.history = history;
+        this.index = index;
+    }
+
+    /**
+     * Keeps only riders of one visitor type.
+     * @param visitorType Visitor type (e.g. "Student")
+     * @return this query
+     */
+    public HistoryQuery visitorType(String visitorType) {
+        this.visitorType = visitorType;
+        this.typeSet = true;
+        return this;
+    }
+
+    /**
+     * Keeps only riders who visited on one date.
+     * @param visitDate Visit date (format: "yyyy-MM-dd"), matched as stored
+     * @return this query
+     */
+    public HistoryQuery visitDate(String visitDate) {
+        this.visitDate = visitDate;
+        return this;
+    }
+
+    /**
+     * Keeps only riders aged minAge..maxAge (inclusive).
+     *
+     * @param minAge Lowest age to include
+     * @param maxAge Highest age to include
+     * @return this query
+     */
+    public HistoryQuery ageRange(int minAge, int maxAge) {
+        this.minAge = minAge;
+        this.maxAge = maxAge;
+        this.ageSet = true;
+        return this;
+    }
+
+    /**
+     * Counts the matching riders without building Visitors.
+     * @return Number of matching records
+     */
+    public int count() {
+        Plan plan = plan();
+        if (plan.empty) {
+            return 0;
+        }
+        if (plan.dateRows == null && plan.rows == null) {
+            return history.size();
+        }
+        if (plan.dateRows == null && !plan.checkAge) {
+            return plan.rows.cardinality();
+        }
+        if (plan.dateRows != null && !plan.checkType && !plan.checkAge) {
+            return plan.dateRows.size();
+        }
+        int count = 0;
+        for (int row = plan.first(); row >= 0; row = plan.next(row)) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Iterates over the matching riders in history order (each Visitor is built from the history columns).
+     */
+    @Override
+    public Iterator<Visitor> iterator() {
+        Plan plan = plan();
+        int expectedModCount = history.modCount();
+        return new Iterator<Visitor>() {
+            private int nextRow = plan.empty ? -1 : plan.first();
+
+            @Override
+            public boolean hasNext() {
+                return nextRow >= 0;
+            }
+
+            @Override
+            public Visitor next() {
+                if (history.modCount() != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (nextRow < 0) {
+                    throw new NoSuchElementException();
+                }
+                Visitor visitor = history.get(nextRow);
+                nextRow = plan.next(nextRow);
+                return visitor;
+            }
+        };
+    }
+
+    /**
+     * Picks the index to drive the query from: the date's row list if a date is given,
+     * otherwise the intersection of the type and age-band bitmaps.
+     */
+    private Plan plan() {
+        Plan plan = new Plan();
+        plan.typeCode = -1;
+        plan.minAge = minAge;
+        plan.maxAge = maxAge;
+        if (typeSet) {
+            plan.typeCode = history.typeCodeOf(visitorType);
+            plan.empty |= plan.typeCode < 0;
+        }
+        if (ageSet) {
+            plan.empty |= minAge > maxAge;
+            plan.checkAge = !HistoryIndex.isBandAligned(minAge, maxAge);
+        }
+        if (visitDate != null) {
+            Integer dateCode = history.dateCodeOf(visitDate);
+            plan.dateRows = (dateCode == null) ? null : index.rowsOnDate(dateCode);
+            plan.empty |= plan.dateRows == null;
+            plan.checkType = typeSet;
+            plan.checkAge = ageSet; // Date rows are checked against the age column directly
+            return plan;
+        }
+        if (plan.empty) {
+            return plan;
+        }
+        if (ageSet) {
+            plan.rows = index.rowsInAgeBands(minAge, maxAge);
+            if (typeSet) {
+                plan.rows.and(index.rowsOfType(plan.typeCode));
+            }
+        } else if (typeSet) {
+            plan.rows = index.rowsOfType(plan.typeCode);
+        }
+        return plan;
+    }
+
+    /**
+     * How one run of the query finds its rows.
+     */
+    private final class Plan {
+        boolean empty;
+        IntList dateRows;   // Rows of the requested date, or null
+        BitSet rows;        // Type/age-band candidates when there is no date, or null for all rows
+        int typeCode;
+        boolean checkType;
+        boolean checkAge;
+        int minAge;
+        int maxAge;
+        private int datePosition;
+
+        int first() {
+            datePosition = -1;
+            return next(-1);
+        }
+
+        /**
+         * Finds the next matching row after the given one (rows are visited in increasing order).
+         * @return Row index; -1 when there are no more
+         */
+        int next(int row) {
+            if (dateRows != null) {
+                while (++datePosition < dateRows.size()) {
+                    int candidate = dateRows.get(datePosition);
+                    if (matches(candidate)) {
+                        return candidate;
+                    }
+                }
+                return -1;
+            }
+            for (int candidate = nextCandidate(row + 1); candidate >= 0; candidate = nextCandidate(candidate + 1)) {
+                if (matches(candidate)) {
+                    return candidate;
+                }
+            }
+            return -1;
+        }
+
+        private int nextCandidate(int from) {
+            if (rows == null) {
+                return (from < history.size()) ? from : -1;
+            }
+            return rows.nextSetBit(from);
+        }
+
+        private boolean matches(int row) {
+            if (checkType && history.typeCodeAt(row) != typeCode) {
+                return false;
+            }
+            if (checkAge) {
+                int age = history.ageAt(row);
+                return age >= minAge && age <= maxAge;
+            }
+            return true;
+        }
+    }
+}
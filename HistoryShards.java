@@ -0,0 +1,386 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
+
+/**
+ * Class HistoryShards: Partitioned export and parallel import of ride histories (one ride or a whole park).
+ * Export splits each history by visit date or by a hash of the visitor ID, writes every (ride, partition)
+ * to its own CSV file (the format of exportRideHistory()) on a pool of threads, and finally writes a
+ * manifest listing the files. Import streams each ride's files into it in manifest order, with different
+ * rides in parallel (so rows come back grouped by partition).
+ *
+ * Layout of an export directory:
+ * <pre>
+ *   manifest.tsv                   Written last (atomically): an export without it is incomplete
+ *   &lt;ride&gt;/&lt;partition&gt;.csv        One file per ride and visit date (yyyy-MM-dd, or "undated"), or per hash shard (shard-000)
+ * </pre>
+ * Manifest: a "# partitioning=..." line, a header line, then one tab-separated line per file:
+ * ride name, partition, file (relative path), rows, bytes.
+ */
+public class HistoryShards {
+    /** Name of the manifest file in an export directory. */
+    public static final String MANIFEST = "manifest.tsv";
+
+    private static final String MANIFEST_HEADER = "Ride\tPartition\tFile\tRows\tBytes";
+    private static final String UNDATED = "undated";
+
+    /**
+     * How rows are split into files.
+     */
+    public enum Partitioning {
+        /** One file per visit date (rows without a valid date go to "undated"). */
+        VISIT_DATE,
+        /** A fixed number of files, by hash of the visitor ID (all rows of a visitor in one file). */
+        VISITOR_ID_HASH
+    }
+
+    /**
+     * One file of an export, as listed in the manifest.
+     */
+    public static final class Shard {
+        private final String rideName;
+        private final String partition;
+        private final String file;
+        private final long rows;
+        private final long bytes;
+
+        Shard(String rideName, String partition, String file, long rows, long bytes) {
+            this.rideName = rideName;
+            this.partition = partition;
+            this.file = file;
+            this.rows = rows;
+            this.bytes = bytes;
+        }
+
+        public String getRideName() {
+            return rideName;
+        }
+
+        public String getPartition() {
+            return partition;
+        }
+
+        public String getFile() {
+            return file;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+    }
+
+    private final int threads;
+
+    /**
+     * Creates a sharder that uses one thread per available core.
+     */
+    public HistoryShards() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a sharder with a fixed number of reader/writer threads.
+     * @param threads Threads (≥1)
+     */
+    public HistoryShards(int threads) {
+        this.threads = Math.max(threads, 1);
+    }
+
+    // ------------------------------
+    // Export
+    // ------------------------------
+
+    /**
+     * Exports ride histories into partition files plus a manifest.
+     * The histories must not change while the export runs.
+     *
+     * @param histories Histories by ride name (iteration order is kept in the manifest)
+     * @param directory Export directory (created if missing; files of an earlier export are replaced)
+     * @param partitioning How to split the rows
+     * @param hashShards Number of files per ride for VISITOR_ID_HASH (ignored for VISIT_DATE)
+     * @return Total rows, bytes and elapsed time
+     * @throws IOException If a file cannot be written
+     */
+    public HistoryExportResult export(Map<String, RideHistory> histories, Path directory,
+                                      Partitioning partitioning, int hashShards) throws IOException {
+        long startNanos = System.nanoTime();
+        int shardCount = Math.max(hashShards, 1);
+        Files.createDirectories(directory);
+
+        // Split every history into partitions of row numbers (one pass over the columns, no Visitors built)
+        ThreadLocal<HistoryCsvWriter> writers = ThreadLocal.withInitial(HistoryCsvWriter::new); // One buffer per thread
+        Set<String> rideDirectories = new HashSet<>();
+        List<Callable<Shard>> tasks = new ArrayList<>();
+        for (Map.Entry<String, RideHistory> entry : histories.entrySet()) {
+            String rideName = entry.getKey();
+            RideHistory history = entry.getValue();
+            history.prepareConcurrentReads();
+            String rideDirectory = fileNameOf(rideName);
+            for (int n = 2; !rideDirectories.add(rideDirectory); n++) {
+                rideDirectory = fileNameOf(rideName) + "-" + n; // Two names with the same safe form
+            }
+            Files.createDirectories(directory.resolve(rideDirectory));
+            for (Map.Entry<String, IntList> partition : partition(history, partitioning, shardCount).entrySet()) {
+                String file = rideDirectory + "/" + partition.getKey() + ".csv";
+                IntList rows = partition.getValue();
+                tasks.add(() -> {
+                    HistoryExportResult written = writers.get().write(
+                            rowsOf(history, rows), directory.resolve(file), false);
+                    return new Shard(rideName, partition.getKey(), file, written.getRows(), written.getBytes());
+                });
+            }
+        }
+
+        List<Shard> shards = runAll(tasks);
+        long rows = 0;
+        long bytes = 0;
+        for (Shard shard : shards) {
+            rows += shard.getRows();
+            bytes += shard.getBytes();
+        }
+        writeManifest(directory, partitioning, shards);
+        return new HistoryExportResult(rows, bytes, System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Groups the rows of a history by partition name, keeping history order within each partition.
+     */
+    private static Map<String, IntList> partition(RideHistory history, Partitioning partitioning, int shardCount) {
+        Map<String, IntList> partitions = new TreeMap<>();
+        if (partitioning == Partitioning.VISITOR_ID_HASH) {
+            IntList[] byHash = new IntList[shardCount];
+            for (int row = 0; row < history.size(); row++) {
+                String id = history.idAt(row);
+                int shard = Math.floorMod((id == null) ? 0 : id.hashCode(), shardCount);
+                if (byHash[shard] == null) {
+                    byHash[shard] = new IntList();
+                }
+                byHash[shard].add(row);
+            }
+            for (int shard = 0; shard < shardCount; shard++) {
+                if (byHash[shard] != null) {
+                    partitions.put(String.format("shard-%03d", shard), byHash[shard]);
+                }
+            }
+            return partitions;
+        }
+        Map<Integer, IntList> byDay = new TreeMap<>();
+        int lastDay = 0;
+        IntList lastRows = null;
+        for (int row = 0; row < history.size(); row++) {
+            int day = history.visitDayAt(row);
+            if (day != lastDay || lastRows == null) { // Consecutive rows usually share a date
+                lastRows = byDay.computeIfAbsent(day, key -> new IntList());
+                lastDay = day;
+            }
+            lastRows.add(row);
+        }
+        for (Map.Entry<Integer, IntList> entry : byDay.entrySet()) {
+            int day = entry.getKey();
+            partitions.put((day == VisitDates.INVALID) ? UNDATED : VisitDates.toText(day), entry.getValue());
+        }
+        return partitions;
+    }
+
+    private static Iterable<Visitor> rowsOf(RideHistory history, IntList rows) {
+        return () -> new Iterator<Visitor>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < rows.size();
+            }
+
+            @Override
+            public Visitor next() {
+                if (next >= rows.size()) {
+                    throw new NoSuchElementException();
+                }
+                return history.get(rows.get(next++));
+            }
+        };
+    }
+
+    // ------------------------------
+    // Import
+    // ------------------------------
+
+    /**
+     * Imports the shards of an export. Each ride's shards are read by one thread, in manifest order, and
+     * streamed straight into the ride's sink; different rides are imported in parallel. Rows are never
+     * buffered, so memory use does not grow with the size of the export.
+     * The sink returns true if it kept the visitor, or false if it was skipped as a duplicate.
+     *
+     * @param directory Export directory (with manifest)
+     * @param sinks Sink for each ride name to import; rides of the export without a sink are skipped
+     * @return Import counts per ride name (merged over its shards)
+     * @throws IOException If the manifest or a shard cannot be read
+     */
+    public Map<String, HistoryImportResult> importAll(Path directory, Map<String, Predicate<Visitor>> sinks)
+            throws IOException {
+        Map<String, List<Shard>> byRide = new LinkedHashMap<>();
+        for (Shard shard : readManifest(directory)) {
+            if (sinks.containsKey(shard.getRideName())) {
+                byRide.computeIfAbsent(shard.getRideName(), name -> new ArrayList<>()).add(shard);
+            }
+        }
+
+        List<Callable<HistoryImportResult>> imports = new ArrayList<>();
+        for (Map.Entry<String, List<Shard>> entry : byRide.entrySet()) {
+            Predicate<Visitor> sink = sinks.get(entry.getKey());
+            imports.add(() -> {
+                HistoryCsvReader reader = new HistoryCsvReader();
+                HistoryImportResult total = new HistoryImportResult();
+                for (Shard shard : entry.getValue()) {
+                    try (FileChannel channel = FileChannel.open(directory.resolve(shard.getFile()), StandardOpenOption.READ)) {
+                        total.merge(reader.read(channel, true, sink));
+                    }
+                }
+                return total;
+            });
+        }
+        List<HistoryImportResult> results = runAll(imports);
+
+        Map<String, HistoryImportResult> byName = new LinkedHashMap<>();
+        int i = 0;
+        for (String rideName : byRide.keySet()) {
+            byName.put(rideName, results.get(i++));
+        }
+        return byName;
+    }
+
+    // ------------------------------
+    // Manifest
+    // ------------------------------
+
+    /**
+     * Reads the manifest of an export directory.
+     * @param directory Export directory
+     * @return Files of the export, in manifest order
+     * @throws IOException If the manifest is missing or malformed
+     */
+    public List<Shard> readManifest(Path directory) throws IOException {
+        List<Shard> shards = new ArrayList<>();
+        try (BufferedReader in = Files.newBufferedReader(directory.resolve(MANIFEST), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.isEmpty() || line.startsWith("#") || line.equals(MANIFEST_HEADER)) {
+                    continue;
+                }
+                String[] fields = line.split("\t", -1);
+                if (fields.length != 5) {
+                    throw new IOException("Malformed manifest line: " + line);
+                }
+                try {
+                    shards.add(new Shard(fields[0], fields[1], fields[2],
+                            Long.parseLong(fields[3]), Long.parseLong(fields[4])));
+                } catch (NumberFormatException e) {
+                    throw new IOException("Malformed manifest line: " + line, e);
+                }
+            }
+        }
+        return shards;
+    }
+
+    private static void writeManifest(Path directory, Partitioning partitioning, List<Shard> shards) throws IOException {
+        Path target = directory.resolve(MANIFEST);
+        Path temp = Files.createTempFile(directory, MANIFEST, ".tmp");
+        try {
+            try (BufferedWriter out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                out.write("# partitioning=" + partitioning);
+                out.newLine();
+                out.write(MANIFEST_HEADER);
+                out.newLine();
+                for (Shard shard : shards) {
+                    out.write(shard.getRideName() + "\t" + shard.getPartition() + "\t" + shard.getFile()
+                            + "\t" + shard.getRows() + "\t" + shard.getBytes());
+                    out.newLine();
+                }
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // ------------------------------
+    // Helpers
+    // ------------------------------
+
+    /**
+     * Runs tasks on a fixed pool and returns their results in task order.
+     */
+    private <T> List<T> runAll(List<Callable<T>> tasks) throws IOException {
+        if (tasks.isEmpty()) {
+            return new ArrayList<>();
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads, tasks.size()), runnable -> {
+            Thread thread = new Thread(runnable, "history-shards");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<T> results = new ArrayList<>(tasks.size());
+            for (Future<T> future : pool.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while processing history shards", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Turns a ride name into a safe directory name (letters, digits, '-' and '_'; others become '_').
+     */
+    static String fileNameOf(String rideName) {
+        StringBuilder name = new StringBuilder(rideName.length());
+        for (int i = 0; i < rideName.length(); i++) {
+            char c = rideName.charAt(i);
+            name.append((Character.isLetterOrDigit(c) && c < 128) || c == '-' ? c : '_');
+        }
+        return (name.length() == 0) ? "_" : name.toString();
+    }
+}
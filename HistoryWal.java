@@ -0,0 +1,602 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32;
+
+/**
+ * Class HistoryWal: Append-only write-ahead log that makes a ride's history survive a crash.
+ * Every batch of new history rows (one ride cycle, one addVisitorToHistory(), one import) is appended to the
+ * current log segment as checksummed frames of at most about 1 MB each, so even an import of millions of rows
+ * never needs more than one frame's buffer; replay applies a batch only once all of its frames are intact.
+ * Appends only reach the OS page cache; a background
+ * thread fsyncs them every sync interval (group commit), so many cycles share one fsync and the ride never
+ * waits for the disk. With a zero interval every append is fsynced before it returns.
+ *
+ * When a segment grows past the compaction threshold it is fsynced, sealed and a new one is started; a second
+ * background thread then appends the rows of the sealed segments to the last snapshot, writing a new binary
+ * snapshot (HistoryBinaryCodec.writeAppended(): the old snapshot's rows are copied as bytes, only the new rows
+ * are decoded and encoded), and deletes the folded files. Seals that happen while a compaction waits are
+ * folded into it. Snapshots are named after the last segment they contain, so a crash at any point of a
+ * compaction replays every row exactly once. The directory itself is fsynced after every file is created,
+ * renamed or deleted, so those changes survive a power loss too.
+ *
+ * Directory layout: snapshot-&lt;seq&gt;.rhib (at most one after compaction) and history-&lt;seq&gt;.wal segments.
+ * Frame layout (big-endian): int payload length, int CRC32 of the payload, then the payload:
+ * int row count (negated if the batch continues in the next frame), followed by rows of string id, string name,
+ * int age, string visitor type, string visit date (strings as int byte length + UTF-8 bytes, length -1 = null).
+ * A torn or corrupt frame at the end of a segment (crash during a write) is cut off on replay, together with
+ * the earlier frames of its batch. After a failed write, the next append starts a new segment.
+ *
+ * append() must be called from one thread at a time (the ride's operator thread).
+ */
+public class HistoryWal implements AutoCloseable {
+    /** Default segment size that triggers a compaction: 64 MB. */
+    public static final long DEFAULT_COMPACT_BYTES = 64L << 20;
+
+    private static final String SEGMENT_PREFIX = "history-";
+    private static final String SEGMENT_SUFFIX = ".wal";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".rhib";
+    private static final int FRAME_HEADER = 8;
+    private static final int FRAME_BYTES = 1 << 20;     // Payload size after which a batch continues in a new frame
+    private static final int INITIAL_FRAME = 1 << 12;
+
+    private final Path directory;
+    private final long syncIntervalNanos;
+    private final long compactBytes;
+    private final ScheduledExecutorService syncer;
+    private final ExecutorService compactor;
+    private final AtomicBoolean compactionQueued = new AtomicBoolean();
+    private volatile Future<?> queuedCompaction;
+
+    // Writer state (appending thread)
+    private volatile FileChannel segment;
+    private long segmentSeq;
+    private long segmentBytes;
+    private ByteBuffer frame = ByteBuffer.allocate(INITIAL_FRAME);
+    private boolean segmentDamaged; // A write failed: the segment may end in a torn frame or a partial batch
+    private final CRC32 crc = new CRC32();
+
+    // Shared with the background threads
+    private volatile long appendedFrames;
+    private volatile long syncedFrames;
+    private volatile long snapshotSeq = -1;       // Last segment folded into the snapshot; -1 if none
+    private volatile long sealedSeq = -1;         // Last sealed segment (ready to compact)
+    private volatile IOException backgroundFailure;
+    private int replayedRows;
+
+    private HistoryWal(Path directory, Duration syncInterval, long compactBytes) {
+        this.directory = directory;
+        this.syncIntervalNanos = (syncInterval == null || syncInterval.isNegative()) ? 0 : syncInterval.toNanos();
+        this.compactBytes = (compactBytes > 0) ? compactBytes : DEFAULT_COMPACT_BYTES;
+        String name = "history-wal-" + directory.getFileName();
+        this.syncer = Executors.newSingleThreadScheduledExecutor(runnable -> daemon(runnable, name + "-sync"));
+        this.compactor = Executors.newSingleThreadExecutor(runnable -> daemon(runnable, name + "-compact"));
+    }
+
+    /**
+     * Opens (or creates) a log directory, replays its snapshot and segments into a history,
+     * and starts a new segment for appends.
+     *
+     * @param directory Log directory (created if missing)
+     * @param syncInterval Time between group fsyncs (zero = fsync on every append)
+     * @param compactBytes Segment size that triggers a compaction (0 = DEFAULT_COMPACT_BYTES)
+     * @param target History that receives the replayed rows
+     * @return The open log
+     * @throws IOException If the directory cannot be read or written, or the snapshot is damaged
+     */
+    public static HistoryWal open(Path directory, Duration syncInterval, long compactBytes, RideHistory target)
+            throws IOException {
+        Files.createDirectories(directory);
+        HistoryWal wal = new HistoryWal(directory, syncInterval, compactBytes);
+        try {
+            wal.recover(target);
+        } catch (IOException | RuntimeException e) {
+            wal.syncer.shutdownNow();
+            wal.compactor.shutdownNow();
+            throw e;
+        }
+        if (wal.syncIntervalNanos > 0) {
+            wal.syncer.scheduleWithFixedDelay(wal::syncInBackground,
+                    wal.syncIntervalNanos, wal.syncIntervalNanos, TimeUnit.NANOSECONDS);
+        }
+        return wal;
+    }
+
+    /**
+     * Checks whether a log directory already holds history (a snapshot or a non-empty segment).
+     * @param directory Log directory
+     * @return true if opening it would replay rows
+     * @throws IOException If the directory cannot be listed
+     */
+    public static boolean hasRecords(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return false;
+        }
+        if (!list(directory, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX).isEmpty()) {
+            return true;
+        }
+        for (Path file : list(directory, SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+            if (Files.size(file) > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // ------------------------------
+    // Appending
+    // ------------------------------
+
+    /**
+     * Logs history rows [fromRow, toRow) as one batch (split into frames of about 1 MB).
+     *
+     * @param history History the rows were just appended to
+     * @param fromRow First new row
+     * @param toRow Row after the last new row
+     * @throws IOException If the write (or, with a zero sync interval, the fsync) fails, or a background
+     *                     fsync/compaction failed earlier
+     */
+    public void append(RideHistory history, int fromRow, int toRow) throws IOException {
+        IOException failure = backgroundFailure;
+        if (failure != null) {
+            throw new IOException("Write-ahead log failed in the background: " + failure.getMessage(), failure);
+        }
+        if (fromRow >= toRow) {
+            return;
+        }
+        if (segmentDamaged) {
+            rollSegment(); // Frames after a torn one would never be replayed
+            segmentDamaged = false;
+        }
+        FileChannel channel = segment;
+        int row = fromRow;
+        try {
+            while (row < toRow) {
+                frame.clear();
+                frame.position(FRAME_HEADER + 4);
+                int first = row;
+                do {
+                    putRow(history, row++);
+                } while (row < toRow && frame.position() < FRAME_BYTES);
+                frame.putInt(FRAME_HEADER, (row < toRow) ? first - row : row - first);
+                writeFrame(channel);
+            }
+        } catch (ClosedChannelException e) {
+            throw e; // Log closed: nothing was written
+        } catch (IOException e) {
+            segmentDamaged = true;
+            throw e;
+        } finally {
+            if (frame.capacity() > 2 * FRAME_BYTES) {
+                frame = ByteBuffer.allocate(INITIAL_FRAME); // Grown by a single huge row
+            }
+        }
+        if (syncIntervalNanos == 0) {
+            channel.force(false);
+            syncedFrames = appendedFrames;
+        }
+        if (segmentBytes >= compactBytes) {
+            compact(); // Only between batches, so a batch never spans two segments
+        }
+    }
+
+    /**
+     * Checksums the frame in the buffer and writes it to the segment.
+     */
+    private void writeFrame(FileChannel channel) throws IOException {
+        int payloadLength = frame.position() - FRAME_HEADER;
+        crc.reset();
+        crc.update(frame.array(), FRAME_HEADER, payloadLength);
+        frame.putInt(0, payloadLength);
+        frame.putInt(4, (int) crc.getValue());
+        frame.flip();
+        while (frame.hasRemaining()) {
+            channel.write(frame);
+        }
+        segmentBytes += FRAME_HEADER + payloadLength;
+        appendedFrames++;
+    }
+
+    /**
+     * Fsyncs everything appended so far (waits for the disk).
+     * @throws IOException If the fsync fails
+     */
+    public void sync() throws IOException {
+        long frames = appendedFrames;
+        segment.force(false);
+        syncedFrames = frames;
+    }
+
+    /**
+     * Seals the current segment (fsync, once per segment) and compacts the sealed segments into a new
+     * snapshot in the background. Call from the appending thread.
+     *
+     * @return Future that completes when a compaction covering this segment is done
+     * @throws IOException If the segment cannot be fsynced or the next one cannot be created
+     */
+    public Future<?> compact() throws IOException {
+        long frames = appendedFrames;
+        long sealing = segmentSeq;
+        rollSegment();
+        syncedFrames = frames;
+        sealedSeq = sealing;
+        if (!compactionQueued.compareAndSet(false, true)) {
+            return queuedCompaction; // Not started yet: it will pick up this segment too
+        }
+        queuedCompaction = compactor.submit(() -> {
+            compactionQueued.set(false);
+            try {
+                compactThrough(sealedSeq);
+            } catch (IOException e) {
+                backgroundFailure = e;
+            }
+        });
+        return queuedCompaction;
+    }
+
+    /**
+     * Fsyncs the log and stops the background threads (a running compaction finishes first).
+     * @throws IOException If the final fsync fails
+     */
+    @Override
+    public void close() throws IOException {
+        syncer.shutdown();
+        compactor.shutdown();
+        try {
+            syncer.awaitTermination(1, TimeUnit.MINUTES);
+            compactor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try (FileChannel channel = segment) {
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Gets the number of rows restored from the snapshot and segments when the log was opened.
+     * @return Replayed rows
+     */
+    public int getReplayedRows() {
+        return replayedRows;
+    }
+
+    /**
+     * Gets the number of appended frames not yet known to be on disk.
+     * @return Frames waiting for the next group fsync
+     */
+    public long getUnsyncedFrames() {
+        return appendedFrames - syncedFrames;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    // ------------------------------
+    // Recovery and compaction
+    // ------------------------------
+
+    private void recover(RideHistory target) throws IOException {
+        int before = target.size();
+        long lastSeq = -1;
+        Path snapshot = latestSnapshot();
+        if (snapshot != null) {
+            snapshotSeq = seqOf(snapshot, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+            lastSeq = snapshotSeq;
+            new HistoryBinaryCodec().read(snapshot, target::add);
+        }
+        for (Path file : list(directory, SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+            long seq = seqOf(file, SEGMENT_PREFIX, SEGMENT_SUFFIX);
+            if (seq <= snapshotSeq) {
+                Files.deleteIfExists(file); // Already in the snapshot (crash before the compaction cleaned up)
+                continue;
+            }
+            readSegment(file, target, true);
+            lastSeq = Math.max(lastSeq, seq);
+        }
+        deleteStaleSnapshots(snapshot);
+        syncDirectory();
+        replayedRows = target.size() - before;
+        startSegment(lastSeq + 1); // Never append after a repaired tail
+    }
+
+    /**
+     * Appends the rows of all segments up to lastSeq to the snapshot as snapshot-&lt;lastSeq&gt;, then deletes
+     * the folded files. Only the new segments are decoded. Runs on the compaction thread; only touches sealed files.
+     */
+    private void compactThrough(long lastSeq) throws IOException {
+        RideHistory added = new RideHistory();
+        List<Path> folded = new ArrayList<>();
+        for (Path file : list(directory, SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+            long seq = seqOf(file, SEGMENT_PREFIX, SEGMENT_SUFFIX);
+            if (seq > snapshotSeq && seq <= lastSeq) {
+                readSegment(file, added, false);
+                folded.add(file);
+            }
+        }
+
+        Path oldSnapshot = (snapshotSeq < 0) ? null : snapshotPath(snapshotSeq);
+        Path temp = directory.resolve(SNAPSHOT_PREFIX + "tmp");
+        if (oldSnapshot != null) {
+            new HistoryBinaryCodec().writeAppended(oldSnapshot, added, temp);
+        } else {
+            new HistoryBinaryCodec().write(added, temp);
+        }
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            channel.force(true); // Snapshot contents on disk before it replaces anything
+        }
+        Files.move(temp, snapshotPath(lastSeq), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        syncDirectory(); // The rename is durable before anything it replaces is deleted
+        snapshotSeq = lastSeq;
+        for (Path file : folded) {
+            Files.deleteIfExists(file);
+        }
+        if (oldSnapshot != null) {
+            Files.deleteIfExists(oldSnapshot);
+        }
+        syncDirectory();
+    }
+
+    /**
+     * Reads every complete batch of intact frames of a segment into a history.
+     * @param repair true to cut off a torn or corrupt tail, with the earlier frames of its batch (recovery only)
+     */
+    private static void readSegment(Path file, RideHistory target, boolean repair) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, repair
+                ? new StandardOpenOption[] {StandardOpenOption.READ, StandardOpenOption.WRITE}
+                : new StandardOpenOption[] {StandardOpenOption.READ})) {
+            long size = channel.size();
+            long offset = 0;
+            ByteBuffer header = ByteBuffer.allocate(FRAME_HEADER);
+            ByteBuffer payload = ByteBuffer.allocate(INITIAL_FRAME);
+            CRC32 checksum = new CRC32();
+            RideHistory batch = null; // Rows of a batch whose last frame has not been read yet
+            long batchStart = 0;      // Offset of that batch's first frame
+            while (offset + FRAME_HEADER <= size) {
+                header.clear();
+                readFully(channel, header, offset);
+                int length = header.getInt(0);
+                if (length < 4 || offset + FRAME_HEADER + length > size) {
+                    break; // Torn write
+                }
+                if (payload.capacity() < length) {
+                    payload = ByteBuffer.allocate(Math.max(length, Math.min(payload.capacity() * 2, Integer.MAX_VALUE / 2)));
+                }
+                payload.clear().limit(length);
+                readFully(channel, payload, offset + FRAME_HEADER);
+                checksum.reset();
+                checksum.update(payload.array(), 0, length);
+                if ((int) checksum.getValue() != header.getInt(4)) {
+                    break; // Corrupt frame: nothing after it can be trusted
+                }
+                payload.flip();
+                int rows = payload.getInt();
+                if (rows >= 0 && batch == null) {
+                    decodeRows(payload, rows, target); // Whole batch in one frame
+                } else {
+                    if (batch == null) {
+                        batch = new RideHistory();
+                        batchStart = offset;
+                    }
+                    decodeRows(payload, Math.abs(rows), batch);
+                    if (rows >= 0) {
+                        appendAll(batch, target);
+                        batch = null;
+                    }
+                }
+                offset += FRAME_HEADER + length;
+            }
+            long end = (batch == null) ? offset : batchStart; // An unfinished batch is dropped as a whole
+            if (repair && end < size) {
+                channel.truncate(end);
+                channel.force(true);
+            }
+        }
+    }
+
+    private static void decodeRows(ByteBuffer payload, int rows, RideHistory target) {
+        target.ensureCapacity(target.size() + rows);
+        for (int i = 0; i < rows; i++) {
+            String id = getString(payload);
+            String name = getString(payload);
+            int age = payload.getInt();
+            String visitorType = getString(payload);
+            String visitDate = getString(payload);
+            target.append(id, name, age, visitorType, visitDate);
+        }
+    }
+
+    private static void appendAll(RideHistory batch, RideHistory target) {
+        target.ensureCapacity(target.size() + batch.size());
+        for (int row = 0; row < batch.size(); row++) {
+            target.append(batch.idAt(row), batch.nameAt(row), batch.ageAt(row),
+                    batch.visitorTypeAt(row), batch.visitDateAt(row));
+        }
+    }
+
+    private void syncInBackground() {
+        if (appendedFrames == syncedFrames) {
+            return;
+        }
+        try {
+            sync();
+        } catch (ClosedChannelException e) {
+            // The segment was sealed meanwhile; compact() fsynced it before closing it
+        } catch (IOException e) {
+            backgroundFailure = e;
+        }
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /**
+     * Opens the segment that appends go to. Nothing changes if it cannot be created.
+     */
+    private void startSegment(long seq) throws IOException {
+        FileChannel next = FileChannel.open(segmentPath(seq),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        try {
+            syncDirectory(); // A new segment's frames are only safe once its directory entry is
+            segmentBytes = next.size();
+        } catch (IOException e) {
+            next.close();
+            throw e;
+        }
+        segment = next;
+        segmentSeq = seq;
+    }
+
+    /**
+     * Fsyncs the current segment and switches to the next one. The new segment is opened before the old one
+     * is closed, so if it cannot be created, appends continue in the old segment.
+     */
+    private void rollSegment() throws IOException {
+        FileChannel sealed = segment;
+        sealed.force(false);
+        startSegment(segmentSeq + 1);
+        sealed.close();
+    }
+
+    /**
+     * Fsyncs the log directory, making file creations, renames and deletes in it durable.
+     * Platforms that cannot open a directory (Windows) skip this; they journal those changes themselves.
+     */
+    private void syncDirectory() throws IOException {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(directory, StandardOpenOption.READ);
+        } catch (IOException e) {
+            return;
+        }
+        try (channel) {
+            channel.force(true);
+        }
+    }
+
+    private Path latestSnapshot() throws IOException {
+        Path latest = null;
+        for (Path file : list(directory, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) {
+            if (latest == null || seqOf(file, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)
+                    > seqOf(latest, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) {
+                latest = file;
+            }
+        }
+        return latest;
+    }
+
+    private void deleteStaleSnapshots(Path keep) throws IOException {
+        for (Path file : list(directory, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) {
+            if (!file.equals(keep)) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(directory.resolve(SNAPSHOT_PREFIX + "tmp"));
+    }
+
+    private Path segmentPath(long seq) {
+        return directory.resolve(String.format("%s%016d%s", SEGMENT_PREFIX, seq, SEGMENT_SUFFIX));
+    }
+
+    private Path snapshotPath(long seq) {
+        return directory.resolve(String.format("%s%016d%s", SNAPSHOT_PREFIX, seq, SNAPSHOT_SUFFIX));
+    }
+
+    /**
+     * Lists the files of one kind in sequence order (names are zero-padded, so name order is sequence order).
+     */
+    private static List<Path> list(Path directory, String prefix, String suffix) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, prefix + "*" + suffix)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        Collections.sort(files);
+        return files;
+    }
+
+    private static long seqOf(Path file, String prefix, String suffix) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length()));
+    }
+
+    // ------------------------------
+    // Encoding helpers
+    // ------------------------------
+
+    private void putRow(RideHistory history, int row) {
+        putString(history.idAt(row));
+        putString(history.nameAt(row));
+        frame = ensure(frame, 4);
+        frame.putInt(history.ageAt(row));
+        putString(history.visitorTypeAt(row));
+        putString(history.visitDateAt(row));
+    }
+
+    private void putString(String value) {
+        if (value == null) {
+            frame = ensure(frame, 4);
+            frame.putInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        frame = ensure(frame, 4 + bytes.length);
+        frame.putInt(bytes.length);
+        frame.put(bytes);
+    }
+
+    private static String getString(ByteBuffer payload) {
+        int length = payload.getInt();
+        if (length < 0) {
+            return null;
+        }
+        String value = new String(payload.array(), payload.position(), length, StandardCharsets.UTF_8);
+        payload.position(payload.position() + length);
+        return value;
+    }
+
+    private static ByteBuffer ensure(ByteBuffer buffer, int more) {
+        if (buffer.remaining() >= more) {
+            return buffer;
+        }
+        long needed = (long) buffer.position() + more;
+        if (needed > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("History row too large for a log frame");
+        }
+        ByteBuffer grown = ByteBuffer.allocate((int) Math.max(needed, Math.min(2L * buffer.capacity(), Integer.MAX_VALUE - 8)));
+        buffer.flip();
+        grown.put(buffer);
+        return grown;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of log segment");
+            }
+        }
+    }
+}
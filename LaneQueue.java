@@ -0,0 +1,312 @@
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Class LaneQueue: Multi-lane waiting line (e.g. fast pass, accessibility, standard) for a Ride.
+ * Each lane is its own FIFO queue and serves the visitor types assigned to it; all other types use the
+ * "Standard" lane. Visitors leave through a smooth weighted round-robin over the non-empty lanes:
+ * with weights 3 (Fast Pass) and 1 (Standard), a cycle of 8 seats boards about 6 fast-pass and
+ * 2 standard visitors, interleaved, and no lane starves. offer() and poll() cost O(number of lanes),
+ * independent of how many visitors wait. Iteration follows the exact order in which poll() would
+ * board the visitors now waiting.
+ *
+ * In concurrent mode every lane is an MpscVisitorQueue: any thread may offer(), one operator thread
+ * polls and iterates; otherwise every lane is an ArrayVisitorQueue. Either way each visitor's join time
+ * is kept in its lane entry, so drain() reports it for wait-time metrics.
+ * Lanes should be configured before visitors arrive; lanes added later only receive visitors
+ * enqueued after the call.
+ */
+public class LaneQueue extends AbstractQueue<Visitor> implements WaitingLine {
+    /** Name of the lane for visitor types without a lane of their own. */
+    public static final String DEFAULT_LANE = "Standard";
+
+    /** Largest allowed lane weight. */
+    public static final int MAX_WEIGHT = 1000;
+
+    /**
+     * One lane: its FIFO queue, weight and round-robin credit.
+     */
+    private static final class Lane {
+        final String name;
+        final int weight;
+        final WaitingLine visitors;
+        int credit; // Smooth weighted round-robin state (consumer thread only)
+
+        Lane(String name, int weight, WaitingLine visitors) {
+            this.name = name;
+            this.weight = weight;
+            this.visitors = visitors;
+        }
+    }
+
+    private final boolean concurrent;
+    private volatile Lane[] lanes;                      // Priority lanes in the order added, default lane last
+    private volatile Map<String, Lane> laneByType = Collections.emptyMap(); // Replaced, never modified
+
+    /**
+     * Creates a waiting line with only the default lane (weight 1), which behaves like a plain FIFO queue.
+     * @param concurrent true for lock-free multi-producer lanes
+     */
+    public LaneQueue(boolean concurrent) {
+        this.concurrent = concurrent;
+        this.lanes = new Lane[] {new Lane(DEFAULT_LANE, 1, newLaneQueue())};
+    }
+
+    /**
+     * Adds a lane that serves the given visitor types (a type already served by another lane moves to this one).
+     *
+     * @param laneName Name of the lane (unique, e.g. "Fast Pass")
+     * @param weight Share of seats relative to the other lanes (1 to MAX_WEIGHT; the default lane has 1)
+     * @param visitorTypes Visitor types that queue in this lane (e.g. "VIP")
+     * @throws IllegalArgumentException If the name is taken or the weight is out of range
+     */
+    public synchronized void addLane(String laneName, int weight, Collection<String> visitorTypes) {
+        if (weight < 1 || weight > MAX_WEIGHT) {
+            throw new IllegalArgumentException("Lane weight must be between 1 and " + MAX_WEIGHT);
+        }
+        for (Lane lane : lanes) {
+            if (lane.name.equals(laneName)) {
+                throw new IllegalArgumentException("Waiting line already has a lane named " + laneName);
+            }
+        }
+        Lane added = new Lane(laneName, weight, newLaneQueue());
+        Lane[] current = lanes;
+        Lane[] grown = new Lane[current.length + 1];
+        System.arraycopy(current, 0, grown, 0, current.length - 1);
+        grown[current.length - 1] = added;                  // Ties go to earlier lanes, so priority lanes
+        grown[current.length] = current[current.length - 1]; // come first and the default lane stays last
+
+        Map<String, Lane> types = new HashMap<>(laneByType);
+        for (String visitorType : visitorTypes) {
+            types.put(visitorType, added);
+        }
+        lanes = grown;
+        laneByType = types;
+    }
+
+    /**
+     * Gets the lane names in round-robin order (default lane last).
+     * @return Lane names
+     */
+    public List<String> getLaneNames() {
+        List<String> names = new ArrayList<>();
+        for (Lane lane : lanes) {
+            names.add(lane.name);
+        }
+        return names;
+    }
+
+    /**
+     * Gets the lane a visitor type queues in.
+     * @param visitorType Visitor type
+     * @return Lane name (DEFAULT_LANE for types without a lane)
+     */
+    public String laneOf(String visitorType) {
+        return laneFor(visitorType).name;
+    }
+
+    /**
+     * Gets the number of visitors waiting in one lane.
+     * @param laneName Lane name
+     * @return Visitors waiting; 0 if there is no such lane
+     */
+    public int laneSize(String laneName) {
+        for (Lane lane : lanes) {
+            if (lane.name.equals(laneName)) {
+                return lane.visitors.size();
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Adds a visitor to the end of the lane for its visitor type.
+     * @param visitor The Visitor to add (not null)
+     * @return always true (lanes are unbounded)
+     */
+    @Override
+    public boolean offer(Visitor visitor) {
+        if (visitor == null) {
+            throw new NullPointerException("visitor");
+        }
+        return laneFor(visitor.getVisitorType()).visitors.offer(visitor);
+    }
+
+    @Override
+    public boolean offer(Visitor visitor, long enqueuedAtNanos) {
+        if (visitor == null) {
+            throw new NullPointerException("visitor");
+        }
+        return laneFor(visitor.getVisitorType()).visitors.offer(visitor, enqueuedAtNanos);
+    }
+
+    /**
+     * Removes and returns the next visitor to board (consumer thread only).
+     * @return Next Visitor in boarding order; null if every lane is empty
+     */
+    @Override
+    public Visitor poll() {
+        Lane lane = nextLane();
+        return (lane == null) ? null : lane.visitors.poll();
+    }
+
+    /**
+     * Removes up to max visitors in boarding order, the same order as repeated poll() (consumer thread only).
+     */
+    @Override
+    public int drain(ObjLongConsumer<Visitor> action, int max) {
+        int count = 0;
+        Lane lane;
+        while (count < max && (lane = nextLane()) != null) {
+            count += lane.visitors.drain(action, 1);
+        }
+        return count;
+    }
+
+    /**
+     * Returns the next visitor to board without removing it (consumer thread only).
+     * @return Next Visitor in boarding order; null if every lane is empty
+     */
+    @Override
+    public Visitor peek() {
+        Lane[] current = lanes;
+        int[] credits = new int[current.length];
+        boolean[] waiting = new boolean[current.length];
+        for (int i = 0; i < current.length; i++) {
+            credits[i] = current[i].credit;
+            waiting[i] = !current[i].visitors.isEmpty();
+        }
+        int chosen = choose(current, credits, waiting);
+        return (chosen < 0) ? null : current[chosen].visitors.peek();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        for (Lane lane : lanes) {
+            if (!lane.visitors.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (Lane lane : lanes) {
+            size += lane.visitors.size();
+        }
+        return size;
+    }
+
+    /**
+     * Iterates over the waiting visitors in boarding order (consumer thread only; remove() not supported).
+     * @return Iterator in the order poll() would return the visitors
+     */
+    @Override
+    public Iterator<Visitor> iterator() {
+        Lane[] current = lanes;
+        int[] credits = new int[current.length];
+        List<Iterator<Visitor>> laneIterators = new ArrayList<>(current.length);
+        for (int i = 0; i < current.length; i++) {
+            credits[i] = current[i].credit;
+            laneIterators.add(current[i].visitors.iterator());
+        }
+        boolean[] waiting = new boolean[current.length];
+
+        return new Iterator<Visitor>() {
+            @Override
+            public boolean hasNext() {
+                for (Iterator<Visitor> laneIterator : laneIterators) {
+                    if (laneIterator.hasNext()) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+
+            @Override
+            public Visitor next() {
+                for (int i = 0; i < current.length; i++) {
+                    waiting[i] = laneIterators.get(i).hasNext();
+                }
+                int chosen = choose(current, credits, waiting);
+                if (chosen < 0) {
+                    throw new NoSuchElementException();
+                }
+                return laneIterators.get(chosen).next();
+            }
+        };
+    }
+
+    public boolean isConcurrent() {
+        return concurrent;
+    }
+
+    private Lane laneFor(String visitorType) {
+        Lane lane = (visitorType == null) ? null : laneByType.get(visitorType);
+        if (lane == null) {
+            Lane[] current = lanes;
+            lane = current[current.length - 1];
+        }
+        return lane;
+    }
+
+    /**
+     * Picks the lane that boards next and updates the round-robin credits.
+     */
+    private Lane nextLane() {
+        Lane[] current = lanes;
+        Lane best = null;
+        int total = 0;
+        for (Lane lane : current) {
+            if (lane.visitors.isEmpty()) {
+                continue;
+            }
+            lane.credit += lane.weight;
+            total += lane.weight;
+            if (best == null || lane.credit > best.credit) {
+                best = lane;
+            }
+        }
+        if (best != null) {
+            best.credit -= total;
+        }
+        return best;
+    }
+
+    /**
+     * Same selection as nextLane() on copied credits, for peek() and iteration.
+     * @return Index of the chosen lane; -1 if no lane is waiting
+     */
+    private static int choose(Lane[] lanes, int[] credits, boolean[] waiting) {
+        int best = -1;
+        int total = 0;
+        for (int i = 0; i < lanes.length; i++) {
+            if (!waiting[i]) {
+                continue;
+            }
+            credits[i] += lanes[i].weight;
+            total += lanes[i].weight;
+            if (best < 0 || credits[i] > credits[best]) {
+                best = i;
+            }
+        }
+        if (best >= 0) {
+            credits[best] -= total;
+        }
+        return best;
+    }
+
+    private WaitingLine newLaneQueue() {
+        return concurrent ? new MpscVisitorQueue() : new ArrayVisitorQueue();
+    }
+}
@@ -0,0 +1,131 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Class LatencyHistogram: Single-writer histogram of non-negative long values (e.g. nanoseconds), in the style of HdrHistogram.
+ * Values below 128 are counted exactly; larger values fall into log-linear buckets of 64 sub-buckets per power of two,
+ * so every recorded value is kept with under 1.6% relative error over the whole long range, in a fixed 3776-slot array.
+ * record() must only be called by one thread at a time (e.g. a ride's operator thread): it uses ordered
+ * stores instead of atomic read-modify-writes, so it costs a few plain memory operations.
+ * snapshot() may be called from any thread and copies the counts without stopping the writer.
+ */
+public class LatencyHistogram {
+    private static final int EXACT_LIMIT = 128;   // Values 0..127 get their own slot
+    private static final int SUB_BUCKETS = 64;    // Slots per power of two above EXACT_LIMIT
+    private static final int SLOTS = EXACT_LIMIT + (Long.SIZE - 7) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(SLOTS);
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records one value (single writer only). Negative values are recorded as 0.
+     * @param value Value to record
+     */
+    public void record(long value) {
+        long v = Math.max(value, 0);
+        int slot = slotOf(v);
+        counts.lazySet(slot, counts.get(slot) + 1);
+        sum.lazySet(sum.get() + v);
+        if (v > max.get()) {
+            max.lazySet(v);
+        }
+    }
+
+    /**
+     * Copies the current counts into an immutable snapshot.
+     * @return Snapshot of this histogram
+     */
+    public Snapshot snapshot() {
+        long[] copy = new long[SLOTS];
+        long total = 0;
+        for (int i = 0; i < SLOTS; i++) {
+            copy[i] = counts.get(i);
+            total += copy[i];
+        }
+        return new Snapshot(copy, total, sum.get(), max.get());
+    }
+
+    static int slotOf(long value) {
+        if (value < EXACT_LIMIT) {
+            return (int) value;
+        }
+        int shift = (63 - Long.numberOfLeadingZeros(value)) - 6; // ≥1: keeps the top 7 bits
+        int sub = (int) (value >>> shift);                       // 64..127
+        return EXACT_LIMIT + (shift - 1) * SUB_BUCKETS + (sub - SUB_BUCKETS);
+    }
+
+    /**
+     * Largest value that falls into a slot (the value reported for percentiles).
+     */
+    static long highestValueOf(int slot) {
+        if (slot < EXACT_LIMIT) {
+            return slot;
+        }
+        int shift = (slot - EXACT_LIMIT) / SUB_BUCKETS + 1;
+        long sub = (slot - EXACT_LIMIT) % SUB_BUCKETS + SUB_BUCKETS;
+        long high = ((sub + 1) << shift) - 1;
+        return (high < 0) ? Long.MAX_VALUE : high;
+    }
+
+    /**
+     * Immutable copy of a LatencyHistogram at one point in time.
+     */
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        Snapshot(long[] counts, long count, long sum, long max) {
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        /**
+         * Gets the number of recorded values.
+         * @return Value count
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * Gets the largest recorded value (exact).
+         * @return Maximum; 0 if empty
+         */
+        public long getMax() {
+            return max;
+        }
+
+        /**
+         * Gets the mean of the recorded values (exact).
+         * @return Mean; 0 if empty
+         */
+        public double getMean() {
+            return (count == 0) ? 0 : (double) sum / count;
+        }
+
+        /**
+         * Gets a percentile, e.g. 99.0 for p99 (within the histogram's precision, never above the maximum).
+         * @param percentile Percentile between 0 and 100
+         * @return Value at that percentile; 0 if empty
+         */
+        public long getPercentile(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(Math.min(Math.max(percentile, 0), 100) / 100 * count));
+            long seen = 0;
+            for (int slot = 0; slot < counts.length; slot++) {
+                seen += counts[slot];
+                if (seen >= rank) {
+                    return Math.min(highestValueOf(slot), max);
+                }
+            }
+            return max;
+        }
+    }
+}
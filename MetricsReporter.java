@@ -0,0 +1,108 @@
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Class MetricsReporter: Periodically dumps the metrics snapshot of every ride, as text lines or JSON lines.
+ * Snapshots are taken on the reporter's own daemon thread, so the rides' hot paths only pay for their
+ * lock-free counters. Works for single rides as well as a running Park (pass park::getRides so rides
+ * added later are reported too).
+ */
+public class MetricsReporter implements AutoCloseable {
+
+    /**
+     * Output format of a dump.
+     */
+    public enum Format {
+        /** One "[METRICS] ..." line per ride (times in milliseconds). */
+        TEXT,
+        /** One JSON object per ride and line (times in nanoseconds). */
+        JSON
+    }
+
+    private final Supplier<? extends Collection<Ride>> rides;
+    private final Duration period;
+    private final Format format;
+    private final PrintStream out;
+    private ScheduledExecutorService scheduler; // Guarded by this; null until start()
+
+    /**
+     * Creates a reporter for a fixed set of rides that prints to System.out.
+     *
+     * @param rides Rides to report
+     * @param period Time between dumps
+     * @param format Output format
+     */
+    public MetricsReporter(Collection<Ride> rides, Duration period, Format format) {
+        this(() -> rides, period, format, System.out);
+    }
+
+    /**
+     * Creates a reporter.
+     *
+     * @param rides Supplies the rides to report at each dump (e.g. park::getRides)
+     * @param period Time between dumps (> 0)
+     * @param format Output format
+     * @param out Where dumps are printed
+     * @throws IllegalArgumentException If the period is not positive
+     */
+    public MetricsReporter(Supplier<? extends Collection<Ride>> rides, Duration period, Format format, PrintStream out) {
+        if (period == null || period.isZero() || period.isNegative()) {
+            throw new IllegalArgumentException("Report period must be positive");
+        }
+        this.rides = rides;
+        this.period = period;
+        this.format = (format == null) ? Format.TEXT : format;
+        this.out = out;
+    }
+
+    /**
+     * Starts dumping every period (first dump after one period). Does nothing if already started.
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ride-metrics-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long periodNanos = period.toNanos();
+        scheduler.scheduleAtFixedRate(this::dumpNow, periodNanos, periodNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Dumps the current metrics of every ride right away (on the calling thread).
+     */
+    public void dumpNow() {
+        StringBuilder dump = new StringBuilder();
+        for (Ride ride : rides.get()) {
+            RideMetrics.Snapshot snapshot = ride.getMetricsSnapshot();
+            dump.append((format == Format.JSON) ? snapshot.toJson() : snapshot.toText()).append(System.lineSeparator());
+        }
+        out.print(dump); // One write per dump keeps lines of different dumps from interleaving
+        out.flush();
+    }
+
+    /**
+     * Stops the periodic dumps (a dump in progress finishes first).
+     */
+    @Override
+    public synchronized void close() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        scheduler = null;
+    }
+}
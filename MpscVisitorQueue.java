@@ -0,0 +1,207 @@
+import java.util.AbstractQueue;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Class MpscVisitorQueue: Lock-free multi-producer / single-consumer FIFO queue for a ride's waiting line.
+ * Any number of threads (e.g. turnstile scanners) may offer() at the same time: each offer is one
+ * atomic swap of the tail, with no locks. Only one thread at a time (the ride operator) may take
+ * visitors out with poll(), drain(), peek() or iterate.
+ * A visitor whose offer() is still in progress may briefly not be visible to the consumer yet;
+ * size() and iteration are therefore weakly consistent snapshots. size() is O(1): producers count
+ * offers in a LongAdder (no shared hot counter next to the tail) and the consumer counts removals.
+ * Each node also holds the System.nanoTime() at which its visitor joined, for wait-time metrics.
+ */
+public class MpscVisitorQueue extends AbstractQueue<Visitor> implements WaitingLine {
+
+    /**
+     * Linked node; the consumer's head node is a sentinel whose value was already taken.
+     */
+    private static final class Node {
+        Visitor value;
+        final long enqueuedAtNanos; // Join time of value
+        volatile Node next;
+
+        Node(Visitor value, long enqueuedAtNanos) {
+            this.value = value;
+            this.enqueuedAtNanos = enqueuedAtNanos;
+        }
+    }
+
+    private final AtomicReference<Node> tail; // Last node; producers swap themselves in here
+    private Node head;                        // Sentinel before the first waiting visitor (consumer only)
+    private final LongAdder offered = new LongAdder(); // Visitors ever offered (any thread)
+    private volatile long taken;                       // Visitors ever removed (written by the consumer only)
+
+    /**
+     * Creates an empty queue.
+     */
+    public MpscVisitorQueue() {
+        Node sentinel = new Node(null, 0);
+        head = sentinel;
+        tail = new AtomicReference<>(sentinel);
+    }
+
+    /**
+     * Adds a visitor to the end of the line (safe from any thread, lock-free).
+     * @param visitor The Visitor to add (not null)
+     * @return always true (the queue is unbounded)
+     */
+    @Override
+    public boolean offer(Visitor visitor) {
+        return offer(visitor, System.nanoTime());
+    }
+
+    @Override
+    public boolean offer(Visitor visitor, long enqueuedAtNanos) {
+        if (visitor == null) {
+            throw new NullPointerException("visitor");
+        }
+        Node node = new Node(visitor, enqueuedAtNanos);
+        offered.increment();                  // Before publishing, so size() never counts fewer than are visible
+        Node previous = tail.getAndSet(node); // Claims the place in line
+        previous.next = node;                 // Publishes it to the consumer
+        return true;
+    }
+
+    /**
+     * Adds a group of visitors to the end of the line in one atomic swap (safe from any thread, lock-free).
+     * The group stays together: no other producer's visitor can land between its members.
+     *
+     * @param visitors Visitors to add, in order (no nulls)
+     */
+    public void offerAll(List<Visitor> visitors) {
+        offerAll(visitors, System.nanoTime());
+    }
+
+    /**
+     * Adds a group of visitors in one atomic swap, all with the same join time (see offerAll(List)).
+     *
+     * @param visitors Visitors to add, in order (no nulls)
+     * @param enqueuedAtNanos Join time of the group on the System.nanoTime() scale
+     */
+    void offerAll(List<Visitor> visitors, long enqueuedAtNanos) {
+        if (visitors.isEmpty()) {
+            return;
+        }
+        Node first = null;
+        Node last = null;
+        for (Visitor visitor : visitors) {
+            if (visitor == null) {
+                throw new NullPointerException("visitor");
+            }
+            Node node = new Node(visitor, enqueuedAtNanos);
+            if (first == null) {
+                first = node;
+            } else {
+                last.next = node; // Private until the chain is published below
+            }
+            last = node;
+        }
+        offered.add(visitors.size());
+        Node previous = tail.getAndSet(last);
+        previous.next = first;
+    }
+
+    /**
+     * Removes and returns the first visitor (consumer thread only).
+     * @return The first Visitor; null if the line is empty
+     */
+    @Override
+    public Visitor poll() {
+        Node next = head.next;
+        if (next == null) {
+            return null;
+        }
+        Visitor visitor = next.value;
+        next.value = null; // next becomes the new sentinel
+        head = next;
+        taken++;
+        return visitor;
+    }
+
+    /**
+     * Returns the first visitor without removing it (consumer thread only).
+     * @return The first Visitor; null if the line is empty
+     */
+    @Override
+    public Visitor peek() {
+        Node next = head.next;
+        return (next == null) ? null : next.value;
+    }
+
+    /**
+     * Removes up to max visitors in one pass and hands each to the action, in line order (consumer thread only).
+     *
+     * @param action Receives each removed Visitor
+     * @param max Most visitors to remove
+     * @return Number of visitors removed
+     */
+    public int drain(Consumer<Visitor> action, int max) {
+        return drain((visitor, enqueuedAtNanos) -> action.accept(visitor), max);
+    }
+
+    @Override
+    public int drain(ObjLongConsumer<Visitor> action, int max) {
+        int count = 0;
+        Node current = head;
+        while (count < max) {
+            Node next = current.next;
+            if (next == null) {
+                break;
+            }
+            action.accept(next.value, next.enqueuedAtNanos);
+            next.value = null;
+            current = next;
+            count++;
+        }
+        head = current;
+        taken += count;
+        return count;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return head.next == null;
+    }
+
+    /**
+     * Gets the number of waiting visitors from the offer and removal counters (O(1), approximate while
+     * producers are offering: an offer in progress may already be counted).
+     */
+    @Override
+    public int size() {
+        long waiting = offered.sum() - taken;
+        return (int) Math.max(0, Math.min(Integer.MAX_VALUE, waiting));
+    }
+
+    /**
+     * Iterates over the waiting visitors in line order (consumer thread only; removal not supported).
+     */
+    @Override
+    public Iterator<Visitor> iterator() {
+        return new Iterator<Visitor>() {
+            private Node next = head.next;
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Visitor next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                Visitor visitor = next.value;
+                next = next.next;
+                return visitor;
+            }
+        };
+    }
+}
@@ -0,0 +1,340 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Class Park: Engine that owns many Rides and runs their cycles concurrently on a shared thread pool.
+ * Each ride repeats runOneCycle() at its own interval: its configured cycle duration plus boarding
+ * time for maxRider visitors. A ride's cycles never overlap each other, and rides share no locks:
+ * each ride only touches its own (lock-free) waiting line and history, so hundreds of rides scale
+ * with the number of cores. Rides must be created in concurrent mode so that any thread may
+ * add visitors to their queues while the park runs.
+ * History of a ride should only be read after close() (or from inside the ride's own cycle).
+ */
+public class Park implements AutoCloseable {
+    private final String parkName;
+    private final ScheduledThreadPoolExecutor scheduler;
+    private final Map<String, RideSlot> rides = new LinkedHashMap<>(); // Guarded by this
+    private VisitorRegistry visitorRegistry; // Shared by all ride histories; null unless shareVisitorRegistry() was called
+    private Duration boardingTimePerRider = Duration.ZERO;
+    private boolean running;
+    private boolean closed;
+
+    /**
+     * A ride managed by the park, with its cycle settings and counters.
+     */
+    private static final class RideSlot {
+        final Ride ride;
+        final Duration cycleDuration;
+        final AtomicLong cyclesRun = new AtomicLong();   // Cycles that moved visitors
+        final AtomicLong idleTicks = new AtomicLong();   // Ticks skipped because nobody was waiting
+        volatile RuntimeException lastFailure;
+        ScheduledFuture<?> future;
+
+        RideSlot(Ride ride, Duration cycleDuration) {
+            this.ride = ride;
+            this.cycleDuration = cycleDuration;
+        }
+    }
+
+    /**
+     * Creates a park with one scheduler thread per available core.
+     * @param parkName Name of the park
+     */
+    public Park(String parkName) {
+        this(parkName, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a park with a fixed number of scheduler threads.
+     *
+     * @param parkName Name of the park
+     * @param threads Threads that run ride cycles (≥1)
+     */
+    public Park(String parkName, int threads) {
+        this.parkName = parkName;
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadFactory factory = runnable -> {
+            Thread thread = new Thread(runnable, parkName + "-rides-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        this.scheduler = new ScheduledThreadPoolExecutor(Math.max(threads, 1), factory);
+        this.scheduler.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Sets the extra time each boarding visitor adds to a cycle (default: zero).
+     * Affects rides started after the call.
+     *
+     * @param boardingTimePerRider Boarding time per rider
+     */
+    public synchronized void setBoardingTimePerRider(Duration boardingTimePerRider) {
+        this.boardingTimePerRider = (boardingTimePerRider == null || boardingTimePerRider.isNegative())
+                ? Duration.ZERO : boardingTimePerRider;
+    }
+
+    /**
+     * Adds a ride to the park. If the park is already running, the ride starts cycling right away.
+     *
+     * @param ride Ride to add (must be in concurrent mode; names must be unique)
+     * @param cycleDuration Time one ride cycle takes, excluding boarding
+     * @throws IllegalArgumentException If the ride is not concurrent, the name is taken, or the duration is not positive
+     * @throws IllegalStateException If the park was closed
+     */
+    public synchronized void addRide(Ride ride, Duration cycleDuration) {
+        if (closed) {
+            throw new IllegalStateException("Park " + parkName + " is closed");
+        }
+        if (!ride.isConcurrent()) {
+            throw new IllegalArgumentException("Ride " + ride.getRideName() + " must be created in concurrent mode");
+        }
+        if (cycleDuration == null || cycleDuration.isZero() || cycleDuration.isNegative()) {
+            throw new IllegalArgumentException("Cycle duration must be positive");
+        }
+        if (rides.containsKey(ride.getRideName())) {
+            throw new IllegalArgumentException("Park already has a ride named " + ride.getRideName());
+        }
+        if (visitorRegistry != null) {
+            ride.setVisitorRegistry(visitorRegistry);
+        }
+        RideSlot slot = new RideSlot(ride, cycleDuration);
+        rides.put(ride.getRideName(), slot);
+        if (running) {
+            schedule(slot);
+        }
+    }
+
+    /**
+     * Gets the time between two cycles of a ride: cycle duration + boarding time × maxRider.
+     *
+     * @param rideName Name of the ride
+     * @return Cycle interval; null if there is no such ride
+     */
+    public synchronized Duration getCycleInterval(String rideName) {
+        RideSlot slot = rides.get(rideName);
+        return (slot == null) ? null : intervalOf(slot);
+    }
+
+    /**
+     * Starts cycling all rides. Does nothing if already running.
+     * @throws IllegalStateException If the park was closed
+     */
+    public synchronized void start() {
+        if (closed) {
+            throw new IllegalStateException("Park " + parkName + " is closed");
+        }
+        if (running) {
+            return;
+        }
+        running = true;
+        for (RideSlot slot : rides.values()) {
+            schedule(slot);
+        }
+    }
+
+    /**
+     * Stops scheduling cycles, waits for running cycles to finish and shuts the threads down.
+     * Visitors still waiting stay in the ride queues.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            running = false;
+            for (RideSlot slot : rides.values()) {
+                if (slot.future != null) {
+                    slot.future.cancel(false);
+                }
+            }
+        }
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(30, TimeUnit.SECONDS)) {
+                scheduler.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            scheduler.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Opts in to one VisitorRegistry shared by the histories of all rides in this park (current and added later),
+     * so a visitor who rides many rides is stored with one set of Strings. Off by default: every history
+     * append then goes through the one shared registry, which adds cross-ride contention, and the registry
+     * keeps every visitor until the park is discarded. Call it before start(); calling it again returns the
+     * same registry.
+     *
+     * @return The park's VisitorRegistry
+     */
+    public synchronized VisitorRegistry shareVisitorRegistry() {
+        if (visitorRegistry == null) {
+            visitorRegistry = new VisitorRegistry();
+            for (RideSlot slot : rides.values()) {
+                slot.ride.setVisitorRegistry(visitorRegistry);
+            }
+        }
+        return visitorRegistry;
+    }
+
+    /**
+     * Gets the visitor registry shared by the histories of all rides in this park.
+     * @return The park's VisitorRegistry; null if shareVisitorRegistry() was never called
+     */
+    public synchronized VisitorRegistry getVisitorRegistry() {
+        return visitorRegistry;
+    }
+
+    /**
+     * Exports the history of every ride into partition files plus a manifest, written in parallel
+     * (one directory per ride; see HistoryShards). The park must not be running.
+     *
+     * @param directory Export directory
+     * @param partitioning Split by visit date or by visitor-ID hash
+     * @param hashShards Files per ride for VISITOR_ID_HASH (ignored for VISIT_DATE)
+     * @return Total rows, bytes and elapsed time
+     * @throws IOException If a file cannot be written
+     * @throws IllegalStateException If the park is running
+     */
+    public synchronized HistoryExportResult exportHistory(Path directory, HistoryShards.Partitioning partitioning,
+                                                          int hashShards) throws IOException {
+        checkNotRunning();
+        Map<String, RideHistory> histories = new LinkedHashMap<>();
+        for (RideSlot slot : rides.values()) {
+            histories.put(slot.ride.getRideName(), slot.ride.historyStore());
+        }
+        return new HistoryShards().export(histories, directory, partitioning, hashShards);
+    }
+
+    /**
+     * Imports a sharded export into the rides of this park with the same names, all shards in parallel.
+     * Rides of the export that the park does not have are skipped. The park must not be running.
+     *
+     * @param directory Export directory (with manifest.tsv)
+     * @return Import counts per ride name
+     * @throws IOException If the manifest or a shard cannot be read
+     * @throws IllegalStateException If the park is running
+     */
+    public synchronized Map<String, HistoryImportResult> importHistory(Path directory) throws IOException {
+        checkNotRunning();
+        Map<String, Predicate<Visitor>> sinks = new LinkedHashMap<>();
+        Map<String, Integer> firstRows = new LinkedHashMap<>();
+        for (RideSlot slot : rides.values()) {
+            sinks.put(slot.ride.getRideName(), slot.ride.historyImporter());
+            firstRows.put(slot.ride.getRideName(), slot.ride.historyStore().size());
+        }
+        Map<String, HistoryImportResult> results = new HistoryShards().importAll(directory, sinks);
+        for (Map.Entry<String, Integer> entry : firstRows.entrySet()) {
+            rides.get(entry.getKey()).ride.logImportedHistory(entry.getValue());
+        }
+        return results;
+    }
+
+    private void checkNotRunning() {
+        if (running) {
+            throw new IllegalStateException("Park " + parkName + " is running; close it before exporting or importing history");
+        }
+    }
+
+    /**
+     * Gets a ride by name.
+     * @param rideName Name of the ride
+     * @return The Ride; null if there is none
+     */
+    public synchronized Ride getRide(String rideName) {
+        RideSlot slot = rides.get(rideName);
+        return (slot == null) ? null : slot.ride;
+    }
+
+    /**
+     * Gets all rides in the order they were added.
+     * @return Copy of the ride list
+     */
+    public synchronized Collection<Ride> getRides() {
+        List<Ride> list = new ArrayList<>(rides.size());
+        for (RideSlot slot : rides.values()) {
+            list.add(slot.ride);
+        }
+        return list;
+    }
+
+    /**
+     * Gets the number of cycles the park ran for a ride (cycles skipped for an empty queue not included).
+     * @param rideName Name of the ride
+     * @return Cycles run; 0 if there is no such ride
+     */
+    public synchronized long getCyclesRun(String rideName) {
+        RideSlot slot = rides.get(rideName);
+        return (slot == null) ? 0 : slot.cyclesRun.get();
+    }
+
+    /**
+     * Gets the number of scheduled cycles skipped for a ride because nobody was waiting.
+     * @param rideName Name of the ride
+     * @return Idle ticks; 0 if there is no such ride
+     */
+    public synchronized long getIdleTicks(String rideName) {
+        RideSlot slot = rides.get(rideName);
+        return (slot == null) ? 0 : slot.idleTicks.get();
+    }
+
+    /**
+     * Gets the last exception thrown by a cycle of a ride (the ride keeps cycling after a failure).
+     * @param rideName Name of the ride
+     * @return Last failure; null if none or no such ride
+     */
+    public synchronized RuntimeException getLastFailure(String rideName) {
+        RideSlot slot = rides.get(rideName);
+        return (slot == null) ? null : slot.lastFailure;
+    }
+
+    public String getParkName() {
+        return parkName;
+    }
+
+    public synchronized boolean isRunning() {
+        return running;
+    }
+
+    private Duration intervalOf(RideSlot slot) {
+        return slot.cycleDuration.plus(boardingTimePerRider.multipliedBy(slot.ride.getMaxRider()));
+    }
+
+    private void schedule(RideSlot slot) {
+        long periodNanos = Math.max(intervalOf(slot).toNanos(), 1);
+        slot.future = scheduler.scheduleAtFixedRate(() -> runCycle(slot), periodNanos, periodNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * One scheduled tick of a ride: runs a cycle if anyone is waiting.
+     * Failures are kept (not thrown) so a bad cycle does not stop the ride's schedule.
+     */
+    private static void runCycle(RideSlot slot) {
+        try {
+            if (slot.ride.getWaitingLine().isEmpty()) {
+                slot.idleTicks.incrementAndGet();
+                return;
+            }
+            slot.ride.runOneCycle();
+            slot.cyclesRun.incrementAndGet();
+        } catch (RuntimeException e) {
+            slot.lastFailure = e;
+        }
+    }
+}
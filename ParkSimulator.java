@@ -0,0 +1,456 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class ParkSimulator: Discrete-event simulation of rides for capacity planning (maxRider, staffing, cycle times).
+ * Drives real Ride objects (with their operators) from a priority-queue event calendar:
+ * visitor arrivals per ride and visitor type follow a configurable ArrivalDistribution, and each
+ * ride runs a cycle every cycleSeconds of simulated time. For every ride it reports queue-length
+ * percentiles (sampled at each cycle), wait-time percentiles and the number of cycles run.
+ * All randomness comes from one seeded generator, so the same setup and seed give the same report.
+ * Rides added to a simulator are switched to SilentEventSink so millions of arrivals run in seconds.
+ * Rides with priority lanes (Ride.addLane()) are supported: wait times are matched per visitor type.
+ * Rides with a queue capacity (Ride.setQueueCapacity()) turn arrivals away when full; those are
+ * reported separately and never counted as waiting.
+ * Visitors already in a ride's queue when run() starts (queued by hand, or left over from an earlier run)
+ * are treated as having arrived at time 0: they board and are timed like the others but are not arrivals.
+ * Every run() starts from fresh statistics, so a simulator can be run again (e.g. for the next day).
+ */
+public class ParkSimulator {
+
+    /**
+     * Time between consecutive arrivals of one visitor stream.
+     */
+    public interface ArrivalDistribution {
+        /**
+         * Draws the gap until the next arrival.
+         *
+         * @param random Seeded generator of the simulation
+         * @param nowSeconds Current simulated time (allows time-of-day patterns)
+         * @return Seconds until the next arrival (> 0)
+         */
+        double nextGapSeconds(SplittableRandom random, double nowSeconds);
+
+        /**
+         * Poisson arrivals (exponential gaps) at a constant rate.
+         * @param arrivalsPerHour Mean arrivals per hour
+         * @return The distribution
+         */
+        static ArrivalDistribution poisson(double arrivalsPerHour) {
+            double meanGap = 3600.0 / arrivalsPerHour;
+            return (random, now) -> -meanGap * Math.log(1.0 - random.nextDouble());
+        }
+
+        /**
+         * Gaps drawn uniformly between two bounds.
+         * @param minGapSeconds Shortest gap
+         * @param maxGapSeconds Longest gap
+         * @return The distribution
+         */
+        static ArrivalDistribution uniform(double minGapSeconds, double maxGapSeconds) {
+            return (random, now) -> minGapSeconds + (maxGapSeconds - minGapSeconds) * random.nextDouble();
+        }
+
+        /**
+         * One arrival every gapSeconds.
+         * @param gapSeconds Gap between arrivals
+         * @return The distribution
+         */
+        static ArrivalDistribution fixed(double gapSeconds) {
+            return (random, now) -> gapSeconds;
+        }
+    }
+
+    /**
+     * Simulation results for one ride.
+     */
+    public static final class RideReport {
+        public final String rideName;
+        public final long arrivals;
+        public final long initiallyWaiting; // Visitors already queued at time 0
+        public final long riders;
+        public final long cycles;
+        public final long stillWaiting;
+        public final long turnedAway;     // Arrivals refused because the queue was at capacity
+        public final int queueP50, queueP90, queueP99, queueMax;
+        public final double waitMean, waitP50, waitP90, waitP99, waitMax; // Seconds
+
+        RideReport(String rideName, long arrivals, long initiallyWaiting, long riders, long cycles, long stillWaiting,
+                   long turnedAway, int[] queuePercentiles, double waitMean, double[] waitPercentiles) {
+            this.rideName = rideName;
+            this.arrivals = arrivals;
+            this.initiallyWaiting = initiallyWaiting;
+            this.riders = riders;
+            this.cycles = cycles;
+            this.stillWaiting = stillWaiting;
+            this.turnedAway = turnedAway;
+            this.queueP50 = queuePercentiles[0];
+            this.queueP90 = queuePercentiles[1];
+            this.queueP99 = queuePercentiles[2];
+            this.queueMax = queuePercentiles[3];
+            this.waitMean = waitMean;
+            this.waitP50 = waitPercentiles[0];
+            this.waitP90 = waitPercentiles[1];
+            this.waitP99 = waitPercentiles[2];
+            this.waitMax = waitPercentiles[3];
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: arrivals=%d initiallyWaiting=%d riders=%d cycles=%d waiting=%d turnedAway=%d"
+                            + " | queue p50/p90/p99/max=%d/%d/%d/%d | wait min mean=%.1f p50=%.1f p90=%.1f p99=%.1f max=%.1f",
+                    rideName, arrivals, initiallyWaiting, riders, cycles, stillWaiting, turnedAway, queueP50, queueP90, queueP99, queueMax,
+                    waitMean / 60, waitP50 / 60, waitP90 / 60, waitP99 / 60, waitMax / 60);
+        }
+    }
+
+    // ------------------------------
+    // Simulation state
+    // ------------------------------
+
+    private static final int ARRIVAL = 0;
+    private static final int CYCLE = 1;
+
+    /**
+     * Calendar entry; ties in time are broken by creation order so runs are reproducible.
+     */
+    private static final class Event implements Comparable<Event> {
+        final double time;
+        final long sequence;
+        final int kind;
+        final int target; // Stream index for ARRIVAL, ride index for CYCLE
+
+        Event(double time, long sequence, int kind, int target) {
+            this.time = time;
+            this.sequence = sequence;
+            this.kind = kind;
+            this.target = target;
+        }
+
+        @Override
+        public int compareTo(Event other) {
+            int byTime = Double.compare(time, other.time);
+            return (byTime != 0) ? byTime : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    /**
+     * A simulated ride plus the statistics collected for it.
+     */
+    private static final class SimRide {
+        final Ride ride;
+        final double cycleSeconds;
+        // Per-run state, reset by start()
+        Map<String, DoubleRing> arrivalTimes;    // Per visitor type, in line order (FIFO within a lane)
+        int waiting;
+        int initiallyWaiting;
+        DoubleList waits;
+        int[] queueLengthCounts;                 // queueLengthCounts[n] = cycles that found n waiting
+        long queueSamples;
+        long arrivals;
+        long turnedAway;
+        long cyclesBefore;
+
+        SimRide(Ride ride, double cycleSeconds) {
+            this.ride = ride;
+            this.cycleSeconds = cycleSeconds;
+        }
+
+        /**
+         * Clears the statistics of an earlier run and records the visitors already queued as arrivals at time 0.
+         */
+        void start() {
+            arrivalTimes = new HashMap<>();
+            waits = new DoubleList();
+            queueLengthCounts = new int[64];
+            queueSamples = 0;
+            arrivals = 0;
+            turnedAway = 0;
+            waiting = 0;
+            for (Visitor visitor : ride.getWaitingLine()) {
+                arrivalTimes.computeIfAbsent(visitor.getVisitorType(), type -> new DoubleRing()).add(0);
+                waiting++;
+            }
+            initiallyWaiting = waiting;
+            cyclesBefore = ride.getNumOfCycles();
+        }
+
+        void sampleQueueLength(int length) {
+            if (length >= queueLengthCounts.length) {
+                queueLengthCounts = Arrays.copyOf(queueLengthCounts, Math.max(length + 1, queueLengthCounts.length * 2));
+            }
+            queueLengthCounts[length]++;
+            queueSamples++;
+        }
+    }
+
+    /**
+     * A stream of arriving visitors of one type for one ride.
+     */
+    private static final class Stream {
+        final int rideIndex;
+        final String visitorType;
+        final ArrivalDistribution distribution;
+        final int minAge;
+        final int maxAge;
+
+        Stream(int rideIndex, String visitorType, ArrivalDistribution distribution, int minAge, int maxAge) {
+            this.rideIndex = rideIndex;
+            this.visitorType = visitorType;
+            this.distribution = distribution;
+            this.minAge = minAge;
+            this.maxAge = maxAge;
+        }
+    }
+
+    private final long seed;
+    private final List<SimRide> rides = new ArrayList<>();
+    private final Map<String, Integer> rideIndex = new LinkedHashMap<>();
+    private final List<Stream> streams = new ArrayList<>();
+    private String visitDate = "2025-12-01";
+
+    /**
+     * Creates a simulator.
+     * @param seed Seed of the random generator (same seed → same results)
+     */
+    public ParkSimulator(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Sets the visit date given to simulated visitors (default "2025-12-01").
+     * @param visitDate Visit date (format: "yyyy-MM-dd")
+     */
+    public void setVisitDate(String visitDate) {
+        this.visitDate = visitDate;
+    }
+
+    /**
+     * Adds a ride to simulate. The ride runs one cycle every cycleSeconds (idle if nobody waits).
+     *
+     * @param ride Ride to drive (needs an operator, like any ride cycle)
+     * @param cycleSeconds Simulated seconds per cycle (> 0)
+     * @throws IllegalArgumentException If the ride has no operator, the name is taken, or cycleSeconds ≤ 0
+     */
+    public void addRide(Ride ride, double cycleSeconds) {
+        if (ride.getOperator() == null) {
+            throw new IllegalArgumentException("Ride " + ride.getRideName() + " needs an operator to run cycles");
+        }
+        if (!(cycleSeconds > 0)) {
+            throw new IllegalArgumentException("Cycle time must be positive");
+        }
+        if (rideIndex.containsKey(ride.getRideName())) {
+            throw new IllegalArgumentException("Simulator already has a ride named " + ride.getRideName());
+        }
+        ride.setEventSink(SilentEventSink.INSTANCE);
+        rideIndex.put(ride.getRideName(), rides.size());
+        rides.add(new SimRide(ride, cycleSeconds));
+    }
+
+    /**
+     * Adds a stream of arriving visitors of one type to a ride (ages 5-70).
+     *
+     * @param rideName Ride the visitors queue for
+     * @param visitorType Type of the visitors (e.g., "Student")
+     * @param distribution Gaps between arrivals
+     */
+    public void addArrivals(String rideName, String visitorType, ArrivalDistribution distribution) {
+        addArrivals(rideName, visitorType, distribution, 5, 70);
+    }
+
+    /**
+     * Adds a stream of arriving visitors of one type and age range to a ride.
+     *
+     * @param rideName Ride the visitors queue for
+     * @param visitorType Type of the visitors (e.g., "Child")
+     * @param distribution Gaps between arrivals
+     * @param minAge Youngest visitor age
+     * @param maxAge Oldest visitor age
+     * @throws IllegalArgumentException If there is no ride with that name
+     */
+    public void addArrivals(String rideName, String visitorType, ArrivalDistribution distribution, int minAge, int maxAge) {
+        Integer index = rideIndex.get(rideName);
+        if (index == null) {
+            throw new IllegalArgumentException("No ride named " + rideName);
+        }
+        streams.add(new Stream(index, visitorType, distribution, Math.min(minAge, maxAge), Math.max(minAge, maxAge)));
+    }
+
+    /**
+     * Runs the simulation from time 0 for the given simulated duration.
+     * Arrivals stop at the end; visitors still waiting are reported but not counted as riders.
+     * They stay in the ride's queue, so a later run() starts with them waiting.
+     *
+     * @param durationSeconds Simulated seconds (e.g. 12 * 3600 for a park day)
+     * @return One report per ride, in the order the rides were added
+     */
+    public List<RideReport> run(double durationSeconds) {
+        SplittableRandom random = new SplittableRandom(seed);
+        PriorityQueue<Event> calendar = new PriorityQueue<>();
+        long sequence = 0;
+        long visitorNumber = 0;
+
+        for (int r = 0; r < rides.size(); r++) {
+            rides.get(r).start();
+            calendar.add(new Event(rides.get(r).cycleSeconds, sequence++, CYCLE, r));
+        }
+        for (int s = 0; s < streams.size(); s++) {
+            double gap = streams.get(s).distribution.nextGapSeconds(random, 0);
+            calendar.add(new Event(gap, sequence++, ARRIVAL, s));
+        }
+
+        while (!calendar.isEmpty()) {
+            Event event = calendar.poll();
+            if (event.time > durationSeconds) {
+                break;
+            }
+            if (event.kind == ARRIVAL) {
+                Stream stream = streams.get(event.target);
+                SimRide sim = rides.get(stream.rideIndex);
+                int age = stream.minAge + random.nextInt(stream.maxAge - stream.minAge + 1);
+                String id = "S" + (++visitorNumber);
+                sim.arrivals++;
+                if (sim.ride.offerToQueue(new Visitor(id, id, age, stream.visitorType, visitDate), 0, TimeUnit.SECONDS)) {
+                    sim.arrivalTimes.computeIfAbsent(stream.visitorType, type -> new DoubleRing()).add(event.time);
+                    sim.waiting++;
+                } else {
+                    sim.turnedAway++; // Queue at capacity: the visitor never joined the line
+                }
+                double gap = stream.distribution.nextGapSeconds(random, event.time);
+                calendar.add(new Event(event.time + Math.max(gap, 1e-9), sequence++, ARRIVAL, event.target));
+            } else {
+                SimRide sim = rides.get(event.target);
+                sim.sampleQueueLength(sim.waiting);
+                if (sim.waiting > 0) {
+                    RideHistory history = sim.ride.historyStore();
+                    int before = history.size();
+                    sim.ride.runOneCycle();
+                    for (int row = before; row < history.size(); row++) {
+                        // Each type boards in arrival order, whatever the lane mix between types
+                        double arrivedAt = sim.arrivalTimes.get(history.visitorTypeAt(row)).poll();
+                        sim.waits.add(event.time - arrivedAt);
+                        sim.waiting--;
+                    }
+                }
+                calendar.add(new Event(event.time + sim.cycleSeconds, sequence++, CYCLE, event.target));
+            }
+        }
+
+        List<RideReport> reports = new ArrayList<>(rides.size());
+        for (int r = 0; r < rides.size(); r++) {
+            SimRide sim = rides.get(r);
+            double[] waits = sim.waits.toSortedArray();
+            double mean = 0;
+            for (double wait : waits) {
+                mean += wait;
+            }
+            mean = (waits.length == 0) ? 0 : mean / waits.length;
+            reports.add(new RideReport(sim.ride.getRideName(), sim.arrivals, sim.initiallyWaiting, waits.length,
+                    sim.ride.getNumOfCycles() - sim.cyclesBefore, sim.waiting, sim.turnedAway,
+                    queuePercentiles(sim), mean,
+                    new double[] {percentile(waits, 0.50), percentile(waits, 0.90),
+                            percentile(waits, 0.99), percentile(waits, 1.0)}));
+        }
+        return reports;
+    }
+
+    /**
+     * Prints reports in the console style used by the rest of the system.
+     * @param reports Reports returned by run()
+     */
+    public static void printReport(List<RideReport> reports) {
+        System.out.println("\n--- Simulation Report ---");
+        for (RideReport report : reports) {
+            System.out.println(report);
+        }
+    }
+
+    private static int[] queuePercentiles(SimRide sim) {
+        int[] result = new int[4];
+        double[] fractions = {0.50, 0.90, 0.99, 1.0};
+        for (int p = 0; p < fractions.length; p++) {
+            long rank = (long) Math.ceil(fractions[p] * sim.queueSamples);
+            long seen = 0;
+            for (int length = 0; length < sim.queueLengthCounts.length; length++) {
+                seen += sim.queueLengthCounts[length];
+                if (seen >= rank && sim.queueLengthCounts[length] > 0) {
+                    result[p] = length;
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    private static double percentile(double[] sorted, double fraction) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(fraction * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    /**
+     * Growable FIFO ring of doubles (arrival times of waiting visitors).
+     */
+    private static final class DoubleRing {
+        private double[] values = new double[64];
+        private int head;
+        private int size;
+
+        void add(double value) {
+            if (size == values.length) {
+                double[] grown = new double[values.length * 2];
+                for (int i = 0; i < size; i++) {
+                    grown[i] = values[(head + i) % values.length];
+                }
+                values = grown;
+                head = 0;
+            }
+            values[(head + size) % values.length] = value;
+            size++;
+        }
+
+        double poll() {
+            if (size == 0) {
+                throw new IllegalStateException("No arrival time left: boarding and arrivals are out of step");
+            }
+            double value = values[head];
+            head = (head + 1) % values.length;
+            size--;
+            return value;
+        }
+
+        int size() {
+            return size;
+        }
+    }
+
+    /**
+     * Growable list of doubles (wait times).
+     */
+    private static final class DoubleList {
+        private double[] values = new double[1024];
+        private int size;
+
+        void add(double value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        double[] toSortedArray() {
+            double[] sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Class QueueGate: Admission control for a bounded waiting line.
+ * Counts the visitors admitted and not yet dequeued; tryAcquire() admits one if there is room
+ * (one CAS, any thread), release() frees room when visitors leave the line. Only producers that
+ * choose to wait (acquire with a timeout) touch the lock, and release() signals only if someone waits.
+ * An unbounded gate (capacity 0, the default) admits everything without counting.
+ */
+final class QueueGate {
+    private volatile int capacity;                          // 0 = unbounded
+    private final AtomicInteger occupied = new AtomicInteger();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition spaceFreed = lock.newCondition();
+    private final AtomicInteger waiters = new AtomicInteger();
+
+    /**
+     * Sets the capacity. Call while the line is quiet: the count restarts from the current size.
+     *
+     * @param capacity Maximum waiting visitors (0 or less = unbounded)
+     * @param currentSize Visitors waiting right now
+     */
+    void setCapacity(int capacity, int currentSize) {
+        occupied.set(currentSize);
+        this.capacity = Math.max(capacity, 0);
+        signalWaiters();
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Admits one visitor if there is room.
+     * @return true if admitted
+     */
+    boolean tryAcquire() {
+        int limit = capacity;
+        if (limit == 0) {
+            return true;
+        }
+        while (true) {
+            int current = occupied.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (occupied.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Admits as many of a group of visitors as there is room for (one CAS for the whole group).
+     * @param count Visitors asking to join
+     * @return Visitors admitted (0..count)
+     */
+    int tryAcquire(int count) {
+        int limit = capacity;
+        if (limit == 0 || count <= 0) {
+            return Math.max(count, 0);
+        }
+        while (true) {
+            int current = occupied.get();
+            int admitted = Math.min(count, limit - current);
+            if (admitted <= 0) {
+                return 0;
+            }
+            if (occupied.compareAndSet(current, current + admitted)) {
+                return admitted;
+            }
+        }
+    }
+
+    /**
+     * Admits one visitor, waiting up to the timeout for room.
+     *
+     * @param timeout Longest time to wait
+     * @param unit Unit of the timeout
+     * @return true if admitted; false if the line stayed full
+     * @throws InterruptedException If the thread was interrupted while waiting
+     */
+    boolean acquire(long timeout, TimeUnit unit) throws InterruptedException {
+        if (tryAcquire()) {
+            return true;
+        }
+        long remaining = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        waiters.incrementAndGet();
+        try {
+            while (!tryAcquire()) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                remaining = spaceFreed.awaitNanos(remaining);
+            }
+            return true;
+        } finally {
+            waiters.decrementAndGet();
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Admits one visitor even if the line is full (e.g. a redeemed return slot).
+     */
+    void forceAcquire() {
+        if (capacity != 0) {
+            occupied.incrementAndGet();
+        }
+    }
+
+    /**
+     * Frees room for visitors who left the line.
+     * @param count Visitors dequeued
+     */
+    void release(int count) {
+        if (capacity == 0 || count <= 0) {
+            return;
+        }
+        occupied.addAndGet(-count);
+        if (waiters.get() > 0) {
+            signalWaiters();
+        }
+    }
+
+    private void signalWaiters() {
+        lock.lock();
+        try {
+            spaceFreed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
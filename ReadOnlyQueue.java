@@ -0,0 +1,66 @@
+import java.util.AbstractQueue;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.function.Supplier;
+
+/**
+ * Class ReadOnlyQueue: Live, read-only view of a ride's waiting line, handed out by Ride.getWaitingLine()
+ * so callers can inspect the queue (size, peek, iteration, stream) without a copy and without being
+ * able to bypass the ride's capacity, metrics and events. Every change method throws
+ * UnsupportedOperationException. The view always reads the ride's current waiting line, also after
+ * addLane() replaced it. Reads follow the rules of the queue behind it (for a concurrent
+ * waiting line: only from the operator thread).
+ */
+final class ReadOnlyQueue extends AbstractQueue<Visitor> {
+    private final Supplier<Queue<Visitor>> line; // The ride's waiting line at the time of each call
+
+    ReadOnlyQueue(Supplier<Queue<Visitor>> line) {
+        this.line = line;
+    }
+
+    @Override
+    public Iterator<Visitor> iterator() {
+        Iterator<Visitor> iterator = line.get().iterator();
+        return new Iterator<Visitor>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public Visitor next() {
+                return iterator.next();
+            }
+        };
+    }
+
+    @Override
+    public int size() {
+        return line.get().size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return line.get().isEmpty();
+    }
+
+    @Override
+    public Visitor peek() {
+        return line.get().peek();
+    }
+
+    @Override
+    public boolean offer(Visitor visitor) {
+        throw new UnsupportedOperationException("Use Ride.addVisitorToQueue()");
+    }
+
+    @Override
+    public Visitor poll() {
+        throw new UnsupportedOperationException("Use Ride.removeVisitorFromQueue()");
+    }
+
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException("Waiting line is read-only");
+    }
+}
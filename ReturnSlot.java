@@ -0,0 +1,64 @@
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Class ReturnSlot: Virtual-queue reservation: the time window in which a visitor may come back and join
+ * a ride's waiting line (Ride.redeemReturnSlot()). Holds only the visitor's ID, not the Visitor itself.
+ * A slot is single-use: once redeemed, every further redemption is rejected.
+ */
+public final class ReturnSlot {
+    private final String rideName;
+    private final String visitorId;
+    private final Instant returnFrom;
+    private final Instant returnUntil;
+    private final AtomicBoolean redeemed = new AtomicBoolean(); // Set by the first successful redemption
+
+    ReturnSlot(String rideName, String visitorId, Instant returnFrom, Instant returnUntil) {
+        this.rideName = rideName;
+        this.visitorId = visitorId;
+        this.returnFrom = returnFrom;
+        this.returnUntil = returnUntil;
+    }
+
+    /**
+     * Checks whether the slot can be redeemed at a given time.
+     * @param now Time of redemption
+     * @return true if now is within [returnFrom, returnUntil]
+     */
+    public boolean isValidAt(Instant now) {
+        return !now.isBefore(returnFrom) && !now.isAfter(returnUntil);
+    }
+
+    /**
+     * Marks the slot as used, exactly once even if two gates redeem it at the same time.
+     * @return true for the first call; false if the slot was already redeemed
+     */
+    boolean markRedeemed() {
+        return redeemed.compareAndSet(false, true);
+    }
+
+    public boolean isRedeemed() {
+        return redeemed.get();
+    }
+
+    public String getRideName() {
+        return rideName;
+    }
+
+    public String getVisitorId() {
+        return visitorId;
+    }
+
+    public Instant getReturnFrom() {
+        return returnFrom;
+    }
+
+    public Instant getReturnUntil() {
+        return returnUntil;
+    }
+
+    @Override
+    public String toString() {
+        return "ReturnSlot[" + rideName + ", visitor " + visitorId + ", " + returnFrom + " - " + returnUntil + "]";
+    }
+}
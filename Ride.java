@@ -1,16 +1,28 @@
 import java.util.Queue;
-import java.util.LinkedList;
-import java.util.Iterator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
-import java.io.FileWriter;
+import java.util.List;
+import java.util.Iterator;
 import java.io.IOException;
-import java.io.PrintWriter;
-import java.io.BufferedReader;
-import java.io.FileReader;
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 /**
  * Class Ride: Implements RideInterface, representing a theme park ride (e.g., roller coaster, carousel).
- * Manages waiting visitors (Queue), ride history (LinkedList), ride operator (Employee), and ride cycles.
+ * Manages waiting visitors (Queue), ride history (RideHistory, a columnar List), ride operator (Employee), and ride cycles.
  * Meets requirements from Part 1 (attributes), Part 3 (Queue), Part 4A (LinkedList), and Part 5 (ride cycles).
  */
 public class Ride implements RideInterface {
@@ -21,8 +33,30 @@ public class Ride implements RideInterface {
     private Employee operator;        // Employee in charge of the ride (Part 1 requirement)
 
     // Collections for queue and history
-    private Queue<Visitor> waitingLine = new LinkedList<>();    // FIFO queue for waiting visitors (Part 3)
-    private LinkedList<Visitor> rideHistory = new LinkedList<>();// Records of visitors who rode (Part 4A)
+    private WaitingLine waitingLine = new ArrayVisitorQueue();  // FIFO queue for waiting visitors (Part 3); a LaneQueue once lanes are added
+    private boolean concurrent;                                 // true if any thread may add visitors to the queue
+    private RideHistory rideHistory = new RideHistory();        // Records of visitors who rode (Part 4A), columnar with an ID index
+
+    // Where queue, history and cycle events go (console by default, matching the classic output)
+    private RideEventSink eventSink = new ConsoleEventSink();
+
+    // Lock-free runtime counters and histograms (queue traffic, wait times, cycle latency)
+    private RideMetrics metrics = new RideMetrics(false);
+
+    // Write-ahead log of history inserts; null until enableWriteAheadLog()
+    private HistoryWal historyLog;
+    private volatile IOException historyLogFailure; // Last failed write-ahead log append; null if none
+
+    // Followed history CSV (tail import); null unless followRideHistory() was called
+    private HistoryCsvTailer historyTail;
+
+    // Waiting-line capacity (unbounded by default) and optional virtual queue of return slots
+    private final QueueGate queueGate = new QueueGate();
+    private volatile VirtualQueue virtualQueue;
+
+    // Read-only views handed out by getWaitingLine() and getRideHistory()
+    private final Queue<Visitor> waitingLineView = new ReadOnlyQueue(() -> waitingLine);
+    private final List<Visitor> rideHistoryView = Collections.unmodifiableList(rideHistory);
 
     /**
      * Default no-argument constructor: Initializes ride with default values.
@@ -43,29 +77,121 @@ public class Ride implements RideInterface {
         this.operator = operator;
     }
 
+    /**
+     * Parameterized constructor with a choice of waiting line.
+     * In concurrent mode the waiting line is a lock-free MpscVisitorQueue: any number of threads
+     * (e.g. turnstile scanners) may call addVisitorToQueue() at the same time, while one operator
+     * thread calls removeVisitorFromQueue(), printQueue() and runOneCycle(). History methods are
+     * not thread-safe and belong to that operator thread as well.
+     *
+     * @param rideName Name of the ride
+     * @param maxRider Max visitors allowed per cycle (≥1)
+     * @param operator Employee responsible for operating the ride
+     * @param concurrent true for the lock-free multi-producer waiting line; false for the plain single-threaded ArrayVisitorQueue
+     */
+    public Ride(String rideName, int maxRider, Employee operator, boolean concurrent) {
+        this(rideName, maxRider, operator);
+        this.concurrent = concurrent;
+        if (concurrent) {
+            this.waitingLine = new MpscVisitorQueue();
+            this.metrics = new RideMetrics(true); // Enqueues now come from many threads
+        }
+    }
+
     // ------------------------------
     // Implementation of RideInterface: Queue Management (Part 3)
     // ------------------------------
     @Override
     public void addVisitorToQueue(Visitor visitor) {
         if (visitor == null) {
-            System.out.println("[ERROR] Failed to add visitor: Visitor object cannot be null.");
+            publish(RideEvent.Type.QUEUE_ADD_REJECTED, null);
             return;
         }
-        waitingLine.offer(visitor); // Use offer() to avoid exceptions if queue is full (no max here)
-        System.out.printf("[SUCCESS] Visitor '%s' (ID: %s) added to %s's waiting queue.%n",
-                visitor.getName(), visitor.getId(), rideName);
+        if (!queueGate.tryAcquire()) {
+            publishQueueFull(visitor);
+            return;
+        }
+        enqueue(visitor);
+    }
+
+    /**
+     * Adds a group of visitors in order with one admission check and one summary event instead of one
+     * per visitor. In concurrent mode the group is linked into the line in one atomic step, so it stays
+     * together. With a queue capacity, the visitors at the end of the group that do not fit are turned away.
+     */
+    @Override
+    public RideBatchResult addVisitorsToQueue(Collection<? extends Visitor> visitors) {
+        if (visitors == null) {
+            publish(RideEvent.Type.QUEUE_ADD_REJECTED, null);
+            return new RideBatchResult(0, 0, 0, 0);
+        }
+        List<Visitor> group = new ArrayList<>(visitors.size());
+        for (Visitor visitor : visitors) {
+            if (visitor != null) {
+                group.add(visitor);
+            }
+        }
+        int rejected = visitors.size() - group.size();
+        int admitted = queueGate.tryAcquire(group.size());
+        List<Visitor> joining = group.subList(0, admitted);
+
+        long enqueuedAt = System.nanoTime(); // One join time for the whole group
+        if (waitingLine instanceof MpscVisitorQueue) {
+            ((MpscVisitorQueue) waitingLine).offerAll(joining, enqueuedAt);
+        } else {
+            for (Visitor visitor : joining) {
+                waitingLine.offer(visitor, enqueuedAt);
+            }
+        }
+        metrics.recordEnqueues(admitted);
+
+        int turnedAway = group.size() - admitted;
+        if (eventSink.isEnabled()) {
+            eventSink.publish(new RideEvent(RideEvent.Type.QUEUE_BATCH_ADDED, rideName, null, null,
+                    admitted, turnedAway, false));
+        }
+        return new RideBatchResult(admitted, rejected, turnedAway, 0);
+    }
+
+    /**
+     * Adds a visitor to the waiting queue, waiting up to the timeout if the queue is at capacity
+     * (backpressure for producers such as turnstile threads; see setQueueCapacity()).
+     *
+     * @param visitor The Visitor to add
+     * @param timeout Longest time to wait for room (0 = do not wait)
+     * @param unit Unit of the timeout
+     * @return true if the visitor joined the queue; false if it stayed full, the visitor is null or the thread was interrupted
+     */
+    public boolean offerToQueue(Visitor visitor, long timeout, TimeUnit unit) {
+        if (visitor == null) {
+            publish(RideEvent.Type.QUEUE_ADD_REJECTED, null);
+            return false;
+        }
+        boolean admitted;
+        try {
+            admitted = queueGate.acquire(timeout, unit);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // Keep the interrupt for the caller
+            admitted = false;
+        }
+        if (!admitted) {
+            publishQueueFull(visitor);
+            return false;
+        }
+        enqueue(visitor);
+        return true;
     }
 
     @Override
     public Visitor removeVisitorFromQueue() {
         if (waitingLine.isEmpty()) {
-            System.out.printf("[ERROR] Failed to remove visitor: %s's waiting queue is empty.%n", rideName);
+            publish(RideEvent.Type.QUEUE_REMOVE_EMPTY, null);
             return null;
         }
         Visitor removedVisitor = waitingLine.poll(); // Poll() removes and returns front of queue (FIFO)
-        System.out.printf("[SUCCESS] Visitor '%s' (ID: %s) removed from %s's waiting queue.%n",
-                removedVisitor.getName(), removedVisitor.getId(), rideName);
+        metrics.recordRemove();
+        queueGate.release(1);
+        publish(RideEvent.Type.QUEUE_REMOVED, removedVisitor);
         return removedVisitor;
     }
 
@@ -77,11 +203,186 @@ public class Ride implements RideInterface {
             return;
         }
         int index = 1;
-        for (Visitor visitor : waitingLine) { // Iterate through queue (maintains FIFO order)
-            System.out.printf("%d. Name: %s | ID: %s | Type: %s | Visit Date: %s%n",
+        LaneQueue lanes = (waitingLine instanceof LaneQueue) ? (LaneQueue) waitingLine : null;
+        for (Visitor visitor : waitingLine) { // Iterate through queue in boarding order (FIFO, or lane mix with lanes)
+            System.out.printf("%d. Name: %s | ID: %s | Type: %s | Visit Date: %s%s%n",
                     index++, visitor.getName(), visitor.getId(),
-                    visitor.getVisitorType(), visitor.getVisitDate());
+                    visitor.getVisitorType(), visitor.getVisitDate(),
+                    (lanes == null) ? "" : " | Lane: " + lanes.laneOf(visitor.getVisitorType()));
+        }
+    }
+
+    /**
+     * Prints one page of the waiting queue in boarding order, e.g. printQueue(1, 20) for the first 20.
+     * Only the visitors up to the end of the page are visited.
+     *
+     * @param page Page number, starting at 1
+     * @param pageSize Visitors per page (≥ 1)
+     */
+    public void printQueue(int page, int pageSize) {
+        if (page < 1 || pageSize < 1) {
+            System.out.println("[ERROR] Page number and page size must be at least 1.");
+            return;
+        }
+        int waiting = waitingLine.size();
+        System.out.printf("%n--- %s's Waiting Queue (page %d of %d, %d waiting) ---%n",
+                rideName, page, pageCount(waiting, pageSize), waiting);
+        long first = (long) (page - 1) * pageSize;
+        int index = 0;
+        int printed = 0;
+        LaneQueue lanes = (waitingLine instanceof LaneQueue) ? (LaneQueue) waitingLine : null;
+        for (Iterator<Visitor> it = waitingLine.iterator(); it.hasNext() && printed < pageSize; index++) {
+            Visitor visitor = it.next();
+            if (index < first) {
+                continue;
+            }
+            System.out.printf("%d. Name: %s | ID: %s | Type: %s | Visit Date: %s%s%n",
+                    index + 1, visitor.getName(), visitor.getId(),
+                    visitor.getVisitorType(), visitor.getVisitDate(),
+                    (lanes == null) ? "" : " | Lane: " + lanes.laneOf(visitor.getVisitorType()));
+            printed++;
+        }
+        if (printed == 0) {
+            System.out.println("No visitors on this page.");
+        }
+    }
+
+    /**
+     * Adds a priority lane (e.g. fast pass) to the waiting line. Visitors of the given types queue in
+     * this lane; everyone else stays in the "Standard" lane (weight 1). Each cycle fills its seats from
+     * the non-empty lanes in proportion to their weights, so weight 3 against Standard boards about
+     * three lane visitors for every standard one. Visitors already waiting stay in the Standard lane.
+     * Configure lanes before visitors start arriving (in concurrent mode: before other threads enqueue).
+     *
+     * @param laneName Name of the lane (unique)
+     * @param weight Share of seats relative to other lanes (1 to LaneQueue.MAX_WEIGHT)
+     * @param visitorTypes Visitor types that use this lane (e.g. "VIP", "Accessibility")
+     * @throws IllegalArgumentException If the name is taken or the weight is out of range
+     */
+    public void addLane(String laneName, int weight, String... visitorTypes) {
+        if (!(waitingLine instanceof LaneQueue)) {
+            LaneQueue lanes = new LaneQueue(concurrent);
+            // No lanes yet: everyone keeps their FIFO place (and join time) in the Standard lane
+            waitingLine.drain(lanes::offer, Integer.MAX_VALUE);
+            waitingLine = lanes;
+        }
+        ((LaneQueue) waitingLine).addLane(laneName, weight, Arrays.asList(visitorTypes));
+    }
+
+    // ------------------------------
+    // Queue capacity and virtual queue
+    // ------------------------------
+
+    /**
+     * Limits how many visitors may wait. When the queue is full, addVisitorToQueue() turns visitors away
+     * and offerToQueue() waits for a cycle to make room. Set it while no other thread is adding visitors.
+     *
+     * @param capacity Maximum number of waiting visitors (0 = unbounded, the default)
+     */
+    public void setQueueCapacity(int capacity) {
+        queueGate.setCapacity(capacity, waitingLine.size());
+    }
+
+    /**
+     * Gets the waiting-queue capacity.
+     * @return Maximum number of waiting visitors; 0 if unbounded
+     */
+    public int getQueueCapacity() {
+        return queueGate.getCapacity();
+    }
+
+    /**
+     * Turns on the virtual queue: instead of standing in line, visitors can reserve a return slot
+     * (reserveReturnSlot()) and join the queue later with redeemReturnSlot(). Slots are spread at
+     * maxRider visitors per cycle interval, after the visitors already waiting have boarded.
+     *
+     * @param cycleInterval Time between ride cycles (> 0)
+     * @param returnWindow How long a slot stays valid after its start time (≥ 0)
+     * @throws IllegalArgumentException If the interval is not positive or the window is negative
+     */
+    public void enableVirtualQueue(Duration cycleInterval, Duration returnWindow) {
+        enableVirtualQueue(cycleInterval, returnWindow, Clock.systemUTC());
+    }
+
+    /**
+     * Turns on the virtual queue with a given clock (e.g. a fixed clock for simulations).
+     *
+     * @param cycleInterval Time between ride cycles (> 0)
+     * @param returnWindow How long a slot stays valid after its start time (≥ 0)
+     * @param clock Clock used to issue and check slots
+     * @throws IllegalArgumentException If the interval is not positive or the window is negative
+     */
+    public void enableVirtualQueue(Duration cycleInterval, Duration returnWindow, Clock clock) {
+        if (cycleInterval == null || cycleInterval.isZero() || cycleInterval.isNegative()) {
+            throw new IllegalArgumentException("Cycle interval must be positive");
+        }
+        if (returnWindow == null || returnWindow.isNegative()) {
+            throw new IllegalArgumentException("Return window cannot be negative");
+        }
+        virtualQueue = new VirtualQueue(cycleInterval, returnWindow, clock);
+    }
+
+    /**
+     * Turns off the virtual queue. Slots already issued can no longer be redeemed.
+     */
+    public void disableVirtualQueue() {
+        virtualQueue = null;
+    }
+
+    public boolean isVirtualQueue() {
+        return virtualQueue != null;
+    }
+
+    /**
+     * Reserves a return slot for a visitor without adding them to the waiting queue.
+     * Safe to call from any thread.
+     *
+     * @param visitor The Visitor who wants to ride later
+     * @return The return slot; null if the visitor is null
+     * @throws IllegalStateException If the virtual queue is not enabled
+     */
+    public ReturnSlot reserveReturnSlot(Visitor visitor) {
+        VirtualQueue queue = virtualQueue;
+        if (queue == null) {
+            throw new IllegalStateException(rideName + " has no virtual queue");
+        }
+        if (visitor == null) {
+            publish(RideEvent.Type.QUEUE_ADD_REJECTED, null);
+            return null;
+        }
+        ReturnSlot slot = queue.reserve(rideName, visitor.getId(), maxRider, metrics.queueDepth());
+        if (eventSink.isEnabled()) {
+            eventSink.publish(new RideEvent(RideEvent.Type.RETURN_SLOT_ISSUED, rideName,
+                    visitor.getName(), visitor.getId(), slot.getReturnFrom().toEpochMilli(), 0, false));
+        }
+        return slot;
+    }
+
+    /**
+     * Adds a returning visitor to the waiting queue if their slot is valid now. A valid slot is
+     * admitted even when the queue is at capacity, since its seat was reserved in advance.
+     * Each slot can be redeemed only once.
+     *
+     * @param slot Slot from reserveReturnSlot()
+     * @param visitor The Visitor presenting the slot (must match the slot's visitor ID)
+     * @return true if the visitor joined the queue; false if the slot is for another visitor, ride or time,
+     *         or was already redeemed
+     */
+    public boolean redeemReturnSlot(ReturnSlot slot, Visitor visitor) {
+        if (visitor == null) {
+            publish(RideEvent.Type.QUEUE_ADD_REJECTED, null);
+            return false;
+        }
+        VirtualQueue queue = virtualQueue;
+        if (queue == null || slot == null || !slot.getVisitorId().equals(visitor.getId())
+                || !slot.getRideName().equals(rideName) || !slot.isValidAt(queue.now())
+                || !slot.markRedeemed()) {
+            publish(RideEvent.Type.RETURN_SLOT_REJECTED, visitor);
+            return false;
         }
+        queueGate.forceAcquire();
+        enqueue(visitor);
+        return true;
     }
 
     // ------------------------------
@@ -90,30 +391,62 @@ public class Ride implements RideInterface {
     @Override
     public void addVisitorToHistory(Visitor visitor) {
         if (visitor == null) {
-            System.out.println("[ERROR] Failed to add to history: Visitor object cannot be null.");
+            publish(RideEvent.Type.HISTORY_ADD_REJECTED, null);
             return;
         }
-        rideHistory.add(visitor);
-        System.out.printf("[SUCCESS] Visitor '%s' (ID: %s) added to %s's ride history.%n",
-                visitor.getName(), visitor.getId(), rideName);
+        recordHistory(visitor);
+        logHistory(rideHistory.size() - 1);
+        publish(RideEvent.Type.HISTORY_ADDED, visitor);
+    }
+
+    /**
+     * Adds a group of visitors to the history after growing its columns once for the whole group.
+     * The group is one write-ahead log batch and one summary event.
+     */
+    @Override
+    public RideBatchResult addVisitorsToHistory(Collection<? extends Visitor> visitors) {
+        if (visitors == null) {
+            publish(RideEvent.Type.HISTORY_ADD_REJECTED, null);
+            return new RideBatchResult(0, 0, 0, 0);
+        }
+        int firstRow = rideHistory.size();
+        rideHistory.ensureCapacity(firstRow + visitors.size());
+        int rejected = 0;
+        for (Visitor visitor : visitors) {
+            if (visitor == null) {
+                rejected++;
+            } else {
+                recordHistory(visitor);
+            }
+        }
+        logHistory(firstRow);
+        int added = rideHistory.size() - firstRow;
+        if (eventSink.isEnabled()) {
+            eventSink.publish(new RideEvent(RideEvent.Type.HISTORY_BATCH_ADDED, rideName, null, null, added, 0, false));
+        }
+        return new RideBatchResult(added, rejected, 0, 0);
     }
 
     @Override
     public boolean checkVisitorFromHistory(Visitor visitor) {
         if (visitor == null) {
-            System.out.println("[ERROR] Failed to check history: Visitor object cannot be null.");
+            publish(RideEvent.Type.HISTORY_CHECK_REJECTED, null);
             return false;
         }
-        boolean exists = rideHistory.contains(visitor); // Relies on Visitor's overridden equals()
-        System.out.printf("[RESULT] Visitor '%s' (ID: %s) exists in %s's history: %b%n",
-                visitor.getName(), visitor.getId(), rideName, exists);
+        boolean exists = rideHistory.containsId(visitor.getId()); // Same ID-based match as Visitor's equals()/hashCode()
+        if (eventSink.isEnabled()) {
+            eventSink.publish(new RideEvent(RideEvent.Type.HISTORY_CHECKED, rideName,
+                    visitor.getName(), visitor.getId(), 0, 0, exists));
+        }
         return exists;
     }
 
     @Override
     public int numberOfVisitors() {
         int count = rideHistory.size();
-        System.out.printf("[INFO] Total visitors in %s's history: %d%n", rideName, count);
+        if (eventSink.isEnabled()) {
+            eventSink.publish(new RideEvent(RideEvent.Type.HISTORY_COUNTED, rideName, null, null, count, 0, false));
+        }
         return count;
     }
 
@@ -136,8 +469,109 @@ public class Ride implements RideInterface {
     }
 
     /**
-     * Sorts the ride history using the custom VisitorComparator (Part 4B requirement).
-     * Uses Collections.sort() with Comparator interface (Cannot use Comparable).
+     * Prints one page of the ride history in history order, e.g. printRideHistory(3, 100) for riders 201-300.
+     * Only the riders on the page are read from the history.
+     *
+     * @param page Page number, starting at 1
+     * @param pageSize Riders per page (≥ 1)
+     */
+    public void printRideHistory(int page, int pageSize) {
+        List<Visitor> riders = getHistoryPage(page, pageSize);
+        if (riders == null) {
+            System.out.println("[ERROR] Page number and page size must be at least 1.");
+            return;
+        }
+        int total = rideHistory.size();
+        System.out.printf("%n--- %s's Ride History (page %d of %d, %d riders) ---%n",
+                rideName, page, pageCount(total, pageSize), total);
+        if (riders.isEmpty()) {
+            System.out.println("No ride history on this page.");
+            return;
+        }
+        int index = (page - 1) * pageSize + 1;
+        for (Visitor visitor : riders) {
+            System.out.printf("%d. Name: %s | ID: %s | Age: %d | Type: %s%n",
+                    index++, visitor.getName(), visitor.getId(),
+                    visitor.getAge(), visitor.getVisitorType());
+        }
+    }
+
+    // ------------------------------
+    // Paged and lazy history access
+    // ------------------------------
+
+    /**
+     * Gets one page of the ride history in history order (rows (page-1)*pageSize onwards).
+     * Row numbers do not change as riders are added, so a page, once full, keeps its riders
+     * until the history is sorted.
+     *
+     * @param page Page number, starting at 1
+     * @param pageSize Riders per page (≥ 1)
+     * @return Read-only list of the page's riders (empty past the end); null if page or pageSize is below 1
+     */
+    public List<Visitor> getHistoryPage(int page, int pageSize) {
+        if (page < 1 || pageSize < 1) {
+            return null;
+        }
+        long first = (long) (page - 1) * pageSize;
+        if (first >= rideHistory.size()) {
+            return Collections.emptyList();
+        }
+        return new HistoryCursor(rideHistory, (int) first).next(pageSize);
+    }
+
+    /**
+     * Gets the most recent riders, newest first (e.g. the latest 100 for a dashboard).
+     * Reads only those rows, however long the history is.
+     *
+     * @param count Most riders to return
+     * @return Read-only list of up to count riders, newest first
+     */
+    public List<Visitor> getLatestRiders(int count) {
+        int end = rideHistory.size();
+        int start = Math.max(0, end - Math.max(count, 0));
+        List<Visitor> riders = new ArrayList<>(end - start);
+        for (int row = end - 1; row >= start; row--) {
+            riders.add(rideHistory.get(row));
+        }
+        return Collections.unmodifiableList(riders);
+    }
+
+    /**
+     * Opens a cursor at the start of the ride history. Each next(k) returns the following k riders;
+     * riders added later are picked up by later calls (see HistoryCursor).
+     *
+     * @return Cursor at row 0
+     */
+    public HistoryCursor historyCursor() {
+        return new HistoryCursor(rideHistory, 0);
+    }
+
+    /**
+     * Opens a cursor at the current end of the ride history, so next(k) returns only riders who board from now on.
+     * @return Cursor after the last row
+     */
+    public HistoryCursor historyCursorAtEnd() {
+        return new HistoryCursor(rideHistory, rideHistory.size());
+    }
+
+    /**
+     * Streams the ride history lazily in history order: each Visitor is built from the columns only
+     * when the stream consumes it, so e.g. streamHistory().filter(...).limit(10) stops after ten matches.
+     *
+     * @return Stream of riders (fails fast if the history changes while it runs)
+     */
+    public Stream<Visitor> streamHistory() {
+        return rideHistory.stream();
+    }
+
+    private static int pageCount(int items, int pageSize) {
+        return Math.max(1, (int) (((long) items + pageSize - 1) / pageSize));
+    }
+
+    /**
+     * Sorts the ride history using the custom VisitorComparator order (Part 4B requirement).
+     * Uses VisitorComparator.compareKeys() on the history's age and epoch-day columns (Cannot use Comparable).
      */
     public void sortRideHistory() {
         // Check if ride history is empty to avoid unnecessary operation
@@ -146,42 +580,178 @@ public class Ride implements RideInterface {
             return;
         }
 
-        // Sort the LinkedList using VisitorComparator (core logic for Part 4B)
-        Collections.sort(rideHistory, new VisitorComparator());
+        // Sort the history in VisitorComparator order (core logic for Part 4B), comparing primitive column keys
+        rideHistory.sortByAgeAndDate();
 
         // Print success message with clear feedback
         System.out.printf("[SUCCESS] %s's ride history has been sorted by: Age (ascending) → Visit Date (ascending).%n", rideName);
     }
+    /**
+     * Gets a live age/date-ordered view of the ride history (same order as sortRideHistory()).
+     * New riders from runOneCycle(), addVisitorToHistory() and the imports are inserted as they arrive,
+     * so the history itself never needs re-sorting for ordered reports.
+     *
+     * @return Sorted view of the ride history
+     */
+    public SortedHistoryView getSortedHistory() {
+        return rideHistory.sortedView();
+    }
+
+    /**
+     * Finds riders aged minAge..maxAge (inclusive) who visited on the given date,
+     * e.g. findRiders(12, 17, "2025-12-01"), using the sorted view (no full scan).
+     *
+     * @param minAge Lowest age to include
+     * @param maxAge Highest age to include
+     * @param visitDate Visit date (format: "yyyy-MM-dd")
+     * @return Matching riders in age/date order
+     */
+    public List<Visitor> findRiders(int minAge, int maxAge, String visitDate) {
+        return rideHistory.sortedView().findRiders(minAge, maxAge, visitDate);
+    }
+
+    /**
+     * Starts an indexed query of the ride history, e.g. how many Students rode on a date:
+     * queryHistory().visitorType("Student").visitDate("2025-12-01").count().
+     * Indexes by visitor type, age band and visit date are kept current on every history insert
+     * (cycles, addVisitorToHistory() and imports), so queries never scan the whole history.
+     *
+     * @return A new query with no filters
+     */
+    public HistoryQuery queryHistory() {
+        return rideHistory.query();
+    }
+
     // ------------------------------
     // Implementation of RideInterface: Ride Cycle (Part 5)
     // ------------------------------
     @Override
     public void runOneCycle() {
-        System.out.printf("%n--- Starting %s's Ride Cycle ---%n", rideName);
+        publish(RideEvent.Type.CYCLE_STARTED, null);
 
         // Check 1: Ride has an operator
         if (operator == null) {
-            System.out.println("[ERROR] Ride cycle failed: No operator assigned to the ride.");
+            publish(RideEvent.Type.CYCLE_NO_OPERATOR, null);
             return;
         }
         // Check 2: Waiting queue is not empty
         if (waitingLine.isEmpty()) {
-            System.out.println("[ERROR] Ride cycle failed: No visitors in the waiting queue.");
+            publish(RideEvent.Type.CYCLE_EMPTY_QUEUE, null);
             return;
         }
 
         // Transfer up to maxRider visitors from queue to history
-        int transferredCount = 0;
-        while (transferredCount < maxRider && !waitingLine.isEmpty()) {
-            Visitor visitor = waitingLine.poll();
-            rideHistory.add(visitor);
-            transferredCount++;
+        int firstRow = rideHistory.size();
+        int transferredCount = boardCycle();
+        logHistory(firstRow); // The whole run is one log batch
+
+        // Print result
+        if (eventSink.isEnabled()) {
+            eventSink.publish(new RideEvent(RideEvent.Type.CYCLE_COMPLETED, rideName, null, null,
+                    transferredCount, numOfCycles, false));
         }
+    }
 
-        // Update cycle count and print result
+    /**
+     * Runs cycles back to back with one operator check, one history pre-size, one write-ahead log
+     * batch and one summary event for all of them. Stops early once the waiting queue is empty.
+     */
+    @Override
+    public RideBatchResult runCycles(int cycles) {
+        if (cycles <= 0) {
+            return new RideBatchResult(0, 0, 0, 0);
+        }
+        if (operator == null) {
+            publish(RideEvent.Type.CYCLE_NO_OPERATOR, null);
+            return new RideBatchResult(0, 0, 0, 0);
+        }
+        int firstRow = rideHistory.size();
+        long seats = Math.min((long) cycles * maxRider, waitingLine.size());
+        rideHistory.ensureCapacity((int) Math.min(Integer.MAX_VALUE - 8, firstRow + seats));
+
+        int completed = 0;
+        long boarded = 0;
+        while (completed < cycles && !waitingLine.isEmpty()) {
+            boarded += boardCycle();
+            completed++;
+        }
+        logHistory(firstRow);
+
+        if (completed < cycles) {
+            publish(RideEvent.Type.CYCLE_EMPTY_QUEUE, null);
+        }
+        if (eventSink.isEnabled()) {
+            eventSink.publish(new RideEvent(RideEvent.Type.CYCLES_COMPLETED, rideName, null, null,
+                    boarded, numOfCycles, false));
+        }
+        return new RideBatchResult((int) boarded, 0, 0, completed);
+    }
+
+    /**
+     * Boards one cycle: moves up to maxRider visitors from the queue to the history (one batch drain
+     * in concurrent mode), frees their room in the queue and counts the cycle.
+     *
+     * @return Visitors moved
+     */
+    private int boardCycle() {
+        long cycleStart = System.nanoTime(); // Also the boarding time of everyone in this cycle
+        // Boarding order: FIFO or lane mix; the line hands over each visitor's own join time
+        int transferredCount = waitingLine.drain(
+                (visitor, enqueuedAt) -> board(visitor, cycleStart - enqueuedAt), maxRider);
+        queueGate.release(transferredCount); // Room for producers waiting in offerToQueue()
         numOfCycles++;
-        System.out.printf("[SUCCESS] Ride cycle completed! Transferred %d visitors to history. Total cycles: %d%n",
-                transferredCount, numOfCycles);
+        metrics.recordCycle(transferredCount, System.nanoTime() - cycleStart);
+        return transferredCount;
+    }
+
+    /**
+     * Publishes a visitor event (or one without subject) to the event sink, unless the sink is silent.
+     *
+     * @param type Kind of event
+     * @param visitor Visitor the event is about; null if none
+     */
+    private void publish(RideEvent.Type type, Visitor visitor) {
+        if (eventSink.isEnabled()) {
+            eventSink.publish(RideEvent.of(type, rideName, visitor));
+        }
+    }
+
+    /**
+     * Puts an admitted visitor at the end of the waiting line.
+     * @param visitor The Visitor to add (not null)
+     */
+    private void enqueue(Visitor visitor) {
+        waitingLine.offer(visitor); // Capacity is enforced by the queue gate, so offer() always succeeds
+        metrics.recordEnqueue();
+        publish(RideEvent.Type.QUEUE_ADDED, visitor);
+    }
+
+    private void publishQueueFull(Visitor visitor) {
+        if (eventSink.isEnabled()) {
+            eventSink.publish(new RideEvent(RideEvent.Type.QUEUE_FULL, rideName,
+                    visitor.getName(), visitor.getId(), queueGate.getCapacity(), 0, false));
+        }
+    }
+
+    /**
+     * Moves a visitor from the waiting line into the ride history, recording how long they waited.
+     *
+     * @param visitor The Visitor taken from the waiting line
+     * @param waitNanos Time from joining the line to the start of the boarding cycle
+     */
+    private void board(Visitor visitor, long waitNanos) {
+        metrics.recordBoarding(waitNanos);
+        recordHistory(visitor);
+    }
+
+    /**
+     * Appends a visitor to the ride history (RideHistory also updates its visitor-ID index).
+     * Every history insert goes through here.
+     *
+     * @param visitor The Visitor who completed the ride
+     */
+    private void recordHistory(Visitor visitor) {
+        rideHistory.add(visitor);
     }
 
     // ------------------------------
@@ -204,97 +774,407 @@ public class Ride implements RideInterface {
     }
     @Override
     public void exportRideHistory(String exportPath) {
+        exportRideHistory(exportPath, false);
+    }
+
+    /**
+     * Exports the ride history to a CSV file (Part 6 requirement) through the buffered HistoryCsvWriter.
+     * A path ending with ".gz" writes a gzip archive, compressed on a separate thread.
+     * Prints how many rows and bytes were written and how long it took.
+     *
+     * @param exportPath Path of the CSV (or .csv.gz) file to create or replace
+     * @param atomic true to write a temporary file and rename it over exportPath once complete
+     * @return Rows, bytes and elapsed time; null if nothing was exported (empty history or I/O error)
+     */
+    public HistoryExportResult exportRideHistory(String exportPath, boolean atomic) {
         // Check if rideHistory is empty (to prevent the generation of an empty file during export)
         if (this.rideHistory.isEmpty()) {
             System.out.println("[ERROR] Failed to export: ride history is empty");
-            return;
+            return null;
         }
 
-        // Write to CSV file (try-with-resources automatically closes the stream, avoiding resource leakage)
-        try (PrintWriter writer = new PrintWriter(new FileWriter(exportPath))) {
-            // Write the CSV header (corresponding to the attributes of the Visitor: ID, Name, Age, Type, Visit Date)
-            writer.println("VisitorID,Name,Age,VisitorType,VisitDate");
-
-            // 2. Traverse the "rideHistory" and write down the data of each "Visitor" (separated by commas)
-            for (Visitor visitor : this.rideHistory) {
-                writer.printf("%s,%s,%d,%s,%s%n",
-                        visitor.getId(),       // Obtain the ID from the Visitor class
-                        visitor.getName(),     // Obtain the name
-                        visitor.getAge(),      // Obtain age
-                        visitor.getVisitorType(), // Obtain the type of visitor (such as Adult)
-                        visitor.getVisitDate() // Obtain the access date
-                );
-            }
-
+        // Write the header and one row per Visitor (ID, Name, Age, Type, Visit Date) in large batches
+        try {
+            HistoryExportResult result = new HistoryCsvWriter().write(this.rideHistory, Paths.get(exportPath), atomic);
             System.out.println("[SUCCESS] The Ride history has been exported to: " + exportPath);
+            System.out.printf("[INFO] Exported %d visitors (%d bytes%s) in %.3f ms%n",
+                    result.getRows(), result.getBytes(),
+                    HistoryCompression.isCompressedName(Paths.get(exportPath)) ? " gzip" : "",
+                    result.getElapsedNanos() / 1e6);
+            return result;
         } catch (IOException e) {
             // Capture file operation exception (such as the path not existing or insufficient permissions)
             System.err.println("[ERROR] Export failed: " + e.getMessage());
+            return null;
         }
     }
     @Override
     public void importRideHistory(String importPath) {
+        importRideHistory(importPath, null);
+    }
+
+    /**
+     * Imports ride history from a CSV file written by exportRideHistory() (Part 7 requirement).
+     * The file is streamed through HistoryCsvReader, so its size does not affect heap use.
+     * A gzip file (recognised by its magic bytes, whatever its name) is inflated on a separate thread.
+     * Visitors whose ID is already in the history are skipped; malformed rows are counted
+     * and, if rejectPath is given, copied unchanged to that file instead of printed one by one.
+     *
+     * @param importPath Path of the CSV file to import
+     * @param rejectPath Path of a file to receive rejected lines; null to only count them
+     * @return Import counts; null if the import could not run (empty path or I/O error)
+     */
+    public HistoryImportResult importRideHistory(String importPath, String rejectPath) {
         // Check if the file path is empty
         if (importPath == null || importPath.trim().isEmpty()) {
             System.out.println("[ERROR] Import failed: File path cannot be empty!");
-            return;
+            return null;
         }
 
-        // Read the CSV file (using try-with-resources to automatically close the stream)
-        try (BufferedReader reader = new BufferedReader(new FileReader(importPath))) {
-            String line;
-            boolean isFirstLine = true; // Skip the CSV header (the first row)
-            int importedCount = 0;
+        // Open the CSV file as a channel (try-with-resources closes both files; a null reject stream is allowed)
+        try (FileChannel channel = FileChannel.open(Paths.get(importPath), StandardOpenOption.READ);
+             ReadableByteChannel in = HistoryCompression.openForReading(channel);
+             OutputStream rejects = (rejectPath == null) ? null
+                     : new BufferedOutputStream(Files.newOutputStream(Paths.get(rejectPath)))) {
+            HistoryCsvReader reader = new HistoryCsvReader();
+            reader.setRejectOutput(rejects);
 
-            while ((line = reader.readLine()) != null) {
-                // Skip the header row (VisitorID, Name, Age, VisitorType, VisitDate)
-                if (isFirstLine) {
-                    isFirstLine = false;
-                    continue;
-                }
+            // Skip the header row (VisitorID, Name, Age, VisitorType, VisitDate) and add every new visitor
+            int firstRow = rideHistory.size();
+            HistoryImportResult result = reader.read(in, true, this::importVisitor);
+            logHistory(firstRow);
 
-                // Split CSV rows (separated by commas)
-                String[] fields = line.split(",");
+            // Print the import results
+            System.out.printf("[SUCCESS] Import completed! Successfully imported %d valid visitors (duplicates/invalid lines skipped)%n", result.getImported());
+            if (result.getDuplicates() > 0 || result.getRejected() > 0) {
+                System.out.printf("[WARNING] Skipped %d duplicate visitors and %d invalid lines%s%n",
+                        result.getDuplicates(), result.getRejected(),
+                        (rejectPath == null || result.getRejected() == 0) ? "" : " (invalid lines written to " + rejectPath + ")");
+            }
+            return result;
 
-                // Verify whether the number of fields is correct (each row should contain 5 fields)
-                if (fields.length != 5) {
-                    System.out.printf("[WARNING] Skipping invalid line: Incorrect number of fields (expected 5, got %d) → Line: %s%n", fields.length, line);
-                    continue;
-                }
+        } catch (IOException e) {
+            // Handle file reading exceptions (such as when the file does not exist or there are insufficient permissions)
+            System.err.printf("[ERROR] Import failed: File operation exception → Path: %s, Error: %s%n", importPath, e.getMessage());
+            return null;
+        }
+    }
 
-                try {
-                    // Analyze each field (in accordance with the order of CSV table headers)
-                    String visitorId = fields[0].trim();
-                    String name = fields[1].trim();
-                    int age = Integer.parseInt(fields[2].trim()); // 转换年龄为int
-                    String visitorType = fields[3].trim();
-                    String visitDate = fields[4].trim();
-
-                    // Create a Visitor object (matching the parameterized constructor of the Visitor class)
-                    Visitor importedVisitor = new Visitor(visitorId, name, age, visitorType, visitDate);
-
-                    // Avoid duplicate addition (rely on the equals method rewritten by Visitor to determine by ID)
-                    if (!rideHistory.contains(importedVisitor)) {
-                        rideHistory.add(importedVisitor);
-                        importedCount++;
-                    } else {
-                        System.out.printf("[WARNING] Skipping duplicate visitor: ID=%s (already exists in history)%n", visitorId);
-                    }
-
-                } catch (NumberFormatException e) {
-                    System.out.printf("[WARNING] Skipping invalid line: Age format error → Line: %s, Error: %s%n", line, e.getMessage());
+    /**
+     * Imports ride history from a (very large) CSV file in parallel.
+     * The file is memory-mapped and parsed in newline-aligned chunks on the common fork-join pool;
+     * rows are then added in file order with the same duplicate-ID rejection as importRideHistory().
+     * Malformed rows are counted but not written anywhere. A gzip file cannot be mapped and is
+     * imported with importRideHistory() instead.
+     *
+     * @param importPath Path of the CSV file to import
+     * @return Import counts; null if the import could not run (empty path or I/O error)
+     */
+    public HistoryImportResult importRideHistoryMapped(String importPath) {
+        if (importPath == null || importPath.trim().isEmpty()) {
+            System.out.println("[ERROR] Import failed: File path cannot be empty!");
+            return null;
+        }
+        try {
+            try (FileChannel channel = FileChannel.open(Paths.get(importPath), StandardOpenOption.READ)) {
+                if (HistoryCompression.isCompressed(channel)) {
+                    System.out.println("[INFO] " + importPath + " is gzip-compressed; importing it as a stream");
+                    return importRideHistory(importPath, null);
                 }
             }
+            int firstRow = rideHistory.size();
+            HistoryImportResult result = new HistoryCsvMappedImporter().importFile(Paths.get(importPath), this::importVisitor);
+            logHistory(firstRow);
+            System.out.printf("[SUCCESS] Parallel import completed! Successfully imported %d valid visitors (%d duplicates, %d invalid lines skipped)%n",
+                    result.getImported(), result.getDuplicates(), result.getRejected());
+            return result;
+        } catch (IOException e) {
+            System.err.printf("[ERROR] Import failed: File operation exception → Path: %s, Error: %s%n", importPath, e.getMessage());
+            return null;
+        }
+    }
 
-            // Print the import results
-            System.out.printf("[SUCCESS] Import completed! Successfully imported %d valid visitors (duplicates/invalid lines skipped)%n", importedCount);
+    /**
+     * Starts following a history CSV that another system keeps appending to (same format as importRideHistory()).
+     * Each pollFollowedHistory() then imports only the rows added since the previous poll, and handles the
+     * file being truncated or rotated. Replaces any file followed before.
+     *
+     * @param importPath Path of the CSV file to follow (it may not exist yet)
+     */
+    public void followRideHistory(String importPath) {
+        if (importPath == null || importPath.trim().isEmpty()) {
+            System.out.println("[ERROR] Follow failed: File path cannot be empty!");
+            return;
+        }
+        stopFollowingRideHistory();
+        historyTail = new HistoryCsvTailer(Paths.get(importPath), this::importVisitor);
+        System.out.println("[INFO] " + rideName + " is following " + importPath + " for new ride history.");
+    }
 
+    /**
+     * Imports the rows appended to the followed CSV since the last poll (cost proportional to the new rows).
+     * Call it from the ride's operator thread, e.g. before each cycle. Duplicate IDs are skipped as in importRideHistory().
+     *
+     * @return Counts of this poll; null if no file is followed or it could not be read
+     */
+    public HistoryImportResult pollFollowedHistory() {
+        if (historyTail == null) {
+            System.out.println("[ERROR] " + rideName + " is not following a history file.");
+            return null;
+        }
+        try {
+            int firstRow = rideHistory.size();
+            HistoryImportResult result = historyTail.poll();
+            logHistory(firstRow);
+            if (result.getImported() > 0 || result.getDuplicates() > 0 || result.getRejected() > 0) {
+                System.out.printf("[SUCCESS] Imported %d new visitors from %s (%d duplicates, %d invalid lines skipped)%n",
+                        result.getImported(), historyTail.getFile(), result.getDuplicates(), result.getRejected());
+            }
+            return result;
+        } catch (IOException e) {
+            System.err.printf("[ERROR] Import failed: File operation exception → Path: %s, Error: %s%n", historyTail.getFile(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Stops following the history CSV (rows imported so far stay in the history).
+     */
+    public void stopFollowingRideHistory() {
+        if (historyTail == null) {
+            return;
+        }
+        try {
+            historyTail.close();
+        } catch (IOException e) {
+            System.err.println("[ERROR] Closing followed file failed: " + e.getMessage());
+        }
+        historyTail = null;
+    }
+
+    /**
+     * Exports the ride history as partition files plus a manifest, written in parallel (see HistoryShards).
+     *
+     * @param exportDirectory Directory to write the shards and manifest.tsv to
+     * @param partitioning Split by visit date or by visitor-ID hash
+     * @param hashShards Number of files for VISITOR_ID_HASH (ignored for VISIT_DATE)
+     * @return Rows, bytes and elapsed time; null if nothing was exported (empty history or I/O error)
+     */
+    public HistoryExportResult exportRideHistorySharded(String exportDirectory, HistoryShards.Partitioning partitioning, int hashShards) {
+        if (this.rideHistory.isEmpty()) {
+            System.out.println("[ERROR] Failed to export: ride history is empty");
+            return null;
+        }
+        try {
+            HistoryExportResult result = new HistoryShards().export(Collections.singletonMap(rideName, rideHistory),
+                    Paths.get(exportDirectory), partitioning, hashShards);
+            System.out.println("[SUCCESS] The Ride history has been exported (sharded by " + partitioning + ") to: " + exportDirectory);
+            System.out.printf("[INFO] Exported %d visitors (%d bytes) in %.3f ms%n",
+                    result.getRows(), result.getBytes(), result.getElapsedNanos() / 1e6);
+            return result;
+        } catch (IOException e) {
+            System.err.println("[ERROR] Export failed: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Imports this ride's shards of a sharded export (manifest entries with this ride's name), parsing the
+     * files in parallel. Visitors whose ID is already in the history are skipped, as in importRideHistory().
+     *
+     * @param importDirectory Directory with manifest.tsv
+     * @return Import counts; null if the import could not run (empty path or I/O error)
+     */
+    public HistoryImportResult importRideHistorySharded(String importDirectory) {
+        if (importDirectory == null || importDirectory.trim().isEmpty()) {
+            System.out.println("[ERROR] Import failed: File path cannot be empty!");
+            return null;
+        }
+        try {
+            int firstRow = rideHistory.size();
+            HistoryImportResult result = new HistoryShards().importAll(Paths.get(importDirectory),
+                    Collections.singletonMap(rideName, historyImporter())).get(rideName);
+            logHistory(firstRow);
+            if (result == null) {
+                System.out.println("[ERROR] Import failed: no shards for " + rideName + " in " + importDirectory);
+                return null;
+            }
+            System.out.printf("[SUCCESS] Sharded import completed! Successfully imported %d valid visitors (%d duplicates, %d invalid lines skipped)%n",
+                    result.getImported(), result.getDuplicates(), result.getRejected());
+            return result;
+        } catch (IOException e) {
+            System.err.printf("[ERROR] Import failed: File operation exception → Path: %s, Error: %s%n", importDirectory, e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public void exportRideHistoryBinary(String exportPath) {
+        if (this.rideHistory.isEmpty()) {
+            System.out.println("[ERROR] Failed to export: ride history is empty");
+            return;
+        }
+        try {
+            HistoryExportResult result = new HistoryBinaryCodec().write(this.rideHistory, Paths.get(exportPath));
+            System.out.println("[SUCCESS] The Ride history has been saved (binary) to: " + exportPath);
+            System.out.printf("[INFO] Exported %d visitors (%d bytes) in %.3f ms%n",
+                    result.getRows(), result.getBytes(), result.getElapsedNanos() / 1e6);
+        } catch (IOException e) {
+            System.err.println("[ERROR] Export failed: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void importRideHistoryBinary(String importPath) {
+        if (importPath == null || importPath.trim().isEmpty()) {
+            System.out.println("[ERROR] Import failed: File path cannot be empty!");
+            return;
+        }
+        try {
+            int firstRow = rideHistory.size();
+            HistoryImportResult result = new HistoryBinaryCodec().read(Paths.get(importPath), this::importVisitor);
+            logHistory(firstRow);
+            System.out.printf("[SUCCESS] Binary import completed! Successfully imported %d valid visitors (%d duplicates skipped)%n",
+                    result.getImported(), result.getDuplicates());
         } catch (IOException e) {
-            // Handle file reading exceptions (such as when the file does not exist or there are insufficient permissions)
             System.err.printf("[ERROR] Import failed: File operation exception → Path: %s, Error: %s%n", importPath, e.getMessage());
         }
     }
 
+    // ------------------------------
+    // Write-ahead log
+    // ------------------------------
+
+    /**
+     * Makes the ride history durable: from now on every cycle batch, addVisitorToHistory() and import is
+     * appended to a write-ahead log in the given directory, and fsynced in groups every syncInterval
+     * (so a crash loses at most that much). If the directory already holds a log (e.g. after a restart),
+     * its rows are replayed into the (empty) history first. Large logs are compacted into a binary
+     * snapshot in the background. The history order after a replay is insertion order (sorts are not logged).
+     *
+     * @param directory Log directory (one per ride)
+     * @param syncInterval Time between group fsyncs (zero = fsync every batch)
+     * @return Number of rows replayed from the log; -1 if the log could not be opened
+     * @throws IllegalStateException If the history is not empty and the directory already holds a log
+     */
+    public int enableWriteAheadLog(String directory, Duration syncInterval) {
+        return enableWriteAheadLog(directory, syncInterval, HistoryWal.DEFAULT_COMPACT_BYTES);
+    }
+
+    /**
+     * Same as enableWriteAheadLog(directory, syncInterval), with a custom compaction threshold.
+     *
+     * @param directory Log directory (one per ride)
+     * @param syncInterval Time between group fsyncs (zero = fsync every batch)
+     * @param compactBytes Log segment size that triggers a background compaction
+     * @return Number of rows replayed from the log; -1 if the log could not be opened
+     * @throws IllegalStateException If the history is not empty and the directory already holds a log
+     */
+    public int enableWriteAheadLog(String directory, Duration syncInterval, long compactBytes) {
+        if (historyLog != null) {
+            System.out.printf("[INFO] %s's write-ahead log is already enabled (%s).%n", rideName, historyLog.getDirectory());
+            return 0;
+        }
+        Path logDirectory = Paths.get(directory);
+        try {
+            if (!rideHistory.isEmpty() && HistoryWal.hasRecords(logDirectory)) {
+                throw new IllegalStateException("Cannot replay the log in " + directory + " into " + rideName + "'s non-empty history");
+            }
+            historyLog = HistoryWal.open(logDirectory, syncInterval, compactBytes, rideHistory);
+            int replayed = historyLog.getReplayedRows();
+            if (replayed == 0 && !rideHistory.isEmpty()) {
+                historyLog.append(rideHistory, 0, rideHistory.size()); // Log the rows recorded before the log existed
+            }
+            System.out.printf("[SUCCESS] %s's write-ahead log enabled in %s (replayed %d visitors).%n", rideName, directory, replayed);
+            return replayed;
+        } catch (IOException e) {
+            System.err.printf("[ERROR] Write-ahead log failed: Path: %s, Error: %s%n", directory, e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * Fsyncs and closes the write-ahead log (waiting for a running compaction). History changes are no longer logged.
+     */
+    public void closeWriteAheadLog() {
+        if (historyLog == null) {
+            return;
+        }
+        try {
+            historyLog.close();
+        } catch (IOException e) {
+            System.err.println("[ERROR] Write-ahead log close failed: " + e.getMessage());
+        }
+        historyLog = null;
+    }
+
+    /**
+     * Gets the ride's write-ahead log, e.g. to sync() or compact() it on demand.
+     * @return The log; null if not enabled
+     */
+    public HistoryWal getWriteAheadLog() {
+        return historyLog;
+    }
+
+    /**
+     * Gets the last write-ahead log append failure. History rows recorded when an append failed are in
+     * memory but would be lost in a crash; each failure is also published as a HISTORY_LOG_FAILED event.
+     * @return The last failure; null if every append succeeded
+     */
+    public IOException getWriteAheadLogFailure() {
+        return historyLogFailure;
+    }
+
+    /**
+     * Appends the history rows added since fromRow to the write-ahead log, if there is one.
+     * A failure is kept for getWriteAheadLogFailure() and reported to the event sink.
+     * @param fromRow First row of the batch
+     */
+    private void logHistory(int fromRow) {
+        if (historyLog == null || fromRow >= rideHistory.size()) {
+            return;
+        }
+        try {
+            historyLog.append(rideHistory, fromRow, rideHistory.size());
+        } catch (IOException e) {
+            historyLogFailure = e;
+            if (eventSink.isEnabled()) {
+                eventSink.publish(new RideEvent(RideEvent.Type.HISTORY_LOG_FAILED, rideName, e.getMessage(), null,
+                        rideHistory.size() - fromRow, 0, false));
+            }
+        }
+    }
+
+    /**
+     * Gets the duplicate-checking sink that all imports use, for bulk imports driven from outside (Park).
+     * Call logImportedHistory() afterwards so the rows reach the write-ahead log.
+     */
+    Predicate<Visitor> historyImporter() {
+        return this::importVisitor;
+    }
+
+    /**
+     * Logs rows imported through historyImporter() since fromRow to the write-ahead log.
+     */
+    void logImportedHistory(int fromRow) {
+        logHistory(fromRow);
+    }
+
+    /**
+     * Adds an imported visitor to the history unless its ID is already there.
+     * Avoids duplicate addition with an O(1) lookup in the visitor-ID index.
+     *
+     * @param visitor The Visitor parsed from the import file
+     * @return true if the visitor was added; false if it was a duplicate
+     */
+    private boolean importVisitor(Visitor visitor) {
+        if (rideHistory.containsId(visitor.getId())) {
+            return false;
+        }
+        recordHistory(visitor);
+        return true;
+    }
+
     public int getNumOfCycles() {
         return numOfCycles;
     }
@@ -305,15 +1185,89 @@ public class Ride implements RideInterface {
 
     public void setOperator(Employee operator) {
         this.operator = operator;
-        System.out.printf("[INFO] %s's operator updated to '%s' (ID: %s).%n",
-                rideName, operator.getName(), operator.getEmployeeId());
+        if (eventSink.isEnabled()) {
+            eventSink.publish(new RideEvent(RideEvent.Type.OPERATOR_CHANGED, rideName,
+                    (operator == null) ? null : operator.getName(),
+                    (operator == null) ? null : operator.getEmployeeId(), 0, 0, false));
+        }
     }
 
+    /**
+     * Shares a park-wide VisitorRegistry with this ride's history, so visitors riding several rides
+     * (or imported several times) are stored with one set of Strings. Park.shareVisitorRegistry() does this
+     * for every ride of a park.
+     *
+     * @param registry Registry to use (null to stop interning)
+     */
+    public void setVisitorRegistry(VisitorRegistry registry) {
+        rideHistory.setRegistry(registry);
+    }
+
+    public VisitorRegistry getVisitorRegistry() {
+        return rideHistory.getRegistry();
+    }
+
+    public RideEventSink getEventSink() {
+        return eventSink;
+    }
+
+    /**
+     * Sets where queue, history, cycle and operator events go, e.g. SilentEventSink.INSTANCE
+     * in production or an AsyncEventSink to keep console output off the hot path.
+     *
+     * @param eventSink New sink (null restores the default console sink)
+     */
+    public void setEventSink(RideEventSink eventSink) {
+        this.eventSink = (eventSink == null) ? new ConsoleEventSink() : eventSink;
+    }
+
+    /**
+     * Checks whether this ride uses the lock-free concurrent waiting line.
+     * @return true if created in concurrent mode
+     */
+    public boolean isConcurrent() {
+        return concurrent;
+    }
+
+    /**
+     * Takes a snapshot of the ride's runtime metrics: enqueues, dequeues, cycles, riders,
+     * queue depth, and wait-time / cycle-latency / riders-per-cycle histograms.
+     * Safe to call from any thread while the ride runs (e.g. from a MetricsReporter).
+     *
+     * @return Snapshot of the current metrics
+     */
+    public RideMetrics.Snapshot getMetricsSnapshot() {
+        return metrics.snapshot(rideName);
+    }
+
+    /**
+     * Returns a live read-only view of the waiting queue (changes go through addVisitorToQueue() and friends).
+     *
+     * @return The waiting queue; its change methods throw UnsupportedOperationException
+     */
     public Queue<Visitor> getWaitingLine() {
-        return waitingLine;
+        return waitingLineView;
     }
 
-    public LinkedList<Visitor> getRideHistory() {
+    /**
+     * Returns a live read-only view of the ride history (no copy; Visitors read from it are copies).
+     * Changes go through addVisitorToHistory(), the cycles and the imports, so events, indexes and
+     * the write-ahead log always see them.
+     *
+     * @return The ride history; its change methods throw UnsupportedOperationException
+     */
+    public List<Visitor> getRideHistory() {
+        return rideHistoryView;
+    }
+
+    /**
+     * Gets the history store itself, for code in this package that reads its columns or bulk-exports it
+     * (Park, HistoryShards, ParkSimulator, benchmarks). Appends through the store bypass events and
+     * the write-ahead log, so callers must not modify it.
+     *
+     * @return The ride history store
+     */
+    RideHistory historyStore() {
         return rideHistory;
     }
 }
\ No newline at end of file
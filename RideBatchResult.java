@@ -0,0 +1,64 @@
+/**
+ * Class RideBatchResult: Summary of one batch call on a Ride (addVisitorsToQueue(),
+ * addVisitorsToHistory() or runCycles()), reported instead of one console line per visitor.
+ */
+public class RideBatchResult {
+    private final int accepted;   // Visitors queued, recorded or boarded
+    private final int rejected;   // Null entries skipped
+    private final int turnedAway; // Visitors not queued because the waiting queue was full
+    private final int cycles;     // Ride cycles completed (runCycles() only)
+
+    /**
+     * Creates a batch summary.
+     *
+     * @param accepted Visitors queued, recorded or boarded
+     * @param rejected Null entries skipped
+     * @param turnedAway Visitors not queued because the waiting queue was full
+     * @param cycles Ride cycles completed
+     */
+    public RideBatchResult(int accepted, int rejected, int turnedAway, int cycles) {
+        this.accepted = accepted;
+        this.rejected = rejected;
+        this.turnedAway = turnedAway;
+        this.cycles = cycles;
+    }
+
+    /**
+     * Gets the number of visitors the batch handled: queued (addVisitorsToQueue()),
+     * added to the history (addVisitorsToHistory()) or boarded (runCycles()).
+     * @return Visitor count
+     */
+    public int getAccepted() {
+        return accepted;
+    }
+
+    /**
+     * Gets the number of null entries that were skipped.
+     * @return Rejected count
+     */
+    public int getRejected() {
+        return rejected;
+    }
+
+    /**
+     * Gets the number of visitors turned away because the waiting queue was at capacity.
+     * @return Turned-away count
+     */
+    public int getTurnedAway() {
+        return turnedAway;
+    }
+
+    /**
+     * Gets the number of ride cycles completed (0 except for runCycles()).
+     * @return Cycle count
+     */
+    public int getCycles() {
+        return cycles;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("RideBatchResult[accepted=%d, rejected=%d, turnedAway=%d, cycles=%d]",
+                accepted, rejected, turnedAway, cycles);
+    }
+}
@@ -0,0 +1,172 @@
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Class RideEvent: Structured record of one thing that happened on a Ride (queue, history, cycle or operator change).
+ * Rides publish these to a RideEventSink instead of printing preformatted strings, so a sink can
+ * drop them, batch them, or format them later (format() gives the classic console line).
+ */
+public final class RideEvent {
+
+    /**
+     * Kinds of ride events.
+     */
+    public enum Type {
+        QUEUE_ADD_REJECTED,   // addVisitorToQueue() called with null
+        QUEUE_FULL,           // Visitor turned away: the waiting queue is at capacity (count = capacity)
+        QUEUE_ADDED,          // Visitor joined the waiting queue
+        QUEUE_BATCH_ADDED,    // addVisitorsToQueue() done (count = visitors queued, total = turned away: queue full)
+        QUEUE_REMOVE_EMPTY,   // removeVisitorFromQueue() on an empty queue
+        QUEUE_REMOVED,        // Visitor left the waiting queue
+        HISTORY_ADD_REJECTED, // addVisitorToHistory() called with null
+        HISTORY_ADDED,        // Visitor added to the ride history
+        HISTORY_BATCH_ADDED,  // addVisitorsToHistory() done (count = visitors added)
+        HISTORY_CHECK_REJECTED, // checkVisitorFromHistory() called with null
+        HISTORY_CHECKED,      // Result of checkVisitorFromHistory() (found = result)
+        HISTORY_COUNTED,      // Result of numberOfVisitors() (count = result)
+        CYCLE_STARTED,        // runOneCycle() began
+        CYCLE_NO_OPERATOR,    // Cycle failed: no operator assigned
+        CYCLE_EMPTY_QUEUE,    // Cycle failed: nobody waiting
+        CYCLE_COMPLETED,      // Cycle done (count = riders moved, total = cycles so far)
+        CYCLES_COMPLETED,     // runCycles() done (count = riders moved, total = cycles so far)
+        OPERATOR_CHANGED,     // setOperator() (subject = the new operator)
+        RETURN_SLOT_ISSUED,   // Virtual queue handed out a return time (count = return time, epoch millis)
+        RETURN_SLOT_REJECTED, // Return slot redeemed outside its window, by another visitor, or a second time
+        HISTORY_LOG_FAILED    // Write-ahead log append failed (count = rows not logged, subject name = error message)
+    }
+
+    private final Type type;
+    private final String rideName;
+    private final String subjectName; // Visitor or operator name (null if none)
+    private final String subjectId;   // Visitor ID or employee ID (null if none)
+    private final long count;         // Event-specific number (riders moved, history size, ...)
+    private final long total;         // Event-specific running total (cycles completed)
+    private final boolean found;      // Result of a history check
+    private final long timestampMillis;
+
+    private static final DateTimeFormatter RETURN_TIME = DateTimeFormatter.ofPattern("HH:mm:ss").withZone(ZoneId.systemDefault());
+
+    /**
+     * Creates an event.
+     *
+     * @param type Kind of event
+     * @param rideName Name of the ride it happened on
+     * @param subjectName Visitor or operator name (null if not applicable)
+     * @param subjectId Visitor ID or employee ID (null if not applicable)
+     * @param count Event-specific number
+     * @param total Event-specific running total
+     * @param found Result of a history check
+     */
+    public RideEvent(Type type, String rideName, String subjectName, String subjectId,
+                     long count, long total, boolean found) {
+        this.type = type;
+        this.rideName = rideName;
+        this.subjectName = subjectName;
+        this.subjectId = subjectId;
+        this.count = count;
+        this.total = total;
+        this.found = found;
+        this.timestampMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * Creates an event about a visitor (or with no subject if visitor is null).
+     */
+    static RideEvent of(Type type, String rideName, Visitor visitor) {
+        return (visitor == null)
+                ? new RideEvent(type, rideName, null, null, 0, 0, false)
+                : new RideEvent(type, rideName, visitor.getName(), visitor.getId(), 0, 0, false);
+    }
+
+    /**
+     * Formats the event as the console line Ride has always printed for it (without line separator).
+     * @return Human-readable line
+     */
+    public String format() {
+        switch (type) {
+            case QUEUE_ADD_REJECTED:
+                return "[ERROR] Failed to add visitor: Visitor object cannot be null.";
+            case QUEUE_ADDED:
+                return "[SUCCESS] Visitor '" + subjectName + "' (ID: " + subjectId + ") added to " + rideName + "'s waiting queue.";
+            case QUEUE_BATCH_ADDED:
+                return "[SUCCESS] " + count + " visitors added to " + rideName + "'s waiting queue"
+                        + ((total > 0) ? " (" + total + " turned away: queue full)." : ".");
+            case QUEUE_REMOVE_EMPTY:
+                return "[ERROR] Failed to remove visitor: " + rideName + "'s waiting queue is empty.";
+            case QUEUE_REMOVED:
+                return "[SUCCESS] Visitor '" + subjectName + "' (ID: " + subjectId + ") removed from " + rideName + "'s waiting queue.";
+            case HISTORY_ADD_REJECTED:
+                return "[ERROR] Failed to add to history: Visitor object cannot be null.";
+            case HISTORY_ADDED:
+                return "[SUCCESS] Visitor '" + subjectName + "' (ID: " + subjectId + ") added to " + rideName + "'s ride history.";
+            case HISTORY_BATCH_ADDED:
+                return "[SUCCESS] " + count + " visitors added to " + rideName + "'s ride history.";
+            case HISTORY_CHECK_REJECTED:
+                return "[ERROR] Failed to check history: Visitor object cannot be null.";
+            case HISTORY_CHECKED:
+                return "[RESULT] Visitor '" + subjectName + "' (ID: " + subjectId + ") exists in " + rideName + "'s history: " + found;
+            case HISTORY_COUNTED:
+                return "[INFO] Total visitors in " + rideName + "'s history: " + count;
+            case CYCLE_STARTED:
+                return System.lineSeparator() + "--- Starting " + rideName + "'s Ride Cycle ---";
+            case CYCLE_NO_OPERATOR:
+                return "[ERROR] Ride cycle failed: No operator assigned to the ride.";
+            case CYCLE_EMPTY_QUEUE:
+                return "[ERROR] Ride cycle failed: No visitors in the waiting queue.";
+            case CYCLE_COMPLETED:
+                return "[SUCCESS] Ride cycle completed! Transferred " + count + " visitors to history. Total cycles: " + total;
+            case CYCLES_COMPLETED:
+                return "[SUCCESS] Ride cycles completed! Transferred " + count + " visitors to history. Total cycles: " + total;
+            case OPERATOR_CHANGED:
+                return "[INFO] " + rideName + "'s operator updated to '" + subjectName + "' (ID: " + subjectId + ").";
+            case QUEUE_FULL:
+                return "[ERROR] Failed to add visitor '" + subjectName + "' (ID: " + subjectId + "): " + rideName + "'s waiting queue is full (capacity " + count + ").";
+            case RETURN_SLOT_ISSUED:
+                return "[INFO] Visitor '" + subjectName + "' (ID: " + subjectId + ") may return to " + rideName + " at " + RETURN_TIME.format(Instant.ofEpochMilli(count)) + ".";
+            case RETURN_SLOT_REJECTED:
+                return "[ERROR] Visitor '" + subjectName + "' (ID: " + subjectId + ") cannot join " + rideName + "'s queue: return slot not valid now or already used.";
+            case HISTORY_LOG_FAILED:
+                return "[ERROR] " + rideName + "'s write-ahead log append failed (" + count + " history rows not logged): " + subjectName;
+            default:
+                return "[INFO] " + type + " on " + rideName;
+        }
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getRideName() {
+        return rideName;
+    }
+
+    public String getSubjectName() {
+        return subjectName;
+    }
+
+    public String getSubjectId() {
+        return subjectId;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public boolean isFound() {
+        return found;
+    }
+
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    @Override
+    public String toString() {
+        return format();
+    }
+}
@@ -0,0 +1,20 @@
+/**
+ * Interface RideEventSink: Receives the RideEvents a Ride publishes (queue, history, cycle and operator events).
+ * Implementations decide what happens to them: print right away (ConsoleEventSink), drop them
+ * (SilentEventSink), or hand them to a background writer (AsyncEventSink).
+ */
+public interface RideEventSink {
+    /**
+     * Receives one event. May be called from several threads at once for a concurrent Ride.
+     * @param event The event (not null)
+     */
+    void publish(RideEvent event);
+
+    /**
+     * Tells rides whether events are wanted at all; when false, rides skip building them.
+     * @return true if publish() does something with events
+     */
+    default boolean isEnabled() {
+        return true;
+    }
+}
@@ -0,0 +1,613 @@
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * Class RideHistory: Column-oriented store for a ride's history (replaces LinkedList&lt;Visitor&gt;, Part 4A).
+ * Each field lives in its own growable array: ages and visit dates as ints (dates as epoch days),
+ * visitor types as dictionary-encoded bytes, IDs and names as shared String references.
+ * A million entries cost a few tens of MB instead of a node, a Visitor and four Strings each.
+ *
+ * The class is also a read-only List&lt;Visitor&gt; view for existing callers: get() and iteration
+ * build a fresh Visitor from the columns, so changing such a Visitor does not change the history.
+ * Only appending (add) and reordering (sort) are supported. Lookups by visitor ID are O(1).
+ * Not thread-safe.
+ */
+public class RideHistory extends AbstractList<Visitor> implements RandomAccess {
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int MAX_BYTE_TYPES = 256;     // Type codes fit in a byte up to this many types
+    private static final int MAX_TYPES = 1 << 16;      // Type codes fit in a char up to this many types
+
+    // Parallel columns, one slot per ride record
+    private String[] ids;
+    private String[] names;
+    private int[] ages;
+    private int[] visitDays;     // Epoch day, or ODD_DATE_BASE + index into oddDates for non-canonical text
+    private byte[] typeCodes;    // Index into types (unsigned), while there are at most 256 types
+    private char[] wideTypeCodes; // Replaces typeCodes once there are more than 256 types
+    private int size;
+
+    // Dictionaries
+    private final List<String> types = new ArrayList<>();            // Distinct visitor types (null allowed)
+    private final Map<String, Integer> typeIndex = new HashMap<>();
+    private final List<String> oddDates = new ArrayList<>();         // Visit dates that are not canonical "yyyy-MM-dd"
+    private final Map<String, Integer> oddDateIndex = new HashMap<>();
+    private final Map<Integer, String> dayText = new HashMap<>();    // Cached text of each epoch day seen by get()
+
+    // Visitor-ID index: ID → first row with that ID
+    private final Map<String, Integer> idIndex = new HashMap<>();
+
+    // Live sorted view, created on first request and then updated on every append
+    private SortedHistoryView sortedView;
+
+    // Park-wide interning of IDs, names, types and date text; null to store Strings as given
+    private VisitorRegistry registry;
+
+    // Secondary indexes (visitor type, age band, visit date), created on first query and then updated on every append
+    private HistoryIndex index;
+
+    // Number of reorders (sorts); row numbers stay valid across appends until this changes
+    private int reorders;
+
+    /** Codes below this mark a non-canonical date (canonical dates are ≥ 0000-01-01). */
+    private static final int ODD_DATE_BASE = Integer.MIN_VALUE;
+    private static final int MIN_EPOCH_DAY = VisitDates.toEpochDay("0000-01-01");
+
+    /**
+     * Creates an empty history.
+     */
+    public RideHistory() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty history with room for the given number of records.
+     * @param initialCapacity Records to pre-allocate
+     */
+    public RideHistory(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 1);
+        ids = new String[capacity];
+        names = new String[capacity];
+        ages = new int[capacity];
+        visitDays = new int[capacity];
+        typeCodes = new byte[capacity];
+    }
+
+    // ------------------------------
+    // Appends and lookups
+    // ------------------------------
+
+    /**
+     * Appends a ride record copied from the visitor's fields.
+     * @param visitor The Visitor who completed the ride (not null)
+     * @return always true
+     */
+    @Override
+    public boolean add(Visitor visitor) {
+        append(visitor.getId(), visitor.getName(), visitor.getAge(),
+                visitor.getVisitorType(), visitor.getVisitDate());
+        return true;
+    }
+
+    /**
+     * Appends a ride record from its individual fields.
+     *
+     * @param id Visitor ID
+     * @param name Visitor name
+     * @param age Visitor age
+     * @param visitorType Visitor type (e.g., "Adult")
+     * @param visitDate Visit date (format: "yyyy-MM-dd"; other text is kept as-is)
+     */
+    public void append(String id, String name, int age, String visitorType, String visitDate) {
+        if (registry != null && id != null) { // Visitors without an ID are stored as they are
+            Visitor canonical = registry.intern(id, name, age, visitorType, visitDate);
+            id = canonical.getId();     // Shared with every other history on the registry
+            name = canonical.getName();
+        }
+        ensureCapacity(size + 1);
+        int row = size;
+        ids[row] = id;
+        names[row] = name;
+        ages[row] = age;
+        visitDays[row] = encodeDate(visitDate);
+        setTypeCode(row, encodeType(visitorType));
+        idIndex.putIfAbsent(id, row);
+        size++;
+        modCount++;
+        if (sortedView != null) {
+            sortedView.insert(row);
+        }
+        if (index != null) {
+            index.insert(row);
+        }
+    }
+
+    /**
+     * Attaches a park-wide VisitorRegistry: later appends store its canonical ID and name Strings,
+     * and new visitor types and date texts are taken from its string pool. Records already stored keep their Strings.
+     *
+     * @param registry Registry to share (null to stop interning)
+     */
+    public void setRegistry(VisitorRegistry registry) {
+        this.registry = registry;
+    }
+
+    public VisitorRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * Makes room for at least minCapacity records without further reallocation.
+     * @param minCapacity Records the columns must hold
+     */
+    public void ensureCapacity(int minCapacity) {
+        if (minCapacity <= ages.length) {
+            return;
+        }
+        int capacity = Math.max(minCapacity, ages.length + (ages.length >> 1));
+        ids = Arrays.copyOf(ids, capacity);
+        names = Arrays.copyOf(names, capacity);
+        ages = Arrays.copyOf(ages, capacity);
+        visitDays = Arrays.copyOf(visitDays, capacity);
+        if (wideTypeCodes != null) {
+            wideTypeCodes = Arrays.copyOf(wideTypeCodes, capacity);
+        } else {
+            typeCodes = Arrays.copyOf(typeCodes, capacity);
+        }
+    }
+
+    /**
+     * Checks whether any record has the given visitor ID (O(1)).
+     * @param id Visitor ID
+     * @return true if the ID is in the history
+     */
+    public boolean containsId(String id) {
+        return idIndex.containsKey(id);
+    }
+
+    /**
+     * Finds the first record with the given visitor ID (O(1)).
+     * @param id Visitor ID
+     * @return Row index; -1 if the ID is not in the history
+     */
+    public int indexOfId(String id) {
+        Integer row = idIndex.get(id);
+        return (row == null) ? -1 : row;
+    }
+
+    /**
+     * Checks membership by visitor ID, matching Visitor.equals().
+     */
+    @Override
+    public boolean contains(Object o) {
+        return (o instanceof Visitor) && containsId(((Visitor) o).getId());
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        return (o instanceof Visitor) ? indexOfId(((Visitor) o).getId()) : -1;
+    }
+
+    // ------------------------------
+    // Column access
+    // ------------------------------
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Builds a Visitor from the record at the given row (a copy, not a live view).
+     */
+    @Override
+    public Visitor get(int row) {
+        checkRow(row);
+        return new Visitor(ids[row], names[row], ages[row], visitorTypeAt(row), visitDateAt(row));
+    }
+
+    /**
+     * Gets the visitor ID of a record.
+     * @param row Row index
+     * @return The visitor ID
+     */
+    public String idAt(int row) {
+        checkRow(row);
+        return ids[row];
+    }
+
+    /**
+     * Gets the visitor name of a record.
+     * @param row Row index
+     * @return The visitor name
+     */
+    public String nameAt(int row) {
+        checkRow(row);
+        return names[row];
+    }
+
+    /**
+     * Gets the visitor age of a record.
+     * @param row Row index
+     * @return The visitor age
+     */
+    public int ageAt(int row) {
+        checkRow(row);
+        return ages[row];
+    }
+
+    /**
+     * Gets the visitor type (e.g., "Adult") of a record.
+     * @param row Row index
+     * @return The visitor type
+     */
+    public String visitorTypeAt(int row) {
+        checkRow(row);
+        return types.get(typeCode(row));
+    }
+
+    /**
+     * Gets the visit date of a record as an epoch day.
+     * @param row Row index
+     * @return Days since 1970-01-01; VisitDates.INVALID if the stored text is not a canonical date
+     */
+    public int visitDayAt(int row) {
+        checkRow(row);
+        return dayOrInvalid(row);
+    }
+
+    /**
+     * Gets the visit date of a record as text, exactly as it was added.
+     * @param row Row index
+     * @return Visit date text
+     */
+    public String visitDateAt(int row) {
+        checkRow(row);
+        int code = visitDays[row];
+        if (code < MIN_EPOCH_DAY) {
+            return oddDates.get(code - ODD_DATE_BASE);
+        }
+        return dayText.computeIfAbsent(code, day -> (registry != null)
+                ? registry.canonical(VisitDates.toText(day)) : VisitDates.toText(day));
+    }
+
+    /**
+     * Gets the live view of this history in VisitorComparator order (age, then visit date).
+     * The view is built once on first call (O(n log n)) and afterwards kept current as records are
+     * appended (O(log n) each), so sorted reports and age/date range queries need no re-sort.
+     *
+     * @return The sorted view
+     */
+    public SortedHistoryView sortedView() {
+        if (sortedView == null) {
+            sortedView = new SortedHistoryView(this);
+        }
+        return sortedView;
+    }
+
+    /**
+     * Starts a query by visitor type, visit date and/or age range, answered from secondary indexes.
+     * The indexes are built once on first call (O(n)) and afterwards kept current as records are
+     * appended, so later counts and filtered iterations never scan the whole history.
+     * Example: query().visitorType("Student").visitDate("2025-12-01").count().
+     *
+     * @return A new query with no filters
+     */
+    public HistoryQuery query() {
+        if (index == null) {
+            index = new HistoryIndex(this);
+        }
+        return new HistoryQuery(this, index);
+    }
+
+    // ------------------------------
+    // Sorting
+    // ------------------------------
+
+    /**
+     * Reorders the records with a Visitor comparator (stable, like Collections.sort()).
+     * @param c Comparator to sort by (not null)
+     */
+    @Override
+    public void sort(Comparator<? super Visitor> c) {
+        Visitor[] view = toArray(new Visitor[0]);
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> c.compare(view[a], view[b]));
+        int[] rows = new int[size];
+        for (int i = 0; i < size; i++) {
+            rows[i] = order[i];
+        }
+        permute(rows);
+    }
+
+    /**
+     * Sorts the records by age, then visit date (the VisitorComparator order), straight on the columns.
+     * Normally each record becomes one long key packing (age, visit day, row index) with each part
+     * offset to its minimum and given only the bits it needs; the keys are sorted with
+     * Arrays.parallelSort() on all cores and the new row order is read back from the low bits.
+     * The row index makes every key unique, so equal (age, date) records keep their order (stable).
+     * If the parts do not fit in 63 bits, or some visit date is invalid, a stable merge sort of
+     * row indexes using VisitorComparator.compareKeys() is used instead.
+     * Either way no Visitor objects are built and no dates are parsed.
+     *
+     * @throws IllegalArgumentException If two records with the same age are compared and either visit date is invalid
+     */
+    public void sortByAgeAndDate() {
+        if (size < 2) {
+            return;
+        }
+        int[] order = oddDates.isEmpty() ? packedKeyOrder() : null;
+        if (order == null) {
+            order = new int[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            mergeSort(order, new int[size], 0, size);
+        }
+        permute(order);
+    }
+
+    /**
+     * Computes the sorted row order with packed (age, visit day, row) keys and a parallel sort.
+     * @return Old row index for each new position; null if the keys do not fit in 63 bits
+     */
+    private int[] packedKeyOrder() {
+        int minAge = Integer.MAX_VALUE, maxAge = Integer.MIN_VALUE;
+        int minDay = Integer.MAX_VALUE, maxDay = Integer.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            minAge = Math.min(minAge, ages[i]);
+            maxAge = Math.max(maxAge, ages[i]);
+            minDay = Math.min(minDay, visitDays[i]);
+            maxDay = Math.max(maxDay, visitDays[i]);
+        }
+        int rowBits = bitsFor(size - 1L);
+        int dayBits = bitsFor((long) maxDay - minDay);
+        int ageBits = bitsFor((long) maxAge - minAge);
+        if (rowBits + dayBits + ageBits > 63) {
+            return null;
+        }
+
+        int dayShift = rowBits;
+        int ageShift = rowBits + dayBits;
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = (((long) ages[i] - minAge) << ageShift)
+                    | (((long) visitDays[i] - minDay) << dayShift)
+                    | i;
+        }
+        Arrays.parallelSort(keys);
+
+        long rowMask = (1L << rowBits) - 1;
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = (int) (keys[i] & rowMask);
+        }
+        return order;
+    }
+
+    /**
+     * Number of bits needed to hold values 0..maxValue.
+     */
+    private static int bitsFor(long maxValue) {
+        return 64 - Long.numberOfLeadingZeros(maxValue);
+    }
+
+    /**
+     * Stable top-down merge sort of rows[from, to) by (age, visit date), with insertion sort for short runs.
+     */
+    private void mergeSort(int[] rows, int[] scratch, int from, int to) {
+        if (to - from <= 16) {
+            for (int i = from + 1; i < to; i++) {
+                int row = rows[i];
+                int j = i - 1;
+                while (j >= from && compareRows(rows[j], row) > 0) {
+                    rows[j + 1] = rows[j];
+                    j--;
+                }
+                rows[j + 1] = row;
+            }
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        mergeSort(rows, scratch, from, mid);
+        mergeSort(rows, scratch, mid, to);
+        if (compareRows(rows[mid - 1], rows[mid]) <= 0) {
+            return; // Already in order
+        }
+        System.arraycopy(rows, from, scratch, from, to - from);
+        int left = from;
+        int right = mid;
+        for (int k = from; k < to; k++) {
+            if (right >= to || (left < mid && compareRows(scratch[left], scratch[right]) <= 0)) {
+                rows[k] = scratch[left++];
+            } else {
+                rows[k] = scratch[right++];
+            }
+        }
+    }
+
+    private int compareRows(int a, int b) {
+        return VisitorComparator.compareKeys(ages[a], dayOrInvalid(a), ages[b], dayOrInvalid(b));
+    }
+
+    private int dayOrInvalid(int row) {
+        int code = visitDays[row];
+        return (code < MIN_EPOCH_DAY) ? VisitDates.INVALID : code;
+    }
+
+    /**
+     * Rearranges all columns so that new row i holds old row order[i], then rebuilds the ID index.
+     * @param order Old row index for each new position (a permutation of 0..size-1)
+     */
+    void permute(int[] order) {
+        String[] newIds = new String[ids.length];
+        String[] newNames = new String[names.length];
+        int[] newAges = new int[ages.length];
+        int[] newDays = new int[visitDays.length];
+        for (int i = 0; i < size; i++) {
+            int from = order[i];
+            newIds[i] = ids[from];
+            newNames[i] = names[from];
+            newAges[i] = ages[from];
+            newDays[i] = visitDays[from];
+        }
+        if (wideTypeCodes != null) {
+            char[] newCodes = new char[wideTypeCodes.length];
+            for (int i = 0; i < size; i++) {
+                newCodes[i] = wideTypeCodes[order[i]];
+            }
+            wideTypeCodes = newCodes;
+        } else {
+            byte[] newCodes = new byte[typeCodes.length];
+            for (int i = 0; i < size; i++) {
+                newCodes[i] = typeCodes[order[i]];
+            }
+            typeCodes = newCodes;
+        }
+        ids = newIds;
+        names = newNames;
+        ages = newAges;
+        visitDays = newDays;
+
+        idIndex.clear();
+        for (int i = 0; i < size; i++) {
+            idIndex.putIfAbsent(ids[i], i);
+        }
+        if (sortedView != null) {
+            sortedView.rebuild(); // Row numbers changed; views handed out earlier must stay valid
+        }
+        if (index != null) {
+            index.rebuild(); // Queries created earlier hold this instance
+        }
+        reorders++;
+        modCount++;
+    }
+
+    // ------------------------------
+    // Encoding helpers
+    // ------------------------------
+
+    private int encodeDate(String visitDate) {
+        int epochDay = VisitDates.toEpochDay(visitDate);
+        if (epochDay != VisitDates.INVALID) {
+            return epochDay;
+        }
+        Integer index = oddDateIndex.get(visitDate);
+        if (index == null) {
+            index = oddDates.size();
+            visitDate = (registry != null) ? registry.canonical(visitDate) : visitDate;
+            oddDates.add(visitDate);
+            oddDateIndex.put(visitDate, index);
+        }
+        return ODD_DATE_BASE + index;
+    }
+
+    private int encodeType(String visitorType) {
+        Integer code = typeIndex.get(visitorType);
+        if (code == null) {
+            if (types.size() == MAX_TYPES) {
+                throw new IllegalStateException("Ride history supports at most " + MAX_TYPES + " visitor types");
+            }
+            code = types.size();
+            visitorType = (registry != null) ? registry.canonical(visitorType) : visitorType;
+            types.add(visitorType);
+            typeIndex.put(visitorType, code);
+            if (code == MAX_BYTE_TYPES && wideTypeCodes == null) {
+                // Too many types for a byte: switch to char codes
+                wideTypeCodes = new char[typeCodes.length];
+                for (int i = 0; i < size; i++) {
+                    wideTypeCodes[i] = (char) (typeCodes[i] & 0xFF);
+                }
+                typeCodes = null;
+            }
+        }
+        return code;
+    }
+
+    private void setTypeCode(int row, int code) {
+        if (wideTypeCodes != null) {
+            wideTypeCodes[row] = (char) code;
+        } else {
+            typeCodes[row] = (byte) code;
+        }
+    }
+
+    private int typeCode(int row) {
+        return (wideTypeCodes != null) ? wideTypeCodes[row] : (typeCodes[row] & 0xFF);
+    }
+
+    /**
+     * Fills the visit-date text cache for every date in the history, so that afterwards get() and
+     * visitDateAt() only read shared state and several threads may read the (unchanging) history at once.
+     */
+    void prepareConcurrentReads() {
+        int lastCode = 0;
+        for (int row = 0; row < size; row++) {
+            int code = visitDays[row];
+            if (row == 0 || code != lastCode) { // Consecutive rows usually share a date
+                visitDateAt(row);
+                lastCode = code;
+            }
+        }
+    }
+
+    // ------------------------------
+    // Dictionary codes (for HistoryIndex and HistoryQuery)
+    // ------------------------------
+
+    int typeCodeAt(int row) {
+        return typeCode(row);
+    }
+
+    /**
+     * Looks up the dictionary code of a visitor type without adding it.
+     * @return Type code; -1 if no record has this type
+     */
+    int typeCodeOf(String visitorType) {
+        Integer code = typeIndex.get(visitorType);
+        return (code == null) ? -1 : code;
+    }
+
+    int dateCodeAt(int row) {
+        return visitDays[row];
+    }
+
+    /**
+     * Looks up the stored code of a visit date without adding it.
+     * @return Date code (epoch day for canonical dates); null if the text is neither a date nor a stored odd date
+     */
+    Integer dateCodeOf(String visitDate) {
+        int epochDay = VisitDates.toEpochDay(visitDate);
+        if (epochDay != VisitDates.INVALID) {
+            return epochDay;
+        }
+        Integer oddIndex = oddDateIndex.get(visitDate);
+        return (oddIndex == null) ? null : ODD_DATE_BASE + oddIndex;
+    }
+
+    int modCount() {
+        return modCount;
+    }
+
+    /**
+     * Gets how often the rows were reordered. Appends never move rows, so a row number (e.g. a
+     * HistoryCursor position) stays valid for as long as this count is unchanged.
+     */
+    int reorderCount() {
+        return reorders;
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " out of bounds for history size " + size);
+        }
+    }
+}
@@ -1,3 +1,5 @@
+import java.util.Collection;
+
 /**
  * Interface RideInterface: Defines the core functionalities that a theme park ride (Ride class) must implement.
  * Includes methods for visitor queue management, ride history tracking, and ride cycle operation (as required by Part 2).
@@ -9,6 +11,14 @@ public interface RideInterface {
      */
     void addVisitorToQueue(Visitor visitor);
 
+    /**
+     * Adds a group of visitors to the waiting queue in one call (e.g. a tour group), in order.
+     * Null entries are skipped; if the queue has a capacity, visitors beyond the free room are turned away.
+     * @param visitors The Visitors to be added to the queue
+     * @return How many were queued, skipped and turned away
+     */
+    RideBatchResult addVisitorsToQueue(Collection<? extends Visitor> visitors);
+
     /**
      * Removes and returns the first visitor from the waiting queue (FIFO).
      * @return The removed Visitor; null if the queue is empty
@@ -26,6 +36,13 @@ public interface RideInterface {
      */
     void addVisitorToHistory(Visitor visitor);
 
+    /**
+     * Adds a group of visitors to the ride's historical record in one call, in order (null entries are skipped).
+     * @param visitors The Visitors to be added to the history
+     * @return How many were added and skipped
+     */
+    RideBatchResult addVisitorsToHistory(Collection<? extends Visitor> visitors);
+
     /**
      * Checks if a specific visitor exists in the ride's historical record.
      * @param visitor The Visitor to check
@@ -48,6 +65,27 @@ public interface RideInterface {
      * Runs one cycle of the ride: Transfers up to maxRider visitors from the queue to the history (per Part 5).
      */
     void runOneCycle();
+
+    /**
+     * Runs up to the given number of cycles back to back, stopping early once the queue is empty.
+     * @param cycles Number of cycles to run
+     * @return Visitors moved to the history and cycles completed
+     */
+    RideBatchResult runCycles(int cycles);
     void exportRideHistory(String exportPath);
     void importRideHistory(String importPath);
+
+    /**
+     * Saves the ride history in the compact binary format (see HistoryBinaryCodec).
+     * Holds the same data as exportRideHistory(), but loads much faster and is smaller on disk.
+     * @param exportPath Path of the binary file to create or replace
+     */
+    void exportRideHistoryBinary(String exportPath);
+
+    /**
+     * Restores ride history from a file written by exportRideHistoryBinary().
+     * Visitors already in the history (same ID) are skipped, as with importRideHistory().
+     * @param importPath Path of the binary file to read
+     */
+    void importRideHistoryBinary(String importPath);
 }
\ No newline at end of file
@@ -0,0 +1,235 @@
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Class RideMetrics: Runtime instrumentation of one Ride: queue traffic, cycles, and wait/cycle-time histograms.
+ * The ride's hot paths never lock or allocate for metrics: counters and histograms written only by the operator
+ * thread (dequeues, cycles, wait and cycle times) use single-writer ordered stores, and the enqueue counter is
+ * a LongAdder only when many threads may enqueue (concurrent mode).
+ * Snapshots (Ride.getMetricsSnapshot()) may be taken from any thread, e.g. a MetricsReporter, while the ride runs.
+ * Times are in nanoseconds, all measured with System.nanoTime(): wait time from addVisitorToQueue() to the
+ * start of the boarding cycle, and cycle latency.
+ */
+public class RideMetrics {
+    private final LongAdder sharedEnqueues;                // Concurrent mode: any thread enqueues
+    private final AtomicLong enqueues = new AtomicLong();  // Single-threaded mode
+    private final AtomicLong dequeues = new AtomicLong();  // Boarded in a cycle or removed from the queue
+    private final AtomicLong cycles = new AtomicLong();
+    private final AtomicLong riders = new AtomicLong();
+    private final LatencyHistogram waitTime = new LatencyHistogram();
+    private final LatencyHistogram cycleLatency = new LatencyHistogram();
+    private final LatencyHistogram ridersPerCycle = new LatencyHistogram();
+
+    /**
+     * Creates empty metrics.
+     * @param concurrentEnqueues true if several threads may call recordEnqueue() at the same time
+     */
+    RideMetrics(boolean concurrentEnqueues) {
+        this.sharedEnqueues = concurrentEnqueues ? new LongAdder() : null;
+    }
+
+    void recordEnqueue() {
+        if (sharedEnqueues != null) {
+            sharedEnqueues.increment();
+        } else {
+            increment(enqueues, 1);
+        }
+    }
+
+    void recordEnqueues(int count) {
+        if (sharedEnqueues != null) {
+            sharedEnqueues.add(count);
+        } else {
+            increment(enqueues, count);
+        }
+    }
+
+    void recordRemove() {
+        increment(dequeues, 1);
+    }
+
+    void recordBoarding(long waitNanos) {
+        increment(dequeues, 1);
+        waitTime.record(waitNanos);
+    }
+
+    void recordCycle(int riderCount, long latencyNanos) {
+        increment(cycles, 1);
+        increment(riders, riderCount);
+        ridersPerCycle.record(riderCount);
+        cycleLatency.record(latencyNanos);
+    }
+
+    /**
+     * Gets the number of visitors waiting right now (enqueues minus dequeues) without a full snapshot.
+     * @return Current queue depth
+     */
+    long queueDepth() {
+        long dequeued = dequeues.get();
+        long enqueued = (sharedEnqueues != null) ? sharedEnqueues.sum() : enqueues.get();
+        return Math.max(enqueued - dequeued, 0);
+    }
+
+    /**
+     * Adds to a counter that only one thread writes: an ordered store instead of an atomic add.
+     */
+    private static void increment(AtomicLong counter, long delta) {
+        counter.lazySet(counter.get() + delta);
+    }
+
+    /**
+     * Copies all counters and histograms without stopping writers.
+     * @param rideName Name of the ride, reported in the snapshot
+     * @return Snapshot of the current metrics
+     */
+    Snapshot snapshot(String rideName) {
+        long dequeued = dequeues.get(); // Read before enqueues so the queue depth never goes negative
+        long enqueued = (sharedEnqueues != null) ? sharedEnqueues.sum() : enqueues.get();
+        return new Snapshot(rideName, System.currentTimeMillis(), enqueued, dequeued, cycles.get(), riders.get(),
+                waitTime.snapshot(), cycleLatency.snapshot(), ridersPerCycle.snapshot());
+    }
+
+    /**
+     * Immutable copy of a ride's metrics, with text and JSON renderings.
+     */
+    public static final class Snapshot {
+        private final String rideName;
+        private final long timestampMillis;
+        private final long enqueues;
+        private final long dequeues;
+        private final long cycles;
+        private final long riders;
+        private final LatencyHistogram.Snapshot waitTime;
+        private final LatencyHistogram.Snapshot cycleLatency;
+        private final LatencyHistogram.Snapshot ridersPerCycle;
+
+        Snapshot(String rideName, long timestampMillis, long enqueues, long dequeues, long cycles, long riders,
+                 LatencyHistogram.Snapshot waitTime, LatencyHistogram.Snapshot cycleLatency,
+                 LatencyHistogram.Snapshot ridersPerCycle) {
+            this.rideName = rideName;
+            this.timestampMillis = timestampMillis;
+            this.enqueues = enqueues;
+            this.dequeues = dequeues;
+            this.cycles = cycles;
+            this.riders = riders;
+            this.waitTime = waitTime;
+            this.cycleLatency = cycleLatency;
+            this.ridersPerCycle = ridersPerCycle;
+        }
+
+        public String getRideName() {
+            return rideName;
+        }
+
+        public long getTimestampMillis() {
+            return timestampMillis;
+        }
+
+        public long getEnqueues() {
+            return enqueues;
+        }
+
+        public long getDequeues() {
+            return dequeues;
+        }
+
+        public long getCycles() {
+            return cycles;
+        }
+
+        public long getRiders() {
+            return riders;
+        }
+
+        /**
+         * Gets the number of visitors waiting (enqueues minus dequeues, without walking the queue).
+         * @return Queue depth at snapshot time
+         */
+        public long getQueueDepth() {
+            return Math.max(enqueues - dequeues, 0);
+        }
+
+        public LatencyHistogram.Snapshot getWaitTime() {
+            return waitTime;
+        }
+
+        public LatencyHistogram.Snapshot getCycleLatency() {
+            return cycleLatency;
+        }
+
+        public LatencyHistogram.Snapshot getRidersPerCycle() {
+            return ridersPerCycle;
+        }
+
+        /**
+         * Renders the snapshot as one line of text (times in milliseconds).
+         * @return Text line
+         */
+        public String toText() {
+            return String.format(Locale.ROOT,
+                    "[METRICS] %s: queue=%d enqueued=%d dequeued=%d cycles=%d riders=%d (avg %.1f/cycle)"
+                            + " | wait ms p50=%.3f p99=%.3f max=%.3f | cycle ms p50=%.3f p99=%.3f max=%.3f",
+                    rideName, getQueueDepth(), enqueues, dequeues, cycles, riders, ridersPerCycle.getMean(),
+                    millis(waitTime.getPercentile(50)), millis(waitTime.getPercentile(99)), millis(waitTime.getMax()),
+                    millis(cycleLatency.getPercentile(50)), millis(cycleLatency.getPercentile(99)),
+                    millis(cycleLatency.getMax()));
+        }
+
+        /**
+         * Renders the snapshot as one JSON object (times in nanoseconds).
+         * @return JSON text
+         */
+        public String toJson() {
+            StringBuilder json = new StringBuilder(512);
+            json.append("{\"ride\":\"").append(escape(rideName)).append('"')
+                    .append(",\"timestampMillis\":").append(timestampMillis)
+                    .append(",\"queueDepth\":").append(getQueueDepth())
+                    .append(",\"enqueues\":").append(enqueues)
+                    .append(",\"dequeues\":").append(dequeues)
+                    .append(",\"cycles\":").append(cycles)
+                    .append(",\"riders\":").append(riders);
+            appendHistogram(json, "waitNanos", waitTime);
+            appendHistogram(json, "cycleNanos", cycleLatency);
+            appendHistogram(json, "ridersPerCycle", ridersPerCycle);
+            return json.append('}').toString();
+        }
+
+        @Override
+        public String toString() {
+            return toText();
+        }
+
+        private static void appendHistogram(StringBuilder json, String name, LatencyHistogram.Snapshot histogram) {
+            json.append(",\"").append(name).append("\":{\"count\":").append(histogram.getCount())
+                    .append(",\"mean\":").append(String.format(Locale.ROOT, "%.1f", histogram.getMean()))
+                    .append(",\"p50\":").append(histogram.getPercentile(50))
+                    .append(",\"p90\":").append(histogram.getPercentile(90))
+                    .append(",\"p99\":").append(histogram.getPercentile(99))
+                    .append(",\"p999\":").append(histogram.getPercentile(99.9))
+                    .append(",\"max\":").append(histogram.getMax()).append('}');
+        }
+
+        private static double millis(long nanos) {
+            return nanos / 1e6;
+        }
+
+        private static String escape(String text) {
+            if (text == null) {
+                return "";
+            }
+            StringBuilder escaped = new StringBuilder(text.length());
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c == '"' || c == '\\') {
+                    escaped.append('\\').append(c);
+                } else if (c < 0x20) {
+                    escaped.append(String.format("\\u%04x", (int) c));
+                } else {
+                    escaped.append(c);
+                }
+            }
+            return escaped.toString();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+/**
+ * Class SilentEventSink: Discards all RideEvents. Rides check isEnabled() first,
+ * so in silent mode queue and history operations build no events and do no I/O.
+ */
+public final class SilentEventSink implements RideEventSink {
+    /** Shared instance (the sink has no state). */
+    public static final SilentEventSink INSTANCE = new SilentEventSink();
+
+    private SilentEventSink() {}
+
+    @Override
+    public void publish(RideEvent event) {
+        // Intentionally empty
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return false;
+    }
+}
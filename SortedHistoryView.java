@@ -0,0 +1,170 @@
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+
+/**
+ * Class SortedHistoryView: Live view of a RideHistory in VisitorComparator order (age, then visit date).
+ * Backed by balanced trees (age → visit day → rows), so each new record is inserted in O(log n)
+ * and sorted iteration or range queries never need a full re-sort of the history.
+ * Records with the same age and date keep their history order. Records whose visit date is not a
+ * valid "yyyy-MM-dd" date are placed after all valid dates of the same age.
+ * Obtain one through RideHistory.sortedView(); it stays up to date as records are appended, and
+ * the same instance is rebuilt in place when the history itself is sorted (row numbers change).
+ */
+public class SortedHistoryView implements Iterable<Visitor> {
+    /** Tree key for records with an invalid visit date (after every real date). */
+    private static final int INVALID_DAY_KEY = Integer.MAX_VALUE;
+
+    private final RideHistory history;
+    private final TreeMap<Integer, TreeMap<Integer, IntList>> rowsByAgeAndDay = new TreeMap<>();
+
+    /**
+     * Builds the view from the current contents of a history.
+     * @param history History to view
+     */
+    SortedHistoryView(RideHistory history) {
+        this.history = history;
+        rebuild();
+    }
+
+    /**
+     * Rebuilds the trees from the history's current row numbers (after the history was reordered).
+     */
+    void rebuild() {
+        rowsByAgeAndDay.clear();
+        for (int row = 0; row < history.size(); row++) {
+            insert(row);
+        }
+    }
+
+    /**
+     * Adds a record that was just appended to the history (rows must be inserted in increasing order).
+     * @param row Row index of the new record
+     */
+    void insert(int row) {
+        int day = history.visitDayAt(row);
+        rowsByAgeAndDay
+                .computeIfAbsent(history.ageAt(row), age -> new TreeMap<>())
+                .computeIfAbsent(day == VisitDates.INVALID ? INVALID_DAY_KEY : day, key -> new IntList())
+                .add(row);
+    }
+
+    /**
+     * Gets the number of records in the view (same as the history).
+     * @return Record count
+     */
+    public int size() {
+        return history.size();
+    }
+
+    /**
+     * Iterates over all records in sorted order (each Visitor is built from the history columns).
+     */
+    @Override
+    public Iterator<Visitor> iterator() {
+        return new RowIterator(rowsByAgeAndDay);
+    }
+
+    /**
+     * Finds all riders aged minAge..maxAge (inclusive) who visited on the given date, in sorted order.
+     * Example: findRiders(12, 17, "2025-12-01").
+     *
+     * @param minAge Lowest age to include
+     * @param maxAge Highest age to include
+     * @param visitDate Visit date (format: "yyyy-MM-dd")
+     * @return Matching riders; empty if none match or the date is not a valid date
+     */
+    public List<Visitor> findRiders(int minAge, int maxAge, String visitDate) {
+        List<Visitor> riders = new ArrayList<>();
+        int day = VisitDates.toEpochDay(visitDate);
+        if (day == VisitDates.INVALID || minAge > maxAge) {
+            return riders;
+        }
+        for (TreeMap<Integer, IntList> byDay : rowsByAgeAndDay.subMap(minAge, true, maxAge, true).values()) {
+            IntList rows = byDay.get(day);
+            if (rows != null) {
+                for (int i = 0; i < rows.size(); i++) {
+                    riders.add(history.get(rows.get(i)));
+                }
+            }
+        }
+        return riders;
+    }
+
+    /**
+     * Counts riders aged minAge..maxAge (inclusive) who visited on the given date, without building Visitors.
+     *
+     * @param minAge Lowest age to include
+     * @param maxAge Highest age to include
+     * @param visitDate Visit date (format: "yyyy-MM-dd")
+     * @return Number of matching riders
+     */
+    public int countRiders(int minAge, int maxAge, String visitDate) {
+        int day = VisitDates.toEpochDay(visitDate);
+        if (day == VisitDates.INVALID || minAge > maxAge) {
+            return 0;
+        }
+        int count = 0;
+        for (TreeMap<Integer, IntList> byDay : rowsByAgeAndDay.subMap(minAge, true, maxAge, true).values()) {
+            IntList rows = byDay.get(day);
+            count += (rows == null) ? 0 : rows.size();
+        }
+        return count;
+    }
+
+    /**
+     * Iterates over all riders aged minAge..maxAge (inclusive), any date, in sorted order.
+     *
+     * @param minAge Lowest age to include
+     * @param maxAge Highest age to include
+     * @return Iterable over the matching riders
+     */
+    public Iterable<Visitor> ageRange(int minAge, int maxAge) {
+        if (minAge > maxAge) {
+            return new ArrayList<>();
+        }
+        NavigableMap<Integer, TreeMap<Integer, IntList>> range = rowsByAgeAndDay.subMap(minAge, true, maxAge, true);
+        return () -> new RowIterator(range);
+    }
+
+    /**
+     * Walks the age → day → rows trees in order and builds one Visitor per row.
+     */
+    private final class RowIterator implements Iterator<Visitor> {
+        private final Iterator<TreeMap<Integer, IntList>> ages;
+        private Iterator<IntList> days;
+        private IntList rows;
+        private int next;
+
+        RowIterator(Map<Integer, TreeMap<Integer, IntList>> byAge) {
+            this.ages = byAge.values().iterator();
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (rows == null || next >= rows.size()) {
+                if (days != null && days.hasNext()) {
+                    rows = days.next();
+                    next = 0;
+                } else if (ages.hasNext()) {
+                    days = ages.next().values().iterator();
+                } else {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public Visitor next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return history.get(rows.get(next++));
+        }
+    }
+}
@@ -0,0 +1,60 @@
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Class VirtualQueue: Hands out return-time slots for a ride instead of keeping visitors in its waiting line.
+ * Time is cut into windows of one cycle interval; each window holds maxRider visitors, which is the ride's
+ * drain rate (maxRider × cycle rate). A new reservation gets the first window with a free seat that starts
+ * after the visitors already waiting in the physical line have boarded. Only a slot cursor is stored,
+ * so memory stays flat however many reservations are issued.
+ */
+final class VirtualQueue {
+    private final Duration cycleInterval;
+    private final Duration returnWindow;
+    private final Clock clock;
+    private Instant slotStart;   // Start of the window currently being filled (guarded by this)
+    private int seatsTaken;      // Reservations already in that window
+
+    /**
+     * Creates a virtual queue.
+     *
+     * @param cycleInterval Time between ride cycles
+     * @param returnWindow How long after its start a slot stays valid
+     * @param clock Clock for "now"
+     */
+    VirtualQueue(Duration cycleInterval, Duration returnWindow, Clock clock) {
+        this.cycleInterval = cycleInterval;
+        this.returnWindow = returnWindow;
+        this.clock = clock;
+    }
+
+    /**
+     * Reserves the next free seat.
+     *
+     * @param rideName Ride the slot is for
+     * @param visitorId Visitor who gets the slot
+     * @param seatsPerCycle Current maxRider of the ride
+     * @param physicalBacklog Visitors waiting in the physical line right now
+     * @return The return slot
+     */
+    synchronized ReturnSlot reserve(String rideName, String visitorId, int seatsPerCycle, long physicalBacklog) {
+        int seats = Math.max(seatsPerCycle, 1);
+        Instant now = clock.instant();
+        long cyclesToDrain = (physicalBacklog + seats - 1) / seats;
+        Instant earliest = now.plus(cycleInterval.multipliedBy(cyclesToDrain));
+        if (slotStart == null || slotStart.isBefore(earliest)) {
+            slotStart = earliest;   // Nothing reserved after the backlog drains: start a fresh window there
+            seatsTaken = 0;
+        } else if (seatsTaken >= seats) {
+            slotStart = slotStart.plus(cycleInterval);
+            seatsTaken = 0;
+        }
+        seatsTaken++;
+        return new ReturnSlot(rideName, visitorId, slotStart, slotStart.plus(returnWindow));
+    }
+
+    Instant now() {
+        return clock.instant();
+    }
+}
@@ -0,0 +1,62 @@
+import java.time.DateTimeException;
+import java.time.LocalDate;
+
+/**
+ * Class VisitDates: Converts visit dates between their "yyyy-MM-dd" text form and epoch-day ints.
+ * Parsing checks the pattern by hand, so invalid text costs no exception. Only canonical dates
+ * (exactly what LocalDate.toString() prints for years 0000-9999) convert, so toText(toEpochDay(s))
+ * always gives back s.
+ */
+final class VisitDates {
+    /** Marker returned for text that is not a canonical "yyyy-MM-dd" date. */
+    static final int INVALID = Integer.MIN_VALUE;
+
+    private VisitDates() {}
+
+    /**
+     * Converts a visit date to days since 1970-01-01.
+     * @param text Visit date (format: "yyyy-MM-dd")
+     * @return Epoch day; INVALID if text is null, malformed or not a real date
+     */
+    static int toEpochDay(String text) {
+        if (text == null || text.length() != 10 || text.charAt(4) != '-' || text.charAt(7) != '-') {
+            return INVALID;
+        }
+        int year = digits(text, 0, 4);
+        int month = digits(text, 5, 7);
+        int day = digits(text, 8, 10);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > 31) {
+            return INVALID;
+        }
+        try {
+            return (int) LocalDate.of(year, month, day).toEpochDay();
+        } catch (DateTimeException e) {
+            return INVALID; // e.g. "2025-02-30"
+        }
+    }
+
+    /**
+     * Converts an epoch day back to its "yyyy-MM-dd" text.
+     * @param epochDay Days since 1970-01-01 (not INVALID)
+     * @return Visit date text
+     */
+    static String toText(int epochDay) {
+        return LocalDate.ofEpochDay(epochDay).toString();
+    }
+
+    /**
+     * Parses the decimal digits text[from, to).
+     * @return The value; -1 if any character is not a digit
+     */
+    private static int digits(String text, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+}
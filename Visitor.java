@@ -10,6 +10,9 @@ public class Visitor extends Person {
     // Date the visitor entered the park (format: "yyyy-MM-dd", e.g., "2025-12-01")
     private String visitDate;
 
+    // Visit date as days since 1970-01-01, parsed once whenever visitDate is set (VisitDates.INVALID if not "yyyy-MM-dd")
+    private int visitEpochDay = VisitDates.INVALID;
+
     /**
      * Default no-argument constructor: Calls the parent class (Person) no-arg constructor.
      */
@@ -30,6 +33,7 @@ public class Visitor extends Person {
         super(id, name, age); // Initialize parent (Person) attributes first
         this.visitorType = visitorType;
         this.visitDate = visitDate;
+        this.visitEpochDay = VisitDates.toEpochDay(visitDate); // Validate and parse the date once
     }
 
     /**
@@ -51,6 +55,17 @@ public class Visitor extends Person {
         return getId().equals(visitor.getId());
     }
 
+    /**
+     * Overrides the default hashCode() method: Hashes the unique ID so it stays consistent with equals().
+     * Required for hash-based lookups (e.g., the visitor-ID index kept by Ride next to its ride history).
+     *
+     * @return Hash code derived from the visitor's ID (0 if the ID is not set)
+     */
+    @Override
+    public int hashCode() {
+        return (getId() == null) ? 0 : getId().hashCode();
+    }
+
     /**
      * Gets the visitor's type (e.g., "Adult").
      * @return Visitor's type
@@ -81,5 +96,22 @@ public class Visitor extends Person {
      */
     public void setVisitDate(String visitDate) {
         this.visitDate = visitDate;
+        this.visitEpochDay = VisitDates.toEpochDay(visitDate); // Validate and parse once, not on every compare
+    }
+
+    /**
+     * Gets the visit date as a number of days since 1970-01-01 (parsed when the date was set).
+     * @return Epoch day; VisitDates.INVALID if the visit date is not a valid "yyyy-MM-dd" date
+     */
+    public int getVisitEpochDay() {
+        return visitEpochDay;
+    }
+
+    /**
+     * Checks whether the visit date is a valid "yyyy-MM-dd" date.
+     * @return true if getVisitEpochDay() holds a real date
+     */
+    public boolean hasValidVisitDate() {
+        return visitEpochDay != VisitDates.INVALID;
     }
 }
\ No newline at end of file
@@ -1,9 +1,10 @@
 import java.util.Comparator;
-import java.time.LocalDate;
 
 /**
  * Comparator for Visitor objects: Sorts visitors first by age (ascending), then by visit date (ascending).
  * Implements Comparator<Visitor> (Part 4B requirement: Cannot use Comparable interface).
+ * Visit dates are compared through the epoch day each Visitor parsed once when its date was set,
+ * so comparing never parses text or allocates.
  */
 public class VisitorComparator implements Comparator<Visitor> {
 
@@ -19,19 +20,31 @@ public class VisitorComparator implements Comparator<Visitor> {
      */
     @Override
     public int compare(Visitor v1, Visitor v2) {
-        // Step 1: Compare ages (int type, direct subtraction for ascending order)
-        int ageComparison = v1.getAge() - v2.getAge();
+        return compareKeys(v1.getAge(), v1.getVisitEpochDay(), v2.getAge(), v2.getVisitEpochDay());
+    }
+
+    /**
+     * Primitive form of compare(): orders (age, visit epoch day) pairs the same way, without Visitor objects.
+     * Used by RideHistory to sort its columns directly.
+     *
+     * @param age1 Age of the first visitor
+     * @param epochDay1 Visit date of the first visitor as an epoch day (VisitDates.INVALID if invalid)
+     * @param age2 Age of the second visitor
+     * @param epochDay2 Visit date of the second visitor as an epoch day (VisitDates.INVALID if invalid)
+     * @return Negative, zero or positive like compare()
+     * @throws IllegalArgumentException If the ages are equal and either visit date is invalid
+     */
+    public static int compareKeys(int age1, int epochDay1, int age2, int epochDay2) {
+        // Step 1: Compare ages (ascending order)
+        int ageComparison = Integer.compare(age1, age2);
         if (ageComparison != 0) {
             return ageComparison; // Ages differ: return result immediately
         }
 
-        // Step 2: Ages are equal → Compare visit dates (convert String to LocalDate for valid date comparison)
-        try {
-            LocalDate date1 = LocalDate.parse(v1.getVisitDate()); // Parse "yyyy-MM-dd" to LocalDate
-            LocalDate date2 = LocalDate.parse(v2.getVisitDate());
-            return date1.compareTo(date2); // Ascending order: earlier date → smaller value
-        } catch (Exception e) {
-            throw new IllegalArgumentException("Invalid visit date format (required: yyyy-MM-dd). Error: " + e.getMessage());
+        // Step 2: Ages are equal → Compare visit dates (pre-parsed epoch days: earlier date → smaller value)
+        if (epochDay1 == VisitDates.INVALID || epochDay2 == VisitDates.INVALID) {
+            throw new IllegalArgumentException("Invalid visit date format (required: yyyy-MM-dd)");
         }
+        return Integer.compare(epochDay1, epochDay2);
     }
 }
\ No newline at end of file
@@ -0,0 +1,114 @@
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Class VisitorRegistry: Park-wide interning of visitors and low-cardinality strings.
+ * The registry keeps one canonical Visitor per visitor ID, plus one canonical copy of each visitor type
+ * and visit-date text. Ride histories attached to the same registry store the canonical ID and name Strings,
+ * and their type and date dictionaries use the canonical strings too. A visitor who rides 20 rides then costs
+ * 20 small column entries pointing at one set of Strings, instead of 20 copies parsed from 20 imports.
+ *
+ * Thread-safe: rides in a Park append to their histories concurrently. Canonical Visitors are shared, so
+ * treat them as read-only. Visitors without an ID are passed through without being registered.
+ *
+ * Entries are never evicted: every visitor ID and pooled string stays registered for as long as the registry
+ * itself is reachable (from the Park that shared it, or from any ride history still attached to it). Memory
+ * therefore grows with the number of distinct visitors seen; start a new registry (e.g. per park day) to
+ * release them. Every append of every attached history goes through one shared map, so sharing a registry
+ * across many busy rides trades some contention for the memory it saves (see Park.shareVisitorRegistry()).
+ */
+public class VisitorRegistry {
+    /** Most distinct strings kept by canonical() (types and dates are few; anything beyond is not pooled). */
+    public static final int MAX_POOLED_STRINGS = 1 << 16;
+
+    private final ConcurrentHashMap<String, Visitor> visitorsById = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, String> strings = new ConcurrentHashMap<>();
+
+    /**
+     * Gets the canonical Visitor for a visitor's ID, registering this visitor if the ID is new.
+     * If the registered visitor has a different name, age, type or date, a Visitor with these fields is
+     * returned instead. Its ID (and, when unchanged, its name) is the canonical String.
+     *
+     * @param visitor Visitor to intern (not null)
+     * @return Canonical Visitor (shared) or a copy with canonical Strings; the visitor itself if it has no ID
+     */
+    public Visitor intern(Visitor visitor) {
+        if (visitor.getId() == null) {
+            return visitor;
+        }
+        return intern(visitor.getId(), visitor.getName(), visitor.getAge(),
+                visitor.getVisitorType(), visitor.getVisitDate());
+    }
+
+    /**
+     * Same as intern(Visitor), from individual fields (no Visitor is built for a known visitor with the same fields).
+     *
+     * @param id Visitor ID (null = not registered: a new Visitor with these fields is returned)
+     * @param name Visitor name
+     * @param age Visitor age
+     * @param visitorType Visitor type (e.g., "Adult")
+     * @param visitDate Visit date (format: "yyyy-MM-dd")
+     * @return Canonical Visitor (shared) or a copy with canonical Strings
+     */
+    public Visitor intern(String id, String name, int age, String visitorType, String visitDate) {
+        if (id == null) {
+            return new Visitor(null, name, age, canonical(visitorType), canonical(visitDate));
+        }
+        Visitor known = visitorsById.get(id);
+        if (known == null) {
+            Visitor created = new Visitor(id, name, age, canonical(visitorType), canonical(visitDate));
+            known = visitorsById.putIfAbsent(id, created);
+            if (known == null) {
+                return created;
+            }
+        }
+        boolean sameName = (name == null) ? known.getName() == null : name.equals(known.getName());
+        if (sameName && age == known.getAge() && equal(visitorType, known.getVisitorType())
+                && equal(visitDate, known.getVisitDate())) {
+            return known;
+        }
+        return new Visitor(known.getId(), sameName ? known.getName() : name, age,
+                canonical(visitorType), canonical(visitDate));
+    }
+
+    /**
+     * Gets the canonical copy of a low-cardinality string (a visitor type or visit date).
+     *
+     * @param text String to canonicalize (null allowed)
+     * @return The pooled instance equal to text; text itself if new and the pool is full
+     */
+    public String canonical(String text) {
+        if (text == null) {
+            return null;
+        }
+        String pooled = strings.get(text);
+        if (pooled != null) {
+            return pooled;
+        }
+        if (strings.size() >= MAX_POOLED_STRINGS) {
+            return text;
+        }
+        pooled = strings.putIfAbsent(text, text);
+        return (pooled == null) ? text : pooled;
+    }
+
+    /**
+     * Gets the registered visitor with an ID.
+     * @param id Visitor ID
+     * @return Canonical Visitor; null if the ID is null or was never interned
+     */
+    public Visitor get(String id) {
+        return (id == null) ? null : visitorsById.get(id);
+    }
+
+    /**
+     * Gets the number of distinct visitors registered.
+     * @return Visitor count
+     */
+    public int size() {
+        return visitorsById.size();
+    }
+
+    private static boolean equal(String a, String b) {
+        return (a == null) ? b == null : a.equals(b);
+    }
+}
@@ -0,0 +1,30 @@
+import java.util.Queue;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Interface WaitingLine: A ride's waiting line that remembers when each visitor joined it.
+ * The join time lives in the line's own entry, not on the Visitor, so a visitor who waits in the
+ * lines of two rides at once has a separate wait time for each.
+ */
+interface WaitingLine extends Queue<Visitor> {
+
+    /**
+     * Adds a visitor with a given join time (e.g. one time for a whole group, or the time a visitor
+     * first joined when moving them to another line).
+     *
+     * @param visitor The Visitor to add (not null)
+     * @param enqueuedAtNanos Join time on the System.nanoTime() scale
+     * @return always true (waiting lines are unbounded; capacity is enforced by the ride)
+     */
+    boolean offer(Visitor visitor, long enqueuedAtNanos);
+
+    /**
+     * Removes up to max visitors in boarding order and hands each to the action with its join time
+     * (consumer thread only).
+     *
+     * @param action Receives each removed Visitor and the System.nanoTime() at which it joined the line
+     * @param max Most visitors to remove
+     * @return Number of visitors removed
+     */
+    int drain(ObjLongConsumer<Visitor> action, int max);
+}
@@ -0,0 +1,94 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Class HistoryFootprint: Measures the heap held by ride histories on a park day, with and without
+ * a shared VisitorRegistry. Each ride record is added as a freshly parsed Visitor (new Strings for every
+ * field, as importRideHistory() produces), so the run without a registry keeps one ID and name copy per ride.
+ * Default day: 50,000 visitors riding 20 of 20 rides each = 1,000,000 ride records.
+ *
+ * Usage (from benchmarks/ after mvn package):
+ * java -cp target/benchmarks.jar HistoryFootprint [visitors] [ridesPerVisitor] [rides]
+ */
+public class HistoryFootprint {
+    private static final long SEED = 42;
+
+    public static void main(String[] args) {
+        int visitors = (args.length > 0) ? Integer.parseInt(args[0]) : 50_000;
+        int ridesPerVisitor = (args.length > 1) ? Integer.parseInt(args[1]) : 20;
+        int rideCount = (args.length > 2) ? Integer.parseInt(args[2]) : 20;
+        Visitor[] people = new Visitor[visitors];
+        int i = 0;
+        for (Visitor visitor : HistoryDataGenerator.visitors(visitors, SEED)) {
+            people[i++] = visitor;
+        }
+        long records = (long) visitors * ridesPerVisitor;
+        System.out.printf("[INFO] %d visitors x %d rides on %d rides = %d ride records%n",
+                visitors, ridesPerVisitor, rideCount, records);
+
+        long baseline = usedHeap();
+        List<Ride> plain = buildDay(people, ridesPerVisitor, rideCount, null);
+        long plainBytes = usedHeap() - baseline;
+        report("Without registry", plainBytes, records, plain);
+        plain = null;
+
+        baseline = usedHeap();
+        VisitorRegistry registry = new VisitorRegistry();
+        List<Ride> interned = buildDay(people, ridesPerVisitor, rideCount, registry);
+        long internedBytes = usedHeap() - baseline;
+        report("With registry", internedBytes, records, interned);
+
+        System.out.printf("[SUCCESS] Heap reduction: %.1f MB (%.1f%%), %d visitors registered%n",
+                (plainBytes - internedBytes) / 1e6, 100.0 * (plainBytes - internedBytes) / plainBytes, registry.size());
+    }
+
+    private static List<Ride> buildDay(Visitor[] people, int ridesPerVisitor, int rideCount, VisitorRegistry registry) {
+        Employee operator = new Employee("E001", "Footprint Operator", 30, "OP001", "Rides");
+        List<Ride> rides = new ArrayList<>(rideCount);
+        for (int r = 0; r < rideCount; r++) {
+            Ride ride = new Ride("Ride " + r, 24, operator);
+            ride.setEventSink(SilentEventSink.INSTANCE);
+            ride.setVisitorRegistry(registry);
+            rides.add(ride);
+        }
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (int round = 0; round < ridesPerVisitor; round++) {
+            for (Visitor person : people) {
+                Ride ride = rides.get(random.nextInt(rideCount));
+                ride.addVisitorToHistory(parsedCopy(person));
+            }
+        }
+        return rides;
+    }
+
+    /**
+     * Copies a visitor with new String instances, like a row read by HistoryCsvReader.
+     */
+    private static Visitor parsedCopy(Visitor visitor) {
+        return new Visitor(new String(visitor.getId()), new String(visitor.getName()), visitor.getAge(),
+                new String(visitor.getVisitorType()), new String(visitor.getVisitDate()));
+    }
+
+    private static void report(String label, long bytes, long records, List<Ride> rides) {
+        long stored = 0;
+        for (Ride ride : rides) {
+            stored += ride.getRideHistory().size();
+        }
+        System.out.printf("[INFO] %s: %.1f MB for %d records (%.1f bytes/record)%n",
+                label, bytes / 1e6, stored, (double) bytes / records);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,20 @@
+import bench.QueueFixture;
+
+/**
+ * Class MpscBenchFixture: Default-package implementation of bench.QueueFixture over MpscVisitorQueue.
+ * Producers enqueue the same Visitor, so the benchmark measures queue traffic, not allocation of visitors.
+ */
+public class MpscBenchFixture implements QueueFixture {
+    private final MpscVisitorQueue queue = new MpscVisitorQueue();
+    private final Visitor visitor = new Visitor("V001", "Alice Smith", 28, "Adult", "2025-12-01");
+
+    @Override
+    public void offer() {
+        queue.offer(visitor);
+    }
+
+    @Override
+    public int drain(int max) {
+        return queue.drain(taken -> { }, max);
+    }
+}
@@ -0,0 +1,103 @@
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import bench.RideFixture;
+
+/**
+ * Class RideBenchFixture: Default-package implementation of bench.RideFixture.
+ * Rides run with SilentEventSink so the benchmarks measure the data structures, not console output.
+ */
+public class RideBenchFixture implements RideFixture {
+    private static final long SEED = 42;
+
+    private final Employee operator = new Employee("E001", "Bench Operator", 30, "OP001", "Rides");
+    private Visitor[] pool = new Visitor[0];
+    private boolean concurrent;
+    private int maxRider;
+    private Ride ride;
+
+    @Override
+    public void setUp(int visitors, boolean concurrent, int maxRider) {
+        this.concurrent = concurrent;
+        this.maxRider = maxRider;
+        this.pool = new Visitor[visitors];
+        int i = 0;
+        for (Visitor visitor : HistoryDataGenerator.visitors(visitors, SEED)) {
+            pool[i++] = visitor;
+        }
+        resetRide();
+    }
+
+    @Override
+    public void resetRide() {
+        ride = new Ride("Bench Ride", maxRider, operator, concurrent);
+        ride.setEventSink(SilentEventSink.INSTANCE);
+    }
+
+    @Override
+    public void addToQueue(int index) {
+        ride.addVisitorToQueue(pool[Math.floorMod(index, pool.length)]);
+    }
+
+    @Override
+    public boolean removeFromQueue() {
+        return ride.removeVisitorFromQueue() != null;
+    }
+
+    @Override
+    public void fillQueue() {
+        for (Visitor visitor : pool) {
+            ride.addVisitorToQueue(visitor);
+        }
+    }
+
+    @Override
+    public int drainQueueByCycles() {
+        int cycles = 0;
+        while (!ride.getWaitingLine().isEmpty()) {
+            ride.runOneCycle();
+            cycles++;
+        }
+        return cycles;
+    }
+
+    @Override
+    public void fillHistory() {
+        ride.historyStore().ensureCapacity(pool.length);
+        for (Visitor visitor : pool) {
+            ride.addVisitorToHistory(visitor);
+        }
+    }
+
+    @Override
+    public boolean checkHistory(int index) {
+        return ride.checkVisitorFromHistory(pool[Math.floorMod(index, pool.length)]);
+    }
+
+    @Override
+    public void sortHistory() {
+        ride.sortRideHistory();
+    }
+
+    @Override
+    public void sortHistoryWithComparator() {
+        ride.historyStore().sort(new VisitorComparator());
+    }
+
+    @Override
+    public long exportHistory(String path) {
+        HistoryExportResult result = ride.exportRideHistory(path, false);
+        return (result == null) ? 0 : result.getBytes();
+    }
+
+    @Override
+    public long importHistory(String path) {
+        HistoryImportResult result = ride.importRideHistory(path, null);
+        return (result == null) ? 0 : result.getBytesRead();
+    }
+
+    @Override
+    public long generateCsv(String path, int rows, long seed) throws IOException {
+        return HistoryDataGenerator.generate(Paths.get(path), rows, seed).getBytes();
+    }
+}
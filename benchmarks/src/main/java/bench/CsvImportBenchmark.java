@@ -0,0 +1,74 @@
+package bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Class CsvImportBenchmark: importRideHistory of a generated file of size rows into an empty ride.
+ * Besides files per second, the "bytes" counter reports bytes read per second (divide by 1e6 for MB/s).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class CsvImportBenchmark {
+
+    @Param({"1000", "100000", "10000000"})
+    public int size;
+
+    private RideFixture fixture;
+    private Path file;
+
+    /**
+     * Bytes read per second (reported next to the operation rate).
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Bytes {
+        public long bytes;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("prvms-import", ".csv");
+        fixture = Fixtures.newRideFixture();
+        fixture.setUp(0, false, 24); // Visitors come from the file, not from a pool
+        fixture.generateCsv(file.toString(), size, 42);
+    }
+
+    @Setup(Level.Invocation)
+    public void emptyRide() {
+        fixture.resetRide();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public long importRideHistory(Bytes counter) {
+        long read = fixture.importHistory(file.toString());
+        counter.bytes += read;
+        return read;
+    }
+}
@@ -0,0 +1,26 @@
+package bench;
+
+/**
+ * Class Fixtures: Creates the default-package fixture implementations by reflection.
+ */
+final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    static RideFixture newRideFixture() {
+        return create("RideBenchFixture", RideFixture.class);
+    }
+
+    static QueueFixture newQueueFixture() {
+        return create("MpscBenchFixture", QueueFixture.class);
+    }
+
+    private static <T> T create(String className, Class<T> type) {
+        try {
+            return type.cast(Class.forName(className).getDeclaredConstructor().newInstance());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create benchmark fixture " + className, e);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package bench;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Class HistoryLookupBenchmark: checkVisitorFromHistory latency on a history of size visitors,
+ * looking up visitors in random order (all present).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class HistoryLookupBenchmark {
+
+    @Param({"1000", "100000", "10000000"})
+    public int size;
+
+    private RideFixture fixture;
+    private final int[] lookups = new int[1 << 16];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = Fixtures.newRideFixture();
+        fixture.setUp(size, false, 24);
+        fixture.fillHistory();
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < lookups.length; i++) {
+            lookups[i] = random.nextInt(size);
+        }
+    }
+
+    @Benchmark
+    public boolean checkVisitorFromHistory() {
+        return fixture.checkHistory(lookups[next++ & (lookups.length - 1)]);
+    }
+}
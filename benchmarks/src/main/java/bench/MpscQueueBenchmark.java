@@ -0,0 +1,82 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Class MpscQueueBenchmark: Many-producer/one-consumer throughput of the concurrent-mode waiting line:
+ * three gate threads enqueue while one operator thread drains batches (as runOneCycle does).
+ * Producers pause once the backlog passes MAX_BACKLOG, so a slow consumer shows up as lower
+ * producer throughput instead of an ever-growing queue.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class MpscQueueBenchmark {
+    private static final long MAX_BACKLOG = 1 << 22;
+    private static final int REPORT_EVERY = 1024;
+
+    /**
+     * The queue shared by the producers and the consumer.
+     */
+    @State(Scope.Group)
+    public static class Line {
+        QueueFixture queue;
+        final LongAdder produced = new LongAdder();
+        volatile long consumed;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            queue = Fixtures.newQueueFixture();
+            produced.reset();
+            consumed = 0;
+        }
+    }
+
+    /**
+     * Per-producer count of offers not yet added to Line.produced.
+     */
+    @State(Scope.Thread)
+    public static class Producer {
+        int pending;
+    }
+
+    @Benchmark
+    @Group("mpsc")
+    @GroupThreads(3)
+    public void offer(Line line, Producer producer) {
+        line.queue.offer();
+        if (++producer.pending == REPORT_EVERY) {
+            line.produced.add(REPORT_EVERY);
+            producer.pending = 0;
+            while (line.produced.sum() - line.consumed > MAX_BACKLOG) {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    @Benchmark
+    @Group("mpsc")
+    @GroupThreads(1)
+    public int drain(Line line) {
+        int taken = line.queue.drain(24);
+        line.consumed += taken; // Single consumer: plain read-modify-write of the volatile is safe
+        return taken;
+    }
+}
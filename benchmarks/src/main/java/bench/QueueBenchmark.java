@@ -0,0 +1,51 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Class QueueBenchmark: addVisitorToQueue/removeVisitorFromQueue throughput with a waiting line
+ * that stays at size visitors (one add and one remove per operation), in both ride modes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class QueueBenchmark {
+
+    @Param({"1000", "100000", "10000000"})
+    public int size;
+
+    @Param({"false", "true"})
+    public boolean concurrent;
+
+    private RideFixture fixture;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = Fixtures.newRideFixture();
+        fixture.setUp(size, concurrent, 24);
+        fixture.fillQueue();
+    }
+
+    @Benchmark
+    public boolean addThenRemove() {
+        fixture.addToQueue(next++);
+        return fixture.removeFromQueue();
+    }
+}
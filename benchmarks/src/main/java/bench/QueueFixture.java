@@ -0,0 +1,21 @@
+package bench;
+
+/**
+ * Interface QueueFixture: Producer and consumer side of a concurrent-mode waiting line
+ * (MpscVisitorQueue), for the many-producer/one-consumer benchmark. See RideFixture for why
+ * the implementation is reached through an interface.
+ */
+public interface QueueFixture {
+
+    /**
+     * Enqueues one visitor (any thread).
+     */
+    void offer();
+
+    /**
+     * Dequeues up to max visitors in one batch (consumer thread only).
+     * @param max Maximum visitors to take
+     * @return Visitors taken
+     */
+    int drain(int max);
+}
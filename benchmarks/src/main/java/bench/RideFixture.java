@@ -0,0 +1,97 @@
+package bench;
+
+import java.io.IOException;
+
+/**
+ * Interface RideFixture: Operations on one Ride that the benchmarks measure.
+ * JMH only accepts benchmarks in a named package, while Ride and the rest of the application
+ * live in the default package (which named packages cannot import). The implementation
+ * (RideBenchFixture, default package) is therefore created once by reflection through Fixtures,
+ * and the measured calls are plain interface calls.
+ */
+public interface RideFixture {
+
+    /**
+     * Creates a new ride with an operator and a pool of generated visitors (HistoryDataGenerator).
+     *
+     * @param visitors Number of visitors in the pool
+     * @param concurrent true for a concurrent-mode ride (lock-free waiting line)
+     * @param maxRider Maximum riders per cycle
+     */
+    void setUp(int visitors, boolean concurrent, int maxRider);
+
+    /**
+     * Replaces the ride with an empty one (same settings and visitor pool).
+     */
+    void resetRide();
+
+    /**
+     * Adds one pooled visitor to the waiting line.
+     * @param index Index into the visitor pool (taken modulo the pool size)
+     */
+    void addToQueue(int index);
+
+    /**
+     * Removes the visitor at the head of the waiting line.
+     * @return true if a visitor was removed
+     */
+    boolean removeFromQueue();
+
+    /**
+     * Adds the whole visitor pool to the waiting line.
+     */
+    void fillQueue();
+
+    /**
+     * Runs ride cycles until the waiting line is empty.
+     * @return Number of cycles run
+     */
+    int drainQueueByCycles();
+
+    /**
+     * Adds the whole visitor pool to the ride history (in generation order, i.e. unsorted).
+     */
+    void fillHistory();
+
+    /**
+     * Checks whether a pooled visitor is in the ride history.
+     * @param index Index into the visitor pool (taken modulo the pool size)
+     * @return Result of checkVisitorFromHistory
+     */
+    boolean checkHistory(int index);
+
+    /**
+     * Sorts the ride history through Ride.sortRideHistory().
+     */
+    void sortHistory();
+
+    /**
+     * Sorts the ride history with a VisitorComparator instance (generic comparator path).
+     */
+    void sortHistoryWithComparator();
+
+    /**
+     * Exports the ride history through Ride.exportRideHistory().
+     * @param path CSV file to write
+     * @return Bytes written
+     */
+    long exportHistory(String path);
+
+    /**
+     * Imports a CSV file into the ride history through Ride.importRideHistory().
+     * @param path CSV file to read
+     * @return Bytes read
+     */
+    long importHistory(String path);
+
+    /**
+     * Writes a synthetic history CSV file (HistoryDataGenerator).
+     *
+     * @param path CSV file to write
+     * @param rows Number of rows
+     * @param seed Random seed
+     * @return Bytes written
+     * @throws IOException If writing fails
+     */
+    long generateCsv(String path, int rows, long seed) throws IOException;
+}
@@ -0,0 +1,57 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Class SortBenchmark: Sorting an unsorted history of size visitors by age and visit date,
+ * through sortRideHistory() and through RideHistory.sort() with a VisitorComparator.
+ * The history is rebuilt in generation order before every sort, outside the timing.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class SortBenchmark {
+
+    @Param({"1000", "100000", "10000000"})
+    public int size;
+
+    private RideFixture fixture;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = Fixtures.newRideFixture();
+        fixture.setUp(size, false, 24);
+    }
+
+    @Setup(Level.Invocation)
+    public void unsort() {
+        fixture.resetRide();
+        fixture.fillHistory();
+    }
+
+    @Benchmark
+    public void sortRideHistory() {
+        fixture.sortHistory();
+    }
+
+    @Benchmark
+    public void sortWithVisitorComparator() {
+        fixture.sortHistoryWithComparator();
+    }
+}
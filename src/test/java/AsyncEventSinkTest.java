@@ -0,0 +1,82 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for AsyncEventSink: every published event is written or counted as dropped, also around close().
+ */
+class AsyncEventSinkTest {
+
+    private static final int PUBLISHERS = 4;
+    private static final int PER_PUBLISHER = 20_000;
+
+    private static RideEvent event(int number) {
+        return new RideEvent(RideEvent.Type.QUEUE_ADDED, "Coaster", "V" + number, null, 0, 0, false);
+    }
+
+    private static long lines(ByteArrayOutputStream bytes) {
+        return bytes.toString(StandardCharsets.UTF_8).lines().count();
+    }
+
+    @Test
+    void closeWritesEverythingPublishedBefore() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        AsyncEventSink sink = new AsyncEventSink(new PrintStream(bytes, true, StandardCharsets.UTF_8), 1 << 16);
+        for (int i = 0; i < 1000; i++) {
+            sink.publish(event(i));
+        }
+        sink.close();
+        sink.close(); // Second close is a no-op
+        sink.publish(event(1000));
+
+        assertEquals(1000, lines(bytes));
+        assertEquals(1, sink.getDroppedCount());
+    }
+
+    @Test
+    void publishersRacingCloseLoseNothingUncounted() throws InterruptedException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        AsyncEventSink sink = new AsyncEventSink(new PrintStream(bytes, true, StandardCharsets.UTF_8), 256);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < PUBLISHERS; p++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < PER_PUBLISHER; i++) {
+                    sink.publish(event(i));
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (int c = 0; c < 2; c++) {
+            Thread closer = new Thread(() -> {
+                try {
+                    start.await();
+                    Thread.sleep(2);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                sink.close();
+            });
+            closer.start();
+            threads.add(closer);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals((long) PUBLISHERS * PER_PUBLISHER, lines(bytes) + sink.getDroppedCount());
+    }
+}
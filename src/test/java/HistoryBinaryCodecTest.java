@@ -0,0 +1,132 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for HistoryBinaryCodec: lossless round trip, the columnar RideHistory path, and damaged files
+ * rejected with an IOException.
+ */
+class HistoryBinaryCodecTest {
+
+    /** Offset of the string table size: after MAGIC (int) and VERSION (short). */
+    private static final int TABLE_SIZE_OFFSET = 6;
+
+    @TempDir
+    Path dir;
+
+    private static List<Visitor> sample() {
+        return Arrays.asList(
+                new Visitor("V1", "Ann", 30, "Adult", "2025-12-01"),
+                new Visitor("V2", "Bo", 9, "Child", "01/12/2025"),
+                new Visitor("V3", null, 70, "Senior", "2025-12-02"),
+                new Visitor());
+    }
+
+    private Path writeSample() throws IOException {
+        Path file = dir.resolve("history.bin");
+        new HistoryBinaryCodec().write(sample(), file);
+        return file;
+    }
+
+    private static List<Visitor> read(Path file) throws IOException {
+        List<Visitor> visitors = new ArrayList<>();
+        new HistoryBinaryCodec().read(file, visitors::add);
+        return visitors;
+    }
+
+    private static void assertCorrupt(Path file) {
+        IOException e = assertThrows(IOException.class, () -> read(file));
+        assertTrue(e.getMessage().startsWith("corrupt history file"), e.getMessage());
+    }
+
+    private Path patchInt(Path file, int offset, int value) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        ByteBuffer.wrap(bytes).putInt(offset, value);
+        Path patched = dir.resolve("patched.bin");
+        Files.write(patched, bytes);
+        return patched;
+    }
+
+    @Test
+    void columnarWriteMatchesVisitorWrite() throws IOException {
+        RideHistory history = new RideHistory();
+        for (int i = 0; i < 300; i++) { // More than 256 types switches the history to wide type codes
+            for (Visitor visitor : sample()) {
+                history.append(visitor.getId(), visitor.getName(), visitor.getAge(),
+                        (i % 2 == 0) ? visitor.getVisitorType() : "Type" + i, visitor.getVisitDate());
+            }
+        }
+        Path fromColumns = dir.resolve("columns.bin");
+        Path fromVisitors = dir.resolve("visitors.bin");
+        new HistoryBinaryCodec().write(history, fromColumns);
+        new HistoryBinaryCodec().write(new ArrayList<>(history), fromVisitors);
+        assertTrue(Arrays.equals(Files.readAllBytes(fromVisitors), Files.readAllBytes(fromColumns)));
+    }
+
+    @Test
+    void roundTripKeepsEveryField() throws IOException {
+        List<Visitor> back = read(writeSample());
+        assertEquals(sample().size(), back.size());
+        for (int i = 0; i < back.size(); i++) {
+            Visitor expected = sample().get(i);
+            Visitor actual = back.get(i);
+            assertEquals(expected.getId(), actual.getId());
+            assertEquals(expected.getName(), actual.getName());
+            assertEquals(expected.getAge(), actual.getAge());
+            assertEquals(expected.getVisitorType(), actual.getVisitorType());
+            assertEquals(expected.getVisitDate(), actual.getVisitDate());
+        }
+    }
+
+    @Test
+    void truncatedFileIsCorrupt() throws IOException {
+        Path file = writeSample();
+        byte[] bytes = Files.readAllBytes(file);
+        for (int length = TABLE_SIZE_OFFSET + 1; length < bytes.length; length += 3) {
+            Path truncated = dir.resolve("truncated.bin");
+            Files.write(truncated, Arrays.copyOf(bytes, length));
+            assertCorrupt(truncated);
+        }
+    }
+
+    @Test
+    void oversizedStringTableIsCorrupt() throws IOException {
+        assertCorrupt(patchInt(writeSample(), TABLE_SIZE_OFFSET, Integer.MAX_VALUE));
+        assertCorrupt(patchInt(writeSample(), TABLE_SIZE_OFFSET, -5));
+    }
+
+    @Test
+    void oversizedStringLengthIsCorrupt() throws IOException {
+        assertCorrupt(patchInt(writeSample(), TABLE_SIZE_OFFSET + 4, Integer.MAX_VALUE));
+        assertCorrupt(patchInt(writeSample(), TABLE_SIZE_OFFSET + 4, -2));
+    }
+
+    @Test
+    void oversizedRowCountIsCorrupt() throws IOException {
+        Path file = dir.resolve("empty.bin");
+        new HistoryBinaryCodec().write(new ArrayList<>(), file);
+        int rowCountOffset = TABLE_SIZE_OFFSET + 4; // Empty string table
+        assertCorrupt(patchInt(file, rowCountOffset, 1_000_000_000));
+    }
+
+    @Test
+    void tableIndexOutOfRangeIsCorrupt() throws IOException {
+        Path file = dir.resolve("one.bin");
+        new HistoryBinaryCodec().write(List.of(new Visitor("V1", "Ann", 30, "Adult", "2025-12-01")), file);
+        // Table ["Adult"], row count, then id "V1", name "Ann", age, type index
+        int typeIndexOffset = TABLE_SIZE_OFFSET + 4 + (4 + 5) + 4 + (4 + 2) + (4 + 3) + 4;
+        assertEquals(1, read(file).size());
+        assertCorrupt(patchInt(file, typeIndexOffset, 7));
+        assertCorrupt(patchInt(file, typeIndexOffset + 4, Integer.MIN_VALUE)); // Date in table, index past the end
+    }
+}
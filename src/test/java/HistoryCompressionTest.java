@@ -0,0 +1,88 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for gzip history archives: export through the deflate thread, import through the inflate thread.
+ */
+class HistoryCompressionTest {
+
+    /** Enough rows that the CSV spans many HistoryCompression chunks. */
+    private static final int ROWS = 30_000;
+
+    @TempDir
+    Path dir;
+
+    private static Ride rideWithHistory() {
+        Ride ride = new Ride("Log Flume", 4, null);
+        ride.setEventSink(SilentEventSink.INSTANCE);
+        for (int i = 0; i < ROWS; i++) {
+            ride.addVisitorToHistory(new Visitor("V" + i, "Visitor " + i, i % 90,
+                    (i % 4 == 0) ? "Child" : "Adult", "2025-12-" + (10 + i % 20)));
+        }
+        return ride;
+    }
+
+    private static Ride emptyRide() {
+        Ride ride = new Ride("Log Flume", 4, null);
+        ride.setEventSink(SilentEventSink.INSTANCE);
+        return ride;
+    }
+
+    @Test
+    void gzipExportIsPlainGzipOfTheCsv() throws IOException {
+        Ride ride = rideWithHistory();
+        Path plain = dir.resolve("history.csv");
+        Path gzip = dir.resolve("history.csv.gz");
+        ride.exportRideHistory(plain.toString(), false);
+        HistoryExportResult result = ride.exportRideHistory(gzip.toString(), false);
+
+        assertEquals(ROWS, result.getRows());
+        assertEquals(Files.size(gzip), result.getBytes());
+        assertTrue(Files.size(gzip) < Files.size(plain) / 3);
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(gzip))) {
+            assertArrayEquals(Files.readAllBytes(plain), in.readAllBytes());
+        }
+        try (FileChannel channel = FileChannel.open(gzip, StandardOpenOption.READ)) {
+            assertTrue(HistoryCompression.isCompressed(channel));
+        }
+    }
+
+    @Test
+    void gzipImportRestoresEveryRowWhateverTheFileName() throws IOException {
+        Path gzip = dir.resolve("history.csv.gz");
+        rideWithHistory().exportRideHistory(gzip.toString(), false);
+        Path renamed = Files.move(gzip, dir.resolve("history.dat"), StandardCopyOption.REPLACE_EXISTING);
+
+        Ride restored = emptyRide();
+        HistoryImportResult result = restored.importRideHistory(renamed.toString(), null);
+        assertEquals(ROWS, result.getImported());
+        assertEquals(0, result.getRejected());
+        assertEquals(ROWS, restored.getRideHistory().size());
+        assertEquals("V" + (ROWS - 1), restored.getRideHistory().get(ROWS - 1).getId());
+    }
+
+    @Test
+    void truncatedGzipFailsTheImport() throws IOException {
+        Path gzip = dir.resolve("history.csv.gz");
+        rideWithHistory().exportRideHistory(gzip.toString(), false);
+        byte[] bytes = Files.readAllBytes(gzip);
+        Path truncated = dir.resolve("truncated.csv.gz");
+        Files.write(truncated, Arrays.copyOf(bytes, bytes.length / 2));
+
+        assertNull(emptyRide().importRideHistory(truncated.toString(), null));
+    }
+}
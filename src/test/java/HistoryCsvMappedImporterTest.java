@@ -0,0 +1,80 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for HistoryCsvMappedImporter: tiny chunks so one file spans many windows of parse tasks.
+ */
+class HistoryCsvMappedImporterTest {
+
+    @TempDir
+    Path dir;
+
+    private Path writeCsv(int rows, boolean withBadRows) throws IOException {
+        StringBuilder csv = new StringBuilder(HistoryCsvWriter.HEADER).append('\n');
+        for (int i = 0; i < rows; i++) {
+            csv.append("V").append(i).append(",Name ").append(i).append(',').append(i % 90)
+                    .append(",Adult,2025-12-01\n");
+            if (withBadRows && i % 100 == 0) {
+                csv.append("not,a,row\n");
+            }
+        }
+        csv.append("V0,Again,30,Adult,2025-12-02\n"); // Duplicate of the first row
+        Path file = dir.resolve("history.csv");
+        Files.write(file, csv.toString().getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    @Test
+    void rowsReachTheSinkInFileOrder() throws IOException {
+        Path file = writeCsv(2000, true);
+        List<String> ids = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        HistoryImportResult result = new HistoryCsvMappedImporter(ForkJoinPool.commonPool(), 64)
+                .importFile(file, visitor -> {
+                    ids.add(visitor.getId());
+                    return seen.add(visitor.getId());
+                });
+
+        assertEquals(2000, result.getImported());
+        assertEquals(1, result.getDuplicates());
+        assertEquals(20, result.getRejected());
+        assertEquals(Files.size(file), result.getBytesRead());
+        for (int i = 0; i < 2000; i++) {
+            assertEquals("V" + i, ids.get(i));
+        }
+        assertEquals("V0", ids.get(2000));
+    }
+
+    @Test
+    void matchesTheDefaultChunkSize() throws IOException {
+        Path file = writeCsv(500, false);
+        List<String> small = new ArrayList<>();
+        List<String> large = new ArrayList<>();
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            new HistoryCsvMappedImporter(pool, 100).importFile(file, v -> small.add(v.getId()));
+        } finally {
+            pool.shutdown();
+        }
+        new HistoryCsvMappedImporter().importFile(file, v -> large.add(v.getId()));
+        assertEquals(large, small);
+    }
+
+    @Test
+    void missingFileIsAnIOException() {
+        assertThrows(IOException.class, () -> new HistoryCsvMappedImporter()
+                .importFile(dir.resolve("missing.csv"), visitor -> true));
+    }
+}
@@ -0,0 +1,96 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for HistoryCsvTailer: partial last lines, rotation and truncation of the followed file.
+ */
+class HistoryCsvTailerTest {
+
+    @TempDir
+    Path dir;
+
+    private final List<String> ids = new ArrayList<>();
+
+    private static String row(int i) {
+        return "V" + i + ",Name " + i + "," + (20 + i % 50) + ",Adult,2025-12-01\n";
+    }
+
+    private static void append(Path file, String text) throws IOException {
+        Files.write(file, text.getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private HistoryCsvTailer tailer(Path file) {
+        return new HistoryCsvTailer(file, visitor -> ids.add(visitor.getId()));
+    }
+
+    @Test
+    void partialLineWaitsForItsNewline() throws IOException {
+        Path file = dir.resolve("live.csv");
+        try (HistoryCsvTailer tailer = tailer(file)) {
+            assertEquals(0, tailer.poll().getImported()); // File does not exist yet
+
+            append(file, HistoryCsvWriter.HEADER + "\n" + row(1) + row(2));
+            String third = row(3);
+            append(file, third.substring(0, 7)); // Turnstile is still writing this line
+            assertEquals(2, tailer.poll().getImported());
+            assertEquals(List.of("V1", "V2"), ids);
+
+            assertEquals(0, tailer.poll().getImported());
+            append(file, third.substring(7) + row(4));
+            assertEquals(2, tailer.poll().getImported());
+            assertEquals(List.of("V1", "V2", "V3", "V4"), ids);
+            assertEquals(Files.size(file), tailer.getOffset());
+        }
+    }
+
+    @Test
+    void rotationDrainsTheOldFileThenReadsTheNewOne() throws IOException {
+        Path file = dir.resolve("live.csv");
+        append(file, HistoryCsvWriter.HEADER + "\n" + row(1));
+        try (HistoryCsvTailer tailer = tailer(file)) {
+            assertEquals(1, tailer.poll().getImported());
+
+            append(file, row(2)); // Written just before the rotation, not polled yet
+            Files.move(file, dir.resolve("live.csv.1"), StandardCopyOption.ATOMIC_MOVE);
+            append(file, HistoryCsvWriter.HEADER + "\n" + row(3) + row(4));
+
+            assertEquals(3, tailer.poll().getImported());
+            assertEquals(List.of("V1", "V2", "V3", "V4"), ids);
+            assertEquals(1, tailer.getRotations());
+        }
+    }
+
+    @Test
+    void truncationRestartsAtTheBeginning() throws IOException {
+        Path file = dir.resolve("live.csv");
+        append(file, HistoryCsvWriter.HEADER + "\n" + row(1) + row(2) + row(3));
+        try (HistoryCsvTailer tailer = tailer(file)) {
+            assertEquals(3, tailer.poll().getImported());
+
+            // Same file, cut back and rewritten with fewer rows
+            Files.write(file, (HistoryCsvWriter.HEADER + "\n" + row(7)).getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            assertEquals(1, tailer.poll().getImported());
+            assertEquals(List.of("V1", "V2", "V3", "V7"), ids);
+            assertEquals(1, tailer.getTruncations());
+
+            // Rewritten in place with the same length: caught by the checksum of the bytes before the offset
+            Files.write(file, (HistoryCsvWriter.HEADER + "\n" + row(8)).getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            assertEquals(1, tailer.poll().getImported());
+            assertEquals("V8", ids.get(ids.size() - 1));
+            assertEquals(2, tailer.getTruncations());
+        }
+    }
+}
@@ -0,0 +1,62 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for CSV → binary → CSV conversion: the CSV written back is byte for byte the CSV written first.
+ */
+class HistoryFormatConverterTest {
+
+    @TempDir
+    Path dir;
+
+    private static List<Visitor> visitors(int count) {
+        List<Visitor> visitors = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String date = (i % 11 == 0) ? "01/12/2025" : "2025-12-" + (10 + i % 20);
+            visitors.add(new Visitor("V" + i, "Visitor " + i, i % 90, (i % 3 == 0) ? "Child" : "Adult", date));
+        }
+        visitors.add(new Visitor("V1", "Duplicate ID", 40, "Adult", "2025-12-01")); // Kept: converters drop nothing valid
+        return visitors;
+    }
+
+    @Test
+    void csvToBinaryToCsvIsLossless() throws IOException {
+        Path csv = dir.resolve("history.csv");
+        Path binary = dir.resolve("history.rhib");
+        Path back = dir.resolve("back.csv");
+        new HistoryCsvWriter().write(visitors(5000), csv, false);
+
+        HistoryImportResult read = HistoryFormatConverter.csvToBinary(csv, binary);
+        assertEquals(5001, read.getImported());
+        assertEquals(5001, HistoryFormatConverter.binaryToCsv(binary, back).getRows());
+        assertArrayEquals(Files.readAllBytes(csv), Files.readAllBytes(back));
+    }
+
+    @Test
+    void malformedCsvRowsAreDroppedAndCounted() throws IOException {
+        Path csv = dir.resolve("history.csv");
+        new HistoryCsvWriter().write(visitors(10), csv, false);
+        Files.write(csv, "broken row\nV99,Zed,notanumber,Adult,2025-12-01\n".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+
+        Path binary = dir.resolve("history.rhib");
+        HistoryImportResult read = HistoryFormatConverter.csvToBinary(csv, binary);
+        assertEquals(11, read.getImported());
+        assertEquals(2, read.getRejected());
+
+        List<Visitor> rows = new ArrayList<>();
+        new HistoryBinaryCodec().read(binary, rows::add);
+        assertEquals(11, rows.size());
+        assertEquals("01/12/2025", rows.get(0).getVisitDate());
+    }
+}
@@ -0,0 +1,77 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.time.Duration;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for HistoryQuery: indexed counts checked against a plain scan of the history.
+ */
+class HistoryQueryTest {
+
+    private static final String[] TYPES = {"Adult", "Child", "Student", "Senior"};
+    private static final String[] DATES = {"2025-12-01", "2025-12-02", "2025-12-03"};
+
+    private static RideHistory randomHistory(int rows) {
+        RideHistory history = new RideHistory();
+        Random random = new Random(42);
+        for (int i = 0; i < rows; i++) {
+            history.add(new Visitor("V" + i, "N" + i, random.nextInt(95),
+                    TYPES[random.nextInt(TYPES.length)], DATES[random.nextInt(DATES.length)]));
+        }
+        return history;
+    }
+
+    private static int scan(RideHistory history, String type, String date, int minAge, int maxAge) {
+        int count = 0;
+        for (int row = 0; row < history.size(); row++) {
+            if ((type == null || type.equals(history.visitorTypeAt(row)))
+                    && (date == null || date.equals(history.visitDateAt(row)))
+                    && history.ageAt(row) >= minAge && history.ageAt(row) <= maxAge) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Test
+    void countsMatchFullScan() {
+        RideHistory history = randomHistory(5000);
+        int[][] ranges = {{0, 9}, {12, 17}, {18, Integer.MAX_VALUE}, {Integer.MIN_VALUE, 30}, {40, 39}};
+        for (int[] range : ranges) {
+            for (String type : new String[] {null, "Student"}) {
+                for (String date : new String[] {null, "2025-12-02"}) {
+                    HistoryQuery query = history.query().ageRange(range[0], range[1]);
+                    if (type != null) {
+                        query.visitorType(type);
+                    }
+                    if (date != null) {
+                        query.visitDate(date);
+                    }
+                    assertEquals(scan(history, type, date, range[0], range[1]), query.count(),
+                            type + " " + date + " " + range[0] + ".." + range[1]);
+                }
+            }
+        }
+    }
+
+    @Test
+    void openEndedAgeRangeVisitsOnlyExistingBands() {
+        RideHistory history = randomHistory(3);
+        assertTimeoutPreemptively(Duration.ofMillis(200), () -> {
+            history.query().ageRange(18, Integer.MAX_VALUE).count();
+            history.query().ageRange(Integer.MIN_VALUE, Integer.MAX_VALUE).visitorType("Adult").count();
+        });
+    }
+
+    @Test
+    void queryCreatedBeforeSortSeesNewRows() {
+        RideHistory history = randomHistory(100);
+        HistoryQuery query = history.query().visitorType("Child");
+        history.sortByAgeAndDate();
+        history.add(new Visitor("X", "New", 4, "Child", "2025-12-01"));
+
+        assertEquals(scan(history, "Child", null, Integer.MIN_VALUE, Integer.MAX_VALUE), query.count());
+    }
+}
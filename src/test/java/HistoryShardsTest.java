@@ -0,0 +1,120 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for sharded history export and import through a Park: every row comes back, per ride,
+ * and import never sizes anything from the manifest's row counts.
+ */
+class HistoryShardsTest {
+
+    private static final String[] DATES = {"2025-12-01", "2025-12-02", "2025-12-03", "not a date"};
+
+    @TempDir
+    Path dir;
+
+    private static Ride ride(String name) {
+        Ride ride = new Ride(name, 4, null, true);
+        ride.setEventSink(SilentEventSink.INSTANCE);
+        return ride;
+    }
+
+    private static Park parkWithHistory() {
+        Park park = new Park("Export Park", 1);
+        Ride flume = ride("Log Flume");
+        Ride wheel = ride("Ferris Wheel");
+        for (int i = 0; i < 500; i++) {
+            flume.addVisitorToHistory(new Visitor("F" + i, "N" + i, i % 80, "Adult", DATES[i % DATES.length]));
+        }
+        for (int i = 0; i < 120; i++) {
+            wheel.addVisitorToHistory(new Visitor("W" + i, "N" + i, i % 80, "Child", DATES[i % 3]));
+        }
+        park.addRide(flume, Duration.ofMinutes(1));
+        park.addRide(wheel, Duration.ofMinutes(1));
+        return park;
+    }
+
+    private static long manifestRows(Path directory, String rideName) throws IOException {
+        long rows = 0;
+        for (HistoryShards.Shard shard : new HistoryShards().readManifest(directory)) {
+            if (shard.getRideName().equals(rideName)) {
+                rows += shard.getRows();
+            }
+        }
+        return rows;
+    }
+
+    private void assertRoundTrip(HistoryShards.Partitioning partitioning, int hashShards) throws IOException {
+        Path directory = dir.resolve(partitioning.name());
+        try (Park source = parkWithHistory()) {
+            assertEquals(620, source.exportHistory(directory, partitioning, hashShards).getRows());
+        }
+        assertEquals(500, manifestRows(directory, "Log Flume"));
+        assertEquals(120, manifestRows(directory, "Ferris Wheel"));
+
+        try (Park target = new Park("Import Park", 1)) {
+            Ride flume = ride("Log Flume");
+            Ride wheel = ride("Ferris Wheel");
+            target.addRide(flume, Duration.ofMinutes(1));
+            target.addRide(wheel, Duration.ofMinutes(1));
+
+            Map<String, HistoryImportResult> results = target.importHistory(directory);
+            assertEquals(500, results.get("Log Flume").getImported());
+            assertEquals(120, results.get("Ferris Wheel").getImported());
+            assertEquals(0, results.get("Log Flume").getDuplicates() + results.get("Log Flume").getRejected());
+            assertEquals(500, flume.getRideHistory().size());
+            assertEquals(120, wheel.getRideHistory().size());
+
+            // Importing the same export again only finds duplicates
+            results = target.importHistory(directory);
+            assertEquals(0, results.get("Log Flume").getImported());
+            assertEquals(500, results.get("Log Flume").getDuplicates());
+        }
+    }
+
+    @Test
+    void visitDateShardsKeepEveryRow() throws IOException {
+        assertRoundTrip(HistoryShards.Partitioning.VISIT_DATE, 0);
+    }
+
+    @Test
+    void visitorIdHashShardsKeepEveryRow() throws IOException {
+        assertRoundTrip(HistoryShards.Partitioning.VISITOR_ID_HASH, 7);
+    }
+
+    @Test
+    void importDoesNotTrustTheManifestRowCounts() throws IOException {
+        Path directory = dir.resolve("corrupt");
+        try (Park source = parkWithHistory()) {
+            source.exportHistory(directory, HistoryShards.Partitioning.VISIT_DATE, 0);
+        }
+        Path manifest = directory.resolve(HistoryShards.MANIFEST);
+        StringBuilder corrupted = new StringBuilder();
+        for (String line : Files.readAllLines(manifest)) {
+            String[] fields = line.split("\t", -1);
+            if (fields.length == 5 && !line.startsWith("Ride\t")) {
+                fields[3] = String.valueOf(Integer.MAX_VALUE); // Would need GBs if used to pre-size
+                line = String.join("\t", fields);
+            }
+            corrupted.append(line).append('\n');
+        }
+        Files.writeString(manifest, corrupted);
+
+        Map<String, Predicate<Visitor>> sinks = new HashMap<>();
+        List<Visitor> flume = new ArrayList<>();
+        sinks.put("Log Flume", flume::add);
+        Map<String, HistoryImportResult> results = new HistoryShards().importAll(directory, sinks);
+        assertEquals(500, results.get("Log Flume").getImported());
+        assertEquals(500, flume.size());
+    }
+}
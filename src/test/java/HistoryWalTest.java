@@ -0,0 +1,179 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for HistoryWal: replay after a crash (including a torn last frame), batches split into several frames,
+ * compaction when the next segment cannot be created, and incremental compaction.
+ */
+class HistoryWalTest {
+
+    private static final String[] TYPES = {"Adult", "Child", "Student", "Senior"};
+
+    @TempDir
+    Path dir;
+
+    private static void addRows(RideHistory history, int from, int to) {
+        for (int i = from; i < to; i++) {
+            // Every 7th date is not canonical, so it goes through the snapshot's string table
+            String date = (i % 7 == 0) ? "day " + i : "2025-12-0" + (1 + i % 9);
+            history.append("V" + i, "N" + i, i % 90, TYPES[i % TYPES.length] + (i / 50), date);
+        }
+    }
+
+    private static void assertSameRows(RideHistory expected, RideHistory actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int row = 0; row < expected.size(); row++) {
+            assertEquals(expected.idAt(row), actual.idAt(row));
+            assertEquals(expected.nameAt(row), actual.nameAt(row));
+            assertEquals(expected.ageAt(row), actual.ageAt(row));
+            assertEquals(expected.visitorTypeAt(row), actual.visitorTypeAt(row));
+            assertEquals(expected.visitDateAt(row), actual.visitDateAt(row));
+        }
+    }
+
+    private List<Path> files(String glob) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, glob)) {
+            stream.forEach(files::add);
+        }
+        return files;
+    }
+
+    @Test
+    void unclosedLogReplaysEveryAppendAndCutsATornFrame() throws IOException {
+        RideHistory history = new RideHistory();
+        HistoryWal wal = HistoryWal.open(dir, Duration.ZERO, 0, history);
+        for (int batch = 0; batch < 10; batch++) {
+            int first = history.size();
+            addRows(history, first, first + 13);
+            wal.append(history, first, history.size());
+        }
+        // Crash in the middle of the next frame: a header that promises more bytes than were written
+        Path segment = files("history-*.wal").get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.allocate(12).putInt(0, 1000).putInt(4, 42));
+        }
+
+        RideHistory replayed = new RideHistory();
+        try (HistoryWal reopened = HistoryWal.open(dir, Duration.ZERO, 0, replayed)) {
+            assertEquals(history.size(), reopened.getReplayedRows());
+        }
+        assertSameRows(history, replayed);
+        wal.close();
+    }
+
+    @Test
+    void largeBatchSpansFramesAndIsReplayedOnlyWhenComplete() throws IOException {
+        RideHistory history = new RideHistory();
+        HistoryWal wal = HistoryWal.open(dir, Duration.ZERO, 0, history);
+        addRows(history, 0, 10);
+        wal.append(history, 0, 10);
+        Path segment = files("history-*.wal").get(0);
+        long firstBatchEnd = Files.size(segment);
+        addRows(history, 10, 60_010); // About 3 MB: several frames
+        wal.append(history, 10, history.size());
+        wal.close();
+
+        RideHistory replayed = new RideHistory();
+        try (HistoryWal reopened = HistoryWal.open(dir, Duration.ZERO, 0, replayed)) {
+            assertEquals(history.size(), reopened.getReplayedRows());
+        }
+        assertSameRows(history, replayed);
+
+        // Crash before the batch's last frame was complete: none of its frames may be replayed
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 5);
+        }
+        RideHistory partial = new RideHistory();
+        try (HistoryWal reopened = HistoryWal.open(dir, Duration.ZERO, 0, partial)) {
+            assertEquals(10, reopened.getReplayedRows());
+        }
+        assertEquals(firstBatchEnd, Files.size(segment));
+    }
+
+    @Test
+    void compactionKeepsTheSegmentOpenWhenTheNextCannotBeCreated() throws IOException {
+        RideHistory history = new RideHistory();
+        Path blocker = dir.resolve(String.format("history-%016d.wal", 1));
+        try (HistoryWal wal = HistoryWal.open(dir, Duration.ZERO, Long.MAX_VALUE, history)) {
+            Files.createDirectory(blocker); // The next segment's name is taken
+            addRows(history, 0, 20);
+            wal.append(history, 0, 20);
+            assertThrows(IOException.class, wal::compact);
+            addRows(history, 20, 40);
+            wal.append(history, 20, 40); // Still goes to the first segment
+        }
+        Files.delete(blocker);
+
+        RideHistory replayed = new RideHistory();
+        try (HistoryWal reopened = HistoryWal.open(dir, Duration.ZERO, 0, replayed)) {
+            assertEquals(40, reopened.getReplayedRows());
+        }
+        assertSameRows(history, replayed);
+    }
+
+    @Test
+    void compactionAppendsToThePreviousSnapshot() throws Exception {
+        RideHistory history = new RideHistory();
+        try (HistoryWal wal = HistoryWal.open(dir, Duration.ofMillis(5), Long.MAX_VALUE, history)) {
+            for (int round = 0; round < 5; round++) {
+                for (int batch = 0; batch < 4; batch++) {
+                    int first = history.size();
+                    addRows(history, first, first + 30);
+                    wal.append(history, first, history.size());
+                }
+                Future<?> compaction = wal.compact();
+                assertNotNull(compaction);
+                compaction.get();
+                assertEquals(1, files("snapshot-*.rhib").size());
+            }
+            int first = history.size();
+            addRows(history, first, first + 5); // Rows after the last compaction stay in a segment
+            wal.append(history, first, history.size());
+        }
+
+        List<Visitor> snapshotRows = new ArrayList<>();
+        new HistoryBinaryCodec().read(files("snapshot-*.rhib").get(0), snapshotRows::add);
+        assertEquals(600, snapshotRows.size());
+
+        RideHistory replayed = new RideHistory();
+        try (HistoryWal reopened = HistoryWal.open(dir, Duration.ZERO, 0, replayed)) {
+            assertEquals(605, reopened.getReplayedRows());
+        }
+        assertSameRows(history, replayed);
+        assertEquals(0, files("snapshot-tmp*").size());
+    }
+
+    @Test
+    void failedAppendIsReportedToTheRide() throws IOException {
+        Ride ride = new Ride("Log Flume", 2, null);
+        List<RideEvent> events = new ArrayList<>();
+        ride.setEventSink(events::add);
+        ride.enableWriteAheadLog(dir.toString(), Duration.ZERO);
+        assertNull(ride.getWriteAheadLogFailure());
+
+        ride.getWriteAheadLog().close(); // Appends now hit a closed segment
+        ride.addVisitorToHistory(new Visitor("V1", "Ann", 30, "Adult", "2025-12-01"));
+
+        assertNotNull(ride.getWriteAheadLogFailure());
+        RideEvent failed = events.stream()
+                .filter(event -> event.getType() == RideEvent.Type.HISTORY_LOG_FAILED).findFirst().orElseThrow();
+        assertEquals(1, failed.getCount());
+    }
+}
@@ -0,0 +1,101 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for MpscVisitorQueue: many producers, one consumer, per-producer FIFO order and the O(1) size.
+ */
+class MpscVisitorQueueTest {
+
+    private static final int PRODUCERS = 4;
+    private static final int PER_PRODUCER = 20_000;
+
+    @Test
+    void everyProducersVisitorsArriveOnceAndInOrder() throws InterruptedException {
+        MpscVisitorQueue queue = new MpscVisitorQueue();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> producers = new ArrayList<>();
+        for (int p = 0; p < PRODUCERS; p++) {
+            int producer = p;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < PER_PRODUCER; i += 2) {
+                    if (i % 10 == 0) {
+                        queue.offerAll(List.of(visitor(producer, i), visitor(producer, i + 1)));
+                    } else {
+                        queue.offer(visitor(producer, i));
+                        queue.offer(visitor(producer, i + 1));
+                    }
+                }
+            });
+            thread.start();
+            producers.add(thread);
+        }
+
+        int[] next = new int[PRODUCERS];
+        int total = 0;
+        AtomicBoolean outOfOrder = new AtomicBoolean();
+        start.countDown();
+        while (total < PRODUCERS * PER_PRODUCER) {
+            assertTrue(queue.size() >= 0);
+            total += queue.drain(visitor -> {
+                String[] parts = visitor.getId().split("-");
+                int producer = Integer.parseInt(parts[0]);
+                if (Integer.parseInt(parts[1]) != next[producer]++) {
+                    outOfOrder.set(true);
+                }
+            }, 24);
+            Visitor single = queue.poll();
+            if (single != null) {
+                String[] parts = single.getId().split("-");
+                int producer = Integer.parseInt(parts[0]);
+                if (Integer.parseInt(parts[1]) != next[producer]++) {
+                    outOfOrder.set(true);
+                }
+                total++;
+            }
+        }
+        for (Thread thread : producers) {
+            thread.join();
+        }
+
+        assertFalse(outOfOrder.get());
+        for (int p = 0; p < PRODUCERS; p++) {
+            assertEquals(PER_PRODUCER, next[p]);
+        }
+        assertTrue(queue.isEmpty());
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    void sizeFollowsOffersAndRemovals() {
+        MpscVisitorQueue queue = new MpscVisitorQueue();
+        for (int i = 0; i < 10; i++) {
+            queue.offer(visitor(0, i));
+        }
+        queue.offerAll(List.of(visitor(1, 0), visitor(1, 1)));
+        assertEquals(12, queue.size());
+        queue.poll();
+        queue.drain(visitor -> { }, 5);
+        assertEquals(6, queue.size());
+        queue.drain(visitor -> { }, 100);
+        assertEquals(0, queue.size());
+        assertNull(queue.poll());
+        assertEquals(0, queue.size());
+    }
+
+    private static Visitor visitor(int producer, int i) {
+        return new Visitor(producer + "-" + i, "N", 30, "Adult", "2025-12-01");
+    }
+}
@@ -0,0 +1,73 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for ParkSimulator bookkeeping against the real ride queue.
+ */
+class ParkSimulatorTest {
+
+    @Test
+    void arrivalsTurnedAwayByCapacityAreNotCountedAsWaiting() {
+        ParkSimulator simulator = new ParkSimulator(7);
+        Ride ride = new Ride("Log Flume", 4, new Employee("E1", "Op", 30, "EMP1", "Ops"));
+        ride.setQueueCapacity(10);
+        simulator.addRide(ride, 60);
+        simulator.addArrivals("Log Flume", "Adult", ParkSimulator.ArrivalDistribution.fixed(5));
+
+        ParkSimulator.RideReport report = simulator.run(4 * 3600).get(0);
+
+        assertEquals(ride.getWaitingLine().size(), report.stillWaiting);
+        assertTrue(report.turnedAway > 0);
+        assertEquals(report.arrivals, report.riders + report.stillWaiting + report.turnedAway);
+        assertTrue(report.queueMax <= 10);
+        assertTrue(report.waitMax <= 3 * 60, "Waits are measured from admission, at most 3 cycles");
+    }
+
+    @Test
+    void unboundedQueueTurnsNobodyAway() {
+        ParkSimulator simulator = new ParkSimulator(7);
+        simulator.addRide(new Ride("Coaster", 8, new Employee("E2", "Op", 30, "EMP2", "Ops")), 60);
+        simulator.addArrivals("Coaster", "Adult", ParkSimulator.ArrivalDistribution.poisson(300));
+
+        List<ParkSimulator.RideReport> reports = simulator.run(3600);
+
+        assertEquals(0, reports.get(0).turnedAway);
+        assertEquals(reports.get(0).arrivals, reports.get(0).riders + reports.get(0).stillWaiting);
+    }
+
+    @Test
+    void visitorsQueuedBeforeTheRunBoardAsArrivalsAtTimeZero() {
+        ParkSimulator simulator = new ParkSimulator(7);
+        Ride ride = new Ride("Carousel", 4, new Employee("E3", "Op", 30, "EMP3", "Ops"));
+        ride.addVisitorToQueue(new Visitor("V1", "Vera", 40, "VIP", "2025-12-01"));
+        ride.addVisitorToQueue(new Visitor("A1", "Adam", 30, "Adult", "2025-12-01"));
+        simulator.addRide(ride, 60);
+        simulator.addArrivals("Carousel", "Adult", ParkSimulator.ArrivalDistribution.fixed(30));
+
+        ParkSimulator.RideReport report = simulator.run(600).get(0);
+
+        assertEquals(2, report.initiallyWaiting);
+        assertEquals(report.arrivals + 2, report.riders + report.stillWaiting);
+        assertEquals(60, report.waitMax, 1e-9, "The pre-queued visitors board in the first cycle, at 60 s");
+    }
+
+    @Test
+    void secondRunStartsFromFreshStatistics() {
+        ParkSimulator simulator = new ParkSimulator(7);
+        Ride ride = new Ride("Wave Swinger", 1, new Employee("E4", "Op", 30, "EMP4", "Ops"));
+        simulator.addRide(ride, 60);
+        simulator.addArrivals("Wave Swinger", "Adult", ParkSimulator.ArrivalDistribution.fixed(10));
+
+        ParkSimulator.RideReport first = simulator.run(600).get(0);
+        ParkSimulator.RideReport second = simulator.run(600).get(0);
+
+        assertEquals(first.arrivals, second.arrivals);
+        assertEquals(first.stillWaiting, second.initiallyWaiting);
+        assertEquals(second.arrivals + second.initiallyWaiting, second.riders + second.stillWaiting);
+        assertEquals(first.cycles, second.cycles);
+        assertTrue(second.waitMax <= 600, "Waits are measured within the run, never from an earlier run's clock");
+    }
+}
@@ -0,0 +1,58 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the read-only views and paged access of a Ride.
+ */
+class RideViewsTest {
+
+    private static Ride rideWithHistory(int riders) {
+        Ride ride = new Ride("Log Flume", 4, new Employee("E1", "Op", 30, "EMP1", "Ops"));
+        ride.setEventSink(SilentEventSink.INSTANCE);
+        for (int i = 0; i < riders; i++) {
+            ride.addVisitorToHistory(new Visitor("V" + i, "N" + i, 20 + i % 50, "Adult", "2025-12-01"));
+        }
+        return ride;
+    }
+
+    @Test
+    void gettersAreReadOnly() {
+        Ride ride = rideWithHistory(3);
+        ride.addVisitorToQueue(new Visitor("Q1", "Queued", 30, "Adult", "2025-12-01"));
+
+        assertThrows(UnsupportedOperationException.class,
+                () -> ride.getRideHistory().add(new Visitor("X", "X", 1, "Child", "2025-12-01")));
+        assertThrows(UnsupportedOperationException.class, () -> ride.getWaitingLine().poll());
+        assertThrows(UnsupportedOperationException.class, () -> ride.getWaitingLine().clear());
+        assertEquals(3, ride.getRideHistory().size());
+        assertEquals("Q1", ride.getWaitingLine().peek().getId());
+    }
+
+    @Test
+    void cursorIsStableAcrossAppendsAndFailsAfterSort() {
+        Ride ride = rideWithHistory(5);
+        HistoryCursor cursor = ride.historyCursor();
+
+        assertEquals("V0", cursor.next(3).get(0).getId());
+        ride.addVisitorToHistory(new Visitor("V5", "N5", 9, "Child", "2025-12-01"));
+        List<Visitor> rest = cursor.next(10);
+        assertEquals(List.of("V3", "V4", "V5"), rest.stream().map(Visitor::getId).toList());
+
+        ride.sortRideHistory();
+        assertThrows(ConcurrentModificationException.class, () -> cursor.next(1));
+    }
+
+    @Test
+    void pagesAndLatestRiders() {
+        Ride ride = rideWithHistory(25);
+
+        assertEquals("V10", ride.getHistoryPage(2, 10).get(0).getId());
+        assertEquals(5, ride.getHistoryPage(3, 10).size());
+        assertEquals(0, ride.getHistoryPage(4, 10).size());
+        assertEquals(List.of("V24", "V23"), ride.getLatestRiders(2).stream().map(Visitor::getId).toList());
+    }
+}
@@ -0,0 +1,46 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for SortedHistoryView: the live age/date order of a RideHistory.
+ */
+class SortedHistoryViewTest {
+
+    private static List<String> ids(Iterable<Visitor> visitors) {
+        List<String> ids = new ArrayList<>();
+        for (Visitor visitor : visitors) {
+            ids.add(visitor.getId());
+        }
+        return ids;
+    }
+
+    @Test
+    void appendsAreInsertedInOrder() {
+        RideHistory history = new RideHistory();
+        SortedHistoryView view = history.sortedView();
+        history.add(new Visitor("A", "Ann", 30, "Adult", "2025-12-01"));
+        history.add(new Visitor("B", "Bob", 10, "Child", "2025-12-02"));
+        history.add(new Visitor("C", "Cat", 10, "Child", "2025-12-01"));
+
+        assertEquals(List.of("C", "B", "A"), ids(view));
+    }
+
+    @Test
+    void viewObtainedBeforeSortStaysValidForLaterAppends() {
+        RideHistory history = new RideHistory();
+        history.add(new Visitor("A", "Ann", 30, "Adult", "2025-12-01"));
+        history.add(new Visitor("B", "Bob", 10, "Child", "2025-12-01"));
+        SortedHistoryView view = history.sortedView();
+
+        history.sortByAgeAndDate();
+        history.add(new Visitor("C", "Cat", 5, "Child", "2025-12-01"));
+
+        assertEquals(3, view.size());
+        assertEquals(List.of("C", "B", "A"), ids(view));
+        assertEquals(List.of("B", "A", "C"), ids(history));
+        assertEquals(List.of("C", "B"), ids(view.ageRange(0, 10)));
+    }
+}
@@ -0,0 +1,44 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for return slots of a ride's virtual queue.
+ */
+class VirtualQueueTest {
+
+    @Test
+    void slotCanBeRedeemedOnlyOnce() {
+        Ride ride = new Ride("Log Flume", 2, null);
+        ride.setEventSink(SilentEventSink.INSTANCE);
+        ride.setQueueCapacity(1);
+        ride.enableVirtualQueue(Duration.ofMinutes(5), Duration.ofMinutes(10),
+                Clock.fixed(Instant.parse("2025-12-01T10:00:00Z"), ZoneOffset.UTC));
+        Visitor visitor = new Visitor("V1", "Ann", 30, "Adult", "2025-12-01");
+
+        ReturnSlot slot = ride.reserveReturnSlot(visitor);
+
+        assertTrue(ride.redeemReturnSlot(slot, visitor));
+        assertTrue(slot.isRedeemed());
+        assertFalse(ride.redeemReturnSlot(slot, visitor));
+        assertEquals(1, ride.getWaitingLine().size());
+    }
+
+    @Test
+    void slotIsRejectedForAnotherVisitor() {
+        Ride ride = new Ride("Log Flume", 2, null);
+        ride.setEventSink(SilentEventSink.INSTANCE);
+        ride.enableVirtualQueue(Duration.ofMinutes(5), Duration.ofMinutes(10),
+                Clock.fixed(Instant.parse("2025-12-01T10:00:00Z"), ZoneOffset.UTC));
+        ReturnSlot slot = ride.reserveReturnSlot(new Visitor("V1", "Ann", 30, "Adult", "2025-12-01"));
+
+        assertFalse(ride.redeemReturnSlot(slot, new Visitor("V2", "Bob", 31, "Adult", "2025-12-01")));
+        assertFalse(slot.isRedeemed());
+    }
+}
@@ -0,0 +1,54 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for VisitorRegistry and the park's opt-in sharing of it.
+ */
+class VisitorRegistryTest {
+
+    private static Ride concurrentRide(String name) {
+        Ride ride = new Ride(name, 4, null, true);
+        ride.setEventSink(SilentEventSink.INSTANCE);
+        return ride;
+    }
+
+    @Test
+    void visitorWithoutIdPassesThrough() {
+        VisitorRegistry registry = new VisitorRegistry();
+        Visitor anonymous = new Visitor();
+        assertSame(anonymous, registry.intern(anonymous));
+        assertNull(registry.get(null));
+        assertEquals(0, registry.size());
+
+        Ride ride = concurrentRide("Log Flume");
+        ride.setVisitorRegistry(registry);
+        ride.addVisitorToHistory(new Visitor());
+        assertEquals(1, ride.getRideHistory().size());
+    }
+
+    @Test
+    void parkSharesARegistryOnlyWhenAskedTo() {
+        try (Park park = new Park("Test Park", 1)) {
+            Ride first = concurrentRide("Log Flume");
+            park.addRide(first, Duration.ofMinutes(1));
+            assertNull(park.getVisitorRegistry());
+            assertNull(first.getVisitorRegistry());
+
+            VisitorRegistry registry = park.shareVisitorRegistry();
+            Ride second = concurrentRide("Ferris Wheel");
+            park.addRide(second, Duration.ofMinutes(1));
+            assertSame(registry, park.shareVisitorRegistry());
+            assertSame(registry, first.getVisitorRegistry());
+            assertSame(registry, second.getVisitorRegistry());
+
+            first.addVisitorToHistory(new Visitor("V1", "Ann", 30, "Adult", "2025-12-01"));
+            second.addVisitorToHistory(new Visitor("V1", "Ann", 30, "Adult", "2025-12-01"));
+            assertEquals(1, registry.size());
+            assertSame(first.getRideHistory().get(0).getId(), second.getRideHistory().get(0).getId());
+        }
+    }
+}
@@ -0,0 +1,78 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for waiting lines: FIFO order across ring growth, and join times kept per line, not per visitor.
+ */
+class WaitingLineTest {
+
+    private static Visitor visitor(int i) {
+        return new Visitor("V" + i, "N" + i, 30, "Adult", "2025-12-01");
+    }
+
+    @Test
+    void arrayQueueKeepsOrderAndJoinTimesWhileWrappingAndGrowing() {
+        ArrayVisitorQueue line = new ArrayVisitorQueue();
+        List<String> boarded = new ArrayList<>();
+        List<Long> joined = new ArrayList<>();
+        int next = 0;
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < 7; i++, next++) {
+                line.offer(visitor(next), next);
+            }
+            line.drain((visitor, enqueuedAt) -> {
+                boarded.add(visitor.getId());
+                joined.add(enqueuedAt);
+            }, 5);
+        }
+        line.drain((visitor, enqueuedAt) -> {
+            boarded.add(visitor.getId());
+            joined.add(enqueuedAt);
+        }, Integer.MAX_VALUE);
+
+        assertEquals(next, boarded.size());
+        for (int i = 0; i < next; i++) {
+            assertEquals("V" + i, boarded.get(i));
+            assertEquals(i, joined.get(i));
+        }
+        assertTrue(line.isEmpty());
+    }
+
+    @Test
+    void visitorInTwoLinesHasAWaitTimePerRide() throws InterruptedException {
+        Employee operator = new Employee("E1", "Op", 40, "Operator", "Rides");
+        Ride first = new Ride("Log Flume", 1, operator);
+        Ride second = new Ride("Ferris Wheel", 1, operator);
+        first.setEventSink(SilentEventSink.INSTANCE);
+        second.setEventSink(SilentEventSink.INSTANCE);
+        Visitor visitor = visitor(1);
+
+        first.addVisitorToQueue(visitor);
+        Thread.sleep(50);
+        second.addVisitorToQueue(visitor); // Must not reset the wait on the first ride
+        first.runOneCycle();
+        second.runOneCycle();
+
+        long firstWait = first.getMetricsSnapshot().getWaitTime().getMax();
+        long secondWait = second.getMetricsSnapshot().getWaitTime().getMax();
+        assertTrue(firstWait >= TimeUnit.MILLISECONDS.toNanos(50), "first ride wait " + firstWait);
+        assertTrue(secondWait < firstWait, "second ride wait " + secondWait);
+    }
+
+    @Test
+    void lanesKeepJoinTimesWhenAddedAfterVisitorsQueued() throws InterruptedException {
+        Ride ride = new Ride("Log Flume", 2, new Employee("E1", "Op", 40, "Operator", "Rides"));
+        ride.setEventSink(SilentEventSink.INSTANCE);
+        ride.addVisitorToQueue(visitor(1));
+        Thread.sleep(50);
+        ride.addLane("Fast Pass", 3, "VIP");
+        ride.runOneCycle();
+
+        assertTrue(ride.getMetricsSnapshot().getWaitTime().getMax() >= TimeUnit.MILLISECONDS.toNanos(50));
+    }
+}